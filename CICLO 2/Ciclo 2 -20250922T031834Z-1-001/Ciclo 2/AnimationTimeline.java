@@ -0,0 +1,183 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Clase AnimationTimeline: línea de tiempo de animaciones que no bloquea a quien las pide.
+ * Las animaciones (interpolaciones de posición o tamaño y parpadeos) se registran con un objeto
+ * dueño y las avanza un reloj de dibujo en un hilo daemon, un cuadro cada FRAME_MILLIS. Cada
+ * cuadro se dibuja dentro de un lote del Canvas, así que todas las animaciones activas cuestan
+ * un solo redibujo por cuadro y la llamada que las pidió vuelve de inmediato.
+ *
+ * Cada dueño tiene a lo sumo una animación: una nueva, o un movimiento directo de la figura
+ * (finish), termina la anterior dejándola en su estado final.
+ *
+ * Cada paso se aplica con el monitor del dueño tomado, el mismo con el que las figuras protegen
+ * su estado. Así un cuadro nunca se mezcla con un movimiento directo del hilo de la simulación, y
+ * lo que escribe finish(owner) se ve antes que la siguiente escritura de quien lo llamó.
+ */
+public class AnimationTimeline {
+    public static final int FRAME_MILLIS = 16;  // ~60 cuadros por segundo
+
+    private static volatile AnimationTimeline timeline;
+
+    /**
+     * Un paso de animación: recibe la fracción de tiempo transcurrido, de 0 a 1.
+     */
+    public interface Frame {
+        void apply(double t);
+    }
+
+    private final ConcurrentHashMap<Object, Animation> animations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService clock;
+
+    private AnimationTimeline() {
+        clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "AnimationTimeline");
+            t.setDaemon(true);
+            return t;
+        });
+        clock.scheduleAtFixedRate(() -> advance(System.nanoTime()), FRAME_MILLIS, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Devuelve la línea de tiempo (la crea y arranca su reloj la primera vez).
+     * @return línea de tiempo compartida.
+     */
+    public static AnimationTimeline getTimeline() {
+        AnimationTimeline t = timeline;
+        if(t == null) {
+            synchronized(AnimationTimeline.class) {
+                t = timeline;
+                if(t == null) timeline = t = new AnimationTimeline();
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Termina ya la animación de un dueño, dejándola en su estado final.
+     * No hace nada si no tiene ninguna (ni crea la línea de tiempo).
+     *
+     * @param owner dueño de la animación.
+     */
+    public static void finish(Object owner) {
+        AnimationTimeline t = timeline;
+        if(t == null) return;
+        Animation a = t.animations.remove(owner);
+        if(a != null) a.step(1.0);
+    }
+
+    /**
+     * Registra una animación general.
+     *
+     * @param owner dueño (la figura o el elemento animado).
+     * @param millis duración en milisegundos.
+     * @param frame paso que recibe la fracción transcurrida.
+     */
+    public void animate(Object owner, long millis, Frame frame) {
+        finish(owner);
+        Animation a = new Animation(owner, System.nanoTime(), Math.max(1, millis) * 1000000L, frame);
+        animations.put(owner, a);
+    }
+
+    /**
+     * Interpola linealmente un valor entero (una coordenada, un tamaño).
+     *
+     * @param owner dueño de la animación.
+     * @param from valor inicial.
+     * @param to valor final.
+     * @param millis duración en milisegundos.
+     * @param setter recibe cada valor intermedio (solo cuando cambia).
+     */
+    public void tween(Object owner, int from, int to, long millis, IntConsumer setter) {
+        int[] last = {from};
+        animate(owner, millis, t -> {
+            int v = from + (int)Math.round((to - from) * t);
+            if(v != last[0] || t >= 1.0) {
+                last[0] = v;
+                setter.accept(v);
+            }
+        });
+    }
+
+    /**
+     * Hace parpadear un elemento: lo oculta y lo muestra `times` veces y termina mostrado.
+     *
+     * @param owner dueño de la animación.
+     * @param times cantidad de parpadeos.
+     * @param periodMillis duración de cada mitad (oculto o visible).
+     * @param shown recibe true para mostrar y false para ocultar.
+     */
+    public void blink(Object owner, int times, long periodMillis, Consumer<Boolean> shown) {
+        int phases = 2 * times;
+        int[] last = {-1};
+        animate(owner, phases * periodMillis, t -> {
+            int phase = t >= 1.0 ? phases : (int)(t * phases);
+            if(phase == last[0]) return;
+            last[0] = phase;
+            shown.accept(phase % 2 == 1 || phase == phases);
+        });
+    }
+
+    /**
+     * Devuelve la cantidad de animaciones en curso.
+     * @return animaciones activas.
+     */
+    public int active() { return animations.size(); }
+
+    /**
+     * Avanza todas las animaciones hasta el instante dado y dibuja el cuadro en un solo redibujo.
+     * Lo llama el reloj; también sirve para avanzar a mano (por ejemplo, en pruebas sin pantalla).
+     *
+     * @param now instante actual (System.nanoTime()).
+     */
+    public void advance(long now) {
+        if(animations.isEmpty()) return;
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginBatch();
+        try {
+            for(Map.Entry<Object, Animation> e : animations.entrySet()) {
+                Animation a = e.getValue();
+                double t = Math.min(1.0, (double)(now - a.start) / a.nanos);
+                try {
+                    a.step(t);
+                } catch(RuntimeException ex) {
+                    t = 1.0;                           // una animación rota no detiene el reloj
+                }
+                // se quita después del paso final: si finish ya no la encuentra, el final está aplicado
+                if(t >= 1.0) animations.remove(e.getKey(), a);
+            }
+        } finally {
+            canvas.endBatch();
+        }
+    }
+
+    /**
+     * Animación registrada. Sus pasos se aplican de a uno con el monitor del dueño y, una vez
+     * aplicado el final (por el reloj o por finish desde otro hilo), un cuadro atrasado ya no la
+     * retrocede.
+     */
+    private static final class Animation {
+        final Object owner;
+        final long start;
+        final long nanos;
+        final Frame frame;
+        boolean done;   // protegido por el monitor de owner
+
+        Animation(Object owner, long start, long nanos, Frame frame) {
+            this.owner = owner;
+            this.start = start;
+            this.nanos = nanos;
+            this.frame = frame;
+        }
+
+        void step(double t) {
+            synchronized(owner) {
+                if(done) return;
+                if(t >= 1.0) done = true;
+                frame.apply(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Clase ArrivalQueues: colas de llegada por tienda para decidir, sin candado global, qué robot
+ * recoge una tienda disputada.
+ * Cada ubicación con tienda tiene una cola ordenada por (ronda, tiempo de llegada, arrivalOrder)
+ * y un contador con la última época de reabastecimiento en que se vació.
+ *
+ * Las llegadas se agrupan en rondas. arrive(...) se puede llamar desde cualquier hilo y siempre
+ * cae en la ronda abierta; closeRound() cierra la ronda (esperando a las llegadas que estaban en
+ * curso) y solo las rondas cerradas se resuelven. Así la cabeza de la cola es de verdad la llegada
+ * más temprana: ninguna llegada posterior puede colarse delante. Al resolver, gana la primera
+ * llegada de la época actual y un compareAndSet sobre el contador garantiza que la tienda se vacía
+ * una sola vez por época, aunque varios hilos resuelvan la misma ubicación a la vez. Resolver
+ * descarta todas las llegadas de las rondas cerradas (ganadora y perdedoras), así que las colas no
+ * crecen de una ronda a otra.
+ *
+ * Uso por ronda: los hilos llaman a arrive(...); cuando todos terminaron (la barrera de la ronda),
+ * settleAll() cierra la ronda y resuelve todas las ubicaciones. resupply() va entre rondas: las
+ * llegadas de una época anterior se descartan. Una tienda vaciada fuera de las rondas se anota
+ * con claim(...), con el mismo compareAndSet, para que los contadores de vaciado y lo recogido
+ * sigan siendo los de la tienda.
+ *
+ * @param stores tiendas {ubicación, tenges}.
+ */
+public class ArrivalQueues {
+    private final ConcurrentHashMap<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger epoch = new AtomicInteger();  // época de reabastecimiento
+    private final AtomicReference<Round> open = new AtomicReference<>(new Round(0)); // ronda abierta
+    private final LongAdder collected = new LongAdder();      // tenges recogidos en total
+
+    /**
+     * Constructor de las colas.
+     */
+    public ArrivalQueues(int[][] stores) {
+        for(int[] s : stores) addStore(s[0], s[1]);
+    }
+
+    /**
+     * Agrega una tienda (reemplaza la que hubiera en esa ubicación).
+     * @param location ubicación de la tienda.
+     * @param tenges tenges que entrega al vaciarse.
+     */
+    public void addStore(int location, int tenges) {
+        slots.put(location, new Slot(tenges));
+    }
+
+    /**
+     * Quita una tienda y sus llegadas pendientes.
+     * @param location ubicación de la tienda.
+     */
+    public void removeStore(int location) {
+        slots.remove(location);
+    }
+
+    /**
+     * Devuelve la época de reabastecimiento actual.
+     * @return número de época.
+     */
+    public int epoch() { return epoch.get(); }
+
+    /**
+     * Devuelve la ronda abierta (la que reciben las llegadas nuevas).
+     * @return número de ronda.
+     */
+    public int round() { return open.get().number; }
+
+    /**
+     * Reabastece todas las tiendas: solo avanza la época (O(1)); las llegadas de épocas
+     * anteriores se descartan al resolver cada cola.
+     */
+    public void resupply() { epoch.incrementAndGet(); }
+
+    /**
+     * Encola la llegada de un robot a una ubicación, en la ronda abierta y la época actual.
+     *
+     * @param location ubicación de llegada.
+     * @param time instante de llegada.
+     * @param arrivalOrder orden de llegada del robot (desempate).
+     * @return false si no hay tienda en esa ubicación.
+     */
+    public boolean arrive(int location, double time, int arrivalOrder) {
+        Slot s = slots.get(location);
+        if(s == null) return false;
+        while(true) {
+            Round r = open.get();
+            r.inFlight.increment();
+            try {
+                // si la ronda se cerró mientras tanto, la llegada va a la siguiente
+                if(open.get() == r) {
+                    s.queue.add(new Arrival(r.number, epoch.get(), time, arrivalOrder));
+                    return true;
+                }
+            } finally {
+                r.inFlight.decrement();
+            }
+        }
+    }
+
+    /**
+     * Cierra la ronda abierta: las llegadas siguientes van a una ronda nueva y esta llamada
+     * espera a que terminen las que ya estaban encolándose en la ronda cerrada.
+     * @return número de la ronda cerrada.
+     */
+    public synchronized int closeRound() {
+        Round closed = open.get();
+        open.set(new Round(closed.number + 1));
+        // cada ronda tiene su propio contador: una llegada lenta de una ronda vieja no se confunde
+        // con las de una ronda posterior, aunque se cierren varias rondas mientras tanto
+        while(closed.inFlight.sum() != 0) Thread.onSpinWait();
+        return closed.number;
+    }
+
+    /**
+     * Resuelve una ubicación con las llegadas de las rondas cerradas: la primera de la época
+     * actual recoge los tenges, si nadie los recogió ya en esta época. Las llegadas de la ronda
+     * abierta esperan al próximo closeRound().
+     *
+     * @param location ubicación a resolver.
+     * @return tenges recogidos por esta llamada (0 si ya estaba vacía o no llegó nadie).
+     */
+    public int settle(int location) {
+        Slot s = slots.get(location);
+        return s == null ? 0 : settle(s, epoch.get(), round());
+    }
+
+    /**
+     * Anota que un robot vació una tienda fuera de las rondas (por ejemplo con un moveRobot
+     * normal). Usa el mismo compareAndSet que settle, así que la tienda sigue vaciándose una sola
+     * vez por época y emptied() y collected() no se desfasan.
+     *
+     * @param location ubicación de la tienda.
+     * @param arrivalOrder robot que la vació (-1 si no se conoce).
+     * @return tenges recogidos por esta llamada (0 si ya estaba vacía en esta época).
+     */
+    public int claim(int location, int arrivalOrder) {
+        Slot s = slots.get(location);
+        return s == null ? 0 : claim(s, epoch.get(), arrivalOrder);
+    }
+
+    /**
+     * Retira las llegadas de un robot a una ubicación que aún no se resolvieron
+     * (por ejemplo, porque el robot salió de la carretera durante la ronda).
+     *
+     * @param location ubicación de la tienda.
+     * @param arrivalOrder robot cuyas llegadas se retiran.
+     */
+    public void withdraw(int location, int arrivalOrder) {
+        Slot s = slots.get(location);
+        if(s != null) s.queue.removeIf(a -> a.order == arrivalOrder);
+    }
+
+    /**
+     * Cierra la ronda abierta y resuelve en paralelo todas las ubicaciones.
+     * Debe llamarse después de la barrera de la ronda (cuando todos los arrive terminaron).
+     * @return tenges recogidos por esta llamada.
+     */
+    public long settleAll() {
+        int open = closeRound() + 1;
+        int e = epoch.get();
+        LongAdder sum = new LongAdder();
+        slots.forEachValue(64, s -> sum.add(settle(s, e, open)));
+        return sum.sum();
+    }
+
+    /**
+     * Devuelve el robot que vació la tienda en la época actual.
+     *
+     * @param location ubicación de la tienda.
+     * @return arrivalOrder del ganador, o -1 si la tienda no se ha vaciado en esta época.
+     */
+    public int winner(int location) {
+        Slot s = slots.get(location);
+        if(s == null) return -1;
+        long w = s.winner.get();
+        return (int)(w >> 32) == epoch.get() ? (int)w : -1;
+    }
+
+    /**
+     * Devuelve cuántas veces se ha vaciado una tienda.
+     *
+     * @param location ubicación de la tienda.
+     * @return veces vaciada (0 si no existe).
+     */
+    public int emptied(int location) {
+        Slot s = slots.get(location);
+        return s == null ? 0 : s.emptied.get();
+    }
+
+    /**
+     * Devuelve cuántas llegadas esperan en la cola de una ubicación (sin resolver).
+     *
+     * @param location ubicación de la tienda.
+     * @return llegadas encoladas.
+     */
+    public int pending(int location) {
+        Slot s = slots.get(location);
+        return s == null ? 0 : s.queue.size();
+    }
+
+    /**
+     * Devuelve los tenges recogidos desde la creación.
+     * @return total recogido.
+     */
+    public long collected() { return collected.sum(); }
+
+    private int settle(Slot s, int e, int open) {
+        NavigableSet<Arrival> closed = s.queue.headSet(new Arrival(open, 0, Double.NEGATIVE_INFINITY, Integer.MIN_VALUE), false);
+        Arrival head = null;
+        for(Arrival a : closed) {
+            if(a.epoch == e) { head = a; break; }   // las de épocas viejas no cuentan
+        }
+        int taken = head == null ? 0 : claim(s, e, head.order);
+        closed.clear();   // las rondas cerradas ya están resueltas: se descartan ganadora y perdedoras
+        return taken;
+    }
+
+    /**
+     * Vacía la tienda en la época e a favor de un robot, si nadie la vació ya en esa época.
+     * Una tienda sin tenges no se vacía (como Store.isEmpty en SilkRoad).
+     */
+    private int claim(Slot s, int e, int order) {
+        if(s.tenges == 0) return 0;
+        long claimed;
+        do {
+            claimed = s.winner.get();
+            if((int)(claimed >> 32) >= e) return 0;  // ya vaciada en esta época
+        } while(!s.winner.compareAndSet(claimed, ((long)e << 32) | (order & 0xffffffffL)));
+        s.emptied.incrementAndGet();
+        collected.add(s.tenges);
+        return s.tenges;
+    }
+
+    /**
+     * Cola y estado de una tienda.
+     */
+    private static final class Slot {
+        final int tenges;
+        final ConcurrentSkipListSet<Arrival> queue = new ConcurrentSkipListSet<>();
+        final AtomicLong winner = new AtomicLong(((long)-1 << 32) | 0xffffffffL); // (época << 32) | arrivalOrder
+        final AtomicInteger emptied = new AtomicInteger();
+
+        Slot(int tenges) { this.tenges = tenges; }
+    }
+
+    /**
+     * Ronda: su número y las llegadas que se están encolando en ella.
+     */
+    private static final class Round {
+        final int number;
+        final LongAdder inFlight = new LongAdder();
+
+        Round(int number) { this.number = number; }
+    }
+
+    /**
+     * Llegada de un robot, ordenada por ronda, tiempo y arrivalOrder.
+     */
+    private static final class Arrival implements Comparable<Arrival> {
+        final int round;
+        final int epoch;
+        final double time;
+        final int order;
+
+        Arrival(int round, int epoch, double time, int order) {
+            this.round = round;
+            this.epoch = epoch;
+            this.time = time;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Arrival o) {
+            if(round != o.round) return Integer.compare(round, o.round);
+            if(time != o.time) return Double.compare(time, o.time);
+            if(order != o.order) return Integer.compare(order, o.order);
+            return Integer.compare(epoch, o.epoch);
+        }
+    }
+}
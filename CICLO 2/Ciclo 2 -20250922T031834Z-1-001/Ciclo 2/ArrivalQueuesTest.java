@@ -0,0 +1,123 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * Clase ArrivalQueuesTest: pruebas de ArrivalQueues y de las rondas de SilkRoad que la usan.
+ */
+public class ArrivalQueuesTest {
+
+    @Test
+    public void earliestArrivalWinsOncePerEpoch() {
+        ArrivalQueues q = new ArrivalQueues(new int[][]{{10, 50}});
+        q.arrive(10, 7, 2);
+        q.arrive(10, 3, 5);
+        q.arrive(10, 3, 4);
+        assertEquals(50, q.settleAll());
+        assertEquals(4, q.winner(10));
+        q.arrive(10, 1, 9);
+        assertEquals(0, q.settleAll());
+        assertEquals(1, q.emptied(10));
+        q.resupply();
+        q.arrive(10, 1, 9);
+        assertEquals(50, q.settleAll());
+        assertEquals(2, q.emptied(10));
+        assertEquals(100, q.collected());
+        assertEquals(0, q.pending(10));
+    }
+
+    @Test
+    public void claimKeepsCountersInStep() {
+        ArrivalQueues q = new ArrivalQueues(new int[][]{{10, 50}, {20, 0}});
+        assertEquals(50, q.claim(10, 3));
+        assertEquals(0, q.claim(10, 4));
+        assertEquals(0, q.claim(20, 4));   // sin tenges no se vacía
+        q.arrive(10, 1, 7);
+        assertEquals(0, q.settleAll());
+        assertEquals(3, q.winner(10));
+        assertEquals(1, q.emptied(10));
+        assertEquals(0, q.emptied(20));
+        assertEquals(50, q.collected());
+    }
+
+    @Test
+    public void arrivalsStayInTheirRoundAcrossSeveralCloses() {
+        ArrivalQueues q = new ArrivalQueues(new int[][]{{10, 50}});
+        q.arrive(10, 5, 1);
+        assertEquals(0, q.closeRound());
+        assertEquals(1, q.closeRound());
+        q.arrive(10, 1, 2);               // ronda 2, todavía abierta
+        assertEquals(2, q.round());
+        assertEquals(50, q.settle(10));   // resuelve solo las rondas 0 y 1
+        assertEquals(1, q.winner(10));
+        assertEquals(1, q.pending(10));
+    }
+
+    @Test
+    public void concurrentArrivalsEmptyEachStoreOnce() {
+        int stores = 8, robots = 10000;
+        int[][] days = new int[stores][];
+        for(int i=0;i<stores;i++) days[i] = new int[]{i, 100};
+        ArrivalQueues q = new ArrivalQueues(days);
+        IntStream.range(0, robots).parallel().forEach(i -> q.arrive(i % stores, robots - i, i));
+        assertEquals(stores * 100L, q.settleAll());
+        for(int i=0;i<stores;i++) {
+            assertEquals(1, q.emptied(i));
+            assertEquals(robots - stores + i, q.winner(i));   // la llegada más temprana de cada tienda
+        }
+    }
+
+    @Test
+    public void roundCollectsForTheEarliestRobot() {
+        SilkRoad road = new SilkRoad(100);
+        road.placeStore(50, 40);
+        road.placeRobot(40);
+        road.placeRobot(55);
+        road.beginRound();
+        road.moveRobot(40, 10);   // llega después de 10 metros
+        road.moveRobot(55, -5);   // llega después de 5 metros: gana aunque se movió después
+        road.endRound();
+        assertTrue(road.ok());
+        assertArrayEquals(new int[][]{{50, -10}, {50, 35}}, sorted(road.profitPerRobot()));
+        assertEquals(25, road.porfit());
+    }
+
+    @Test
+    public void storeEmptiedOutsideARoundStaysEmpty() {
+        SilkRoad road = new SilkRoad(100);
+        road.placeStore(50, 40);
+        road.placeRobot(45);
+        road.placeRobot(60);
+        road.beginRound();
+        road.endRound();
+        road.moveRobot(45, 5);    // fuera de la ronda: vacía la tienda
+        road.beginRound();
+        road.moveRobot(60, -10);
+        road.endRound();
+        assertEquals(40 - 5 - 10, road.porfit());
+        assertArrayEquals(new int[][]{{50, 0}}, road.stores());
+    }
+
+    @Test
+    public void removedRobotCannotWinTheRound() {
+        SilkRoad road = new SilkRoad(100);
+        road.placeStore(50, 40);
+        road.placeRobot(48);
+        road.placeRobot(60);
+        road.beginRound();
+        road.moveRobot(48, 2);
+        road.moveRobot(60, -10);
+        road.removeRobot(50);     // el primero en llegar sale de la carretera
+        road.endRound();
+        assertEquals(40 - 2 - 10, road.porfit());
+        assertArrayEquals(new int[][]{{50, 30}}, road.profitPerRobot());
+    }
+
+    private static int[][] sorted(int[][] rows) {
+        Arrays.sort(rows, (a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        return rows;
+    }
+}
@@ -0,0 +1,109 @@
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Clase BatchRunner: corre una SilkRoad sin interfaz gráfica a partir de un archivo de entrada
+ * y escribe la ganancia después de cada registro.
+ *
+ * Formato de entrada (enteros separados por espacios o saltos de línea):
+ *   largo n
+ *   n registros, cada uno empieza por su tipo:
+ *     1 x      placeRobot(x)
+ *     2 x c    placeStore(x, c)
+ *     3 x m    moveRobot(x, m)
+ *     4        moveRobots()
+ *     5        resupplyStores()
+ *     6        reboot()
+ *     7        returnRobots()
+ * Salida: una línea por registro con porfit() tras aplicarlo. El total de operaciones
+ * por segundo se escribe en la salida de error.
+ *
+ * Uso: java BatchRunner entrada [salida]
+ */
+public class BatchRunner {
+    private static final int BUFFER = 1 << 16;   // bytes de salida antes de escribirlos
+    private static final int MAX_LINE = 12;      // "-2147483648\n"
+
+    /**
+     * Punto de entrada.
+     * @param args entrada [salida].
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        if(args.length < 1) {
+            System.err.println("Uso: java BatchRunner entrada [salida]");
+            System.exit(2);
+        }
+        long t0 = System.nanoTime();
+        long records;
+        try(MappedIntReader in = new MappedIntReader(Paths.get(args[0]));
+            OutputStream out = args.length > 1 ? new FileOutputStream(args[1]) : new FileOutputStream(FileDescriptor.out)) {
+            records = run(in, out);
+        }
+        long nanos = Math.max(1, System.nanoTime() - t0);
+        System.err.printf("%d registros en %.3f s (%.1f ops/s)%n", records, nanos / 1e9, records * 1e9 / nanos);
+    }
+
+    /**
+     * Lee los registros, los aplica a una SilkRoad nueva y escribe la ganancia tras cada uno.
+     * Los dígitos se escriben directamente en un arreglo de bytes que se reutiliza (en ASCII),
+     * sin crear un String por registro.
+     *
+     * @param in lector de la entrada.
+     * @param out destino de las respuestas (no se cierra).
+     * @return número de registros procesados.
+     * @throws IOException si la entrada está mal formada o falla la escritura.
+     */
+    public static long run(MappedIntReader in, OutputStream out) throws IOException {
+        SilkRoad road = new SilkRoad(in.nextInt());
+        int n = in.nextInt();
+        byte[] buf = new byte[BUFFER];
+        int len = 0;
+        for(int i=0;i<n;i++) {
+            int type = in.nextInt();
+            switch(type) {
+                case 1: road.placeRobot(in.nextInt()); break;
+                case 2: road.placeStore(in.nextInt(), in.nextInt()); break;
+                case 3: road.moveRobot(in.nextInt(), in.nextInt()); break;
+                case 4: road.moveRobots(); break;
+                case 5: road.resupplyStores(); break;
+                case 6: road.reboot(); break;
+                case 7: road.returnRobots(); break;
+                default: throw new IOException("registro " + (i + 1) + ": tipo desconocido " + type);
+            }
+            if(len > BUFFER - MAX_LINE) {
+                out.write(buf, 0, len);
+                len = 0;
+            }
+            len = writeLine(buf, len, road.porfit());
+        }
+        out.write(buf, 0, len);
+        out.flush();
+        return n;
+    }
+
+    /**
+     * Escribe un entero en decimal seguido de un salto de línea.
+     *
+     * @param buf arreglo destino (con al menos MAX_LINE bytes libres desde at).
+     * @param at posición donde empezar.
+     * @param value entero a escribir.
+     * @return posición siguiente al salto de línea.
+     */
+    static int writeLine(byte[] buf, int at, int value) {
+        long v = value;     // en long para que -Integer.MIN_VALUE no desborde
+        if(v < 0) {
+            buf[at++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for(long p = 10; p <= v; p *= 10) digits++;
+        for(int i = at + digits - 1; i >= at; i--) {
+            buf[i] = (byte)('0' + v % 10);
+            v /= 10;
+        }
+        at += digits;
+        buf[at++] = '\n';
+        return at;
+    }
+}
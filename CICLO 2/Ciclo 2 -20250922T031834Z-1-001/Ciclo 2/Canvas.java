@@ -1,6 +1,5 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
 import java.util.*;
 
 /**
@@ -21,10 +20,19 @@ public class Canvas{
 
 	private static Canvas canvasSingleton;
 
+	/**
+	 * Number of times the canvas singleton has been redrawn (0 if it does not exist yet).
+	 * Unlike getCanvas() this never creates or shows the canvas.
+	 */
+	public static long redrawCount(){
+		Canvas c = canvasSingleton;
+		return c == null ? 0 : c.redraws;
+	}
+
 	/**
 	 * Factory method to get the canvas singleton object.
 	 */
-	public static Canvas getCanvas(){
+	public static synchronized Canvas getCanvas(){
 		if(canvasSingleton == null) {
 			canvasSingleton = new Canvas("BlueJ Shapes Demo", 300, 300, 
 										 Color.white);
@@ -40,8 +48,22 @@ public class Canvas{
     private Graphics2D graphic;
     private Color backgroundColour;
     private Image canvasImage;
-    private List <Object> objects;
-    private HashMap <Object,ShapeDescription> shapes;
+    private LinkedHashMap <Object,ShapeDescription> shapes; // in drawing order
+    private volatile long redraws;
+    // frame statistics for the optional overlay
+    private static final int SAMPLES = 256;
+    private boolean statsOverlay;
+    private long[] redrawNanos = new long[SAMPLES]; // ring of recent redraw times
+    private int sampleCount;
+    private long windowStart;                       // start of the current 1 s window
+    private int windowRedraws;
+    private double redrawsPerSecond;
+    private final java.util.concurrent.atomic.LongAdder waitNanos
+        = new java.util.concurrent.atomic.LongAdder(); // total time slept in wait(), by all threads
+    private int batchDepth;                         // > 0 while redraws are deferred (any thread)
+    private final ThreadLocal<int[]> ownBatchDepth
+        = ThreadLocal.withInitial(() -> new int[1]); // batches opened by the calling thread
+    private boolean batchDirty;                     // a draw or erase happened during the batch
     
     /**
      * Create a Canvas.
@@ -51,15 +73,18 @@ public class Canvas{
      * @param bgClour  the desired background colour of the canvas
      */
     private Canvas(String title, int width, int height, Color bgColour){
-        frame = new JFrame();
         canvas = new CanvasPane();
-        frame.setContentPane(canvas);
-        frame.setTitle(title);
         canvas.setPreferredSize(new Dimension(width, height));
         backgroundColour = bgColour;
-        frame.pack();
-        objects = new ArrayList <Object>();
-        shapes = new HashMap <Object,ShapeDescription>();
+        // without a display (benchmarks, servers) the canvas draws only offscreen
+        if(!GraphicsEnvironment.isHeadless()) {
+            frame = new JFrame();
+            frame.setContentPane(canvas);
+            frame.setTitle(title);
+            frame.pack();
+        }
+        shapes = new LinkedHashMap <Object,ShapeDescription>();
+        windowStart = System.nanoTime();
     }
 
     /**
@@ -69,18 +94,20 @@ public class Canvas{
      * @param visible  boolean value representing the desired visibility of
      * the canvas (true or false) 
      */
-    public void setVisible(boolean visible){
+    public synchronized void setVisible(boolean visible){
         if(graphic == null) {
             // first time: instantiate the offscreen image and fill it with
             // the background colour
-            Dimension size = canvas.getSize();
-            canvasImage = canvas.createImage(size.width, size.height);
+            Dimension size = size();
+            canvasImage = frame != null ? canvas.createImage(size.width, size.height)
+                                        : new java.awt.image.BufferedImage(size.width, size.height,
+                                              java.awt.image.BufferedImage.TYPE_INT_RGB);
             graphic = (Graphics2D)canvasImage.getGraphics();
             graphic.setColor(backgroundColour);
             graphic.fillRect(0, 0, size.width, size.height);
             graphic.setColor(Color.black);
         }
-        frame.setVisible(visible);
+        if(frame != null) frame.setVisible(visible);
     }
 
     /**
@@ -92,21 +119,45 @@ public class Canvas{
      // Note: this is a slightly backwards way of maintaining the shape
      // objects. It is carefully designed to keep the visible shape interfaces
      // in this project clean and simple for educational purposes.
-    public void draw(Object referenceObject, String color, Shape shape){
-    	objects.remove(referenceObject);   // just in case it was already there
-    	objects.add(referenceObject);      // add at the end
-    	shapes.put(referenceObject, new ShapeDescription(shape, color));
-    	redraw();
+    public synchronized void draw(Object referenceObject, String color, Shape shape){
+    	shapes.remove(referenceObject);    // just in case it was already there
+    	shapes.put(referenceObject, new ShapeDescription(shape, color)); // add at the end
+    	requestRedraw();
     }
  
     /**
      * Erase a given shape's from the screen.
      * @param  referenceObject  the shape object to be erased 
      */
-    public void erase(Object referenceObject){
-    	objects.remove(referenceObject);   // just in case it was already there
+    public synchronized void erase(Object referenceObject){
     	shapes.remove(referenceObject);
-    	redraw();
+    	requestRedraw();
+    }
+
+    /**
+     * Start a batch of changes: until the matching endBatch(), draw and erase
+     * only record the shapes, and endBatch() redraws once. Batches may nest.
+     * The AnimationTimeline draws each frame in a batch from its own thread,
+     * so drawing and batching are synchronized on the canvas.
+     */
+    public synchronized void beginBatch(){
+        batchDepth++;
+        ownBatchDepth.get()[0]++;
+    }
+
+    /**
+     * End a batch started with beginBatch(). The outermost call redraws the
+     * canvas once if anything changed inside the batch.
+     */
+    public synchronized void endBatch(){
+        if(batchDepth == 0) return;
+        batchDepth--;
+        int[] own = ownBatchDepth.get();
+        if(own[0] > 0) own[0]--;
+        if(batchDepth == 0 && batchDirty){
+            batchDirty = false;
+            redraw();
+        }
     }
 
     /**
@@ -135,26 +186,74 @@ public class Canvas{
     /**
      * Wait for a specified number of milliseconds before finishing.
      * This provides an easy way to specify a small delay which can be
-     * used when producing animations.
+     * used when producing animations. Inside a batch opened by the calling
+     * thread nothing is shown until endBatch(), so it returns at once; a
+     * batch open on another thread (the timeline, the EDT) does not count.
      * @param  milliseconds  the number 
      */
     public void wait(int milliseconds){
+        if(ownBatchDepth.get()[0] > 0) return;
+        CanvasWaitEvent event = new CanvasWaitEvent();
+        event.begin();
+        long start = System.nanoTime();
         try{
             Thread.sleep(milliseconds);
         } catch (Exception e){
             // ignoring exception at the moment
         }
+        waitNanos.add(System.nanoTime() - start);
+        if(event.shouldCommit()){
+            event.requestedMillis = milliseconds;
+            event.commit();
+        }
+    }
+
+    /**
+     * Show or hide the frame statistics overlay: redraws per second, average
+     * and p99 redraw time, shapes on the canvas and total time slept in wait().
+     * It is painted in the same pass as the shapes, so it adds no extra redraw.
+     * @param  visible  true to show the overlay
+     */
+    public synchronized void setStatsOverlay(boolean visible){
+        statsOverlay = visible;
+        if(graphic != null) redraw();
+    }
+
+    /**
+     * Tell whether the frame statistics overlay is shown.
+     * @return true if the overlay is visible
+     */
+    public boolean isStatsOverlay(){
+        return statsOverlay;
+    }
+
+    /**
+     * Redraw now, or at the end of the current batch.
+     */
+    private void requestRedraw(){
+        if(batchDepth > 0) batchDirty = true;
+        else redraw();
     }
 
 	/**
 	 * Redraw ell shapes currently on the Canvas.
 	 */
 	private void redraw(){
+		CanvasRedrawEvent event = new CanvasRedrawEvent();
+		event.begin();
+		long start = System.nanoTime();
+		redraws++;
 		erase();
-		for(Iterator i=objects.iterator(); i.hasNext(); ) {
-                       shapes.get(i.next()).draw(graphic);
+		for(ShapeDescription shape : shapes.values()) {
+            shape.draw(graphic);
         }
+        recordRedraw(start, System.nanoTime());
+        if(statsOverlay) drawStats();
         canvas.repaint();
+        if(event.shouldCommit()){
+            event.shapes = shapes.size();
+            event.commit();
+        }
     }
        
     /**
@@ -163,11 +262,58 @@ public class Canvas{
     private void erase(){
         Color original = graphic.getColor();
         graphic.setColor(backgroundColour);
-        Dimension size = canvas.getSize();
+        Dimension size = size();
         graphic.fill(new java.awt.Rectangle(0, 0, size.width, size.height));
         graphic.setColor(original);
     }
 
+    /**
+     * Record the duration of one redraw and update the redraws per second.
+     */
+    private void recordRedraw(long start, long end){
+        redrawNanos[(int)(redraws % SAMPLES)] = end - start;
+        if(sampleCount < SAMPLES) sampleCount++;
+        windowRedraws++;
+        if(end - windowStart >= 1000000000L){
+            redrawsPerSecond = windowRedraws * 1e9 / (end - windowStart);
+            windowStart = end;
+            windowRedraws = 0;
+        }
+    }
+
+    /**
+     * Paint the statistics overlay in the top left corner.
+     */
+    private void drawStats(){
+        long[] recent = Arrays.copyOf(redrawNanos, sampleCount);
+        Arrays.sort(recent);
+        long sum = 0;
+        for(long v : recent) sum += v;
+        double avg = sampleCount == 0 ? 0 : sum / 1e6 / sampleCount;
+        double p99 = sampleCount == 0 ? 0 : recent[Math.min(sampleCount - 1, (int)(sampleCount * 0.99))] / 1e6;
+        String[] lines = {
+            String.format("redraws/s %.1f", redrawsPerSecond),
+            String.format("redraw avg %.2f ms  p99 %.2f ms", avg, p99),
+            "shapes " + shapes.size(),
+            String.format("wait total %.1f s", waitNanos.sum() / 1e9)
+        };
+        Color original = graphic.getColor();
+        graphic.setColor(new Color(0, 0, 0, 160));
+        graphic.fillRect(2, 2, 230, 14 * lines.length + 4);
+        graphic.setColor(Color.white);
+        for(int i = 0; i < lines.length; i++){
+            graphic.drawString(lines[i], 6, 15 + 14 * i);
+        }
+        graphic.setColor(original);
+    }
+
+    /**
+     * Size of the drawing area (the preferred size when there is no frame).
+     */
+    private Dimension size(){
+        return frame != null ? canvas.getSize() : canvas.getPreferredSize();
+    }
+
 
     /************************************************************************
      * Inner class CanvasPane - the actual canvas component contained in the
@@ -0,0 +1,14 @@
+import jdk.jfr.*;
+
+/**
+ * Clase CanvasRedrawEvent: evento de JDK Flight Recorder emitido por cada redibujo completo del Canvas.
+ * Su duración es el tiempo que toma volver a pintar todas las figuras registradas.
+ */
+@Name("silkroad.CanvasRedraw")
+@Label("Canvas Redraw")
+@Category({"SilkRoad", "Rendering"})
+@Description("Redibujo completo de todas las figuras del Canvas")
+public class CanvasRedrawEvent extends Event {
+    @Label("Shapes")
+    public int shapes;
+}
@@ -0,0 +1,15 @@
+import jdk.jfr.*;
+
+/**
+ * Clase CanvasWaitEvent: evento de JDK Flight Recorder emitido por cada pausa de Canvas.wait.
+ * Su duración es el tiempo realmente dormido; requestedMillis es lo que pidió quien llamó.
+ */
+@Name("silkroad.CanvasWait")
+@Label("Canvas Wait")
+@Category({"SilkRoad", "Rendering"})
+@Description("Pausa pedida con Canvas.wait")
+public class CanvasWaitEvent extends Event {
+    @Label("Requested")
+    @Timespan(Timespan.MILLISECONDS)
+    public long requestedMillis;
+}
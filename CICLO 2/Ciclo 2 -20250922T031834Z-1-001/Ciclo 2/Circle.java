@@ -12,6 +12,7 @@ public class Circle{
 
     public static final double PI=3.1416;
     
+    // guarded by this; AnimationTimeline runs our animation frames holding the same monitor
     private int diameter;
     private int xPosition;
     private int yPosition;
@@ -30,23 +31,38 @@ public class Circle{
 
        
     public void makeVisible(){
-        isVisible = true;
+        synchronized(this){
+            isVisible = true;
+        }
         draw();
     }
     
 
-    public void makeInvisible(){
+    public synchronized void makeInvisible(){
         erase();
         isVisible = false;
     }
 
     private void draw(){
+        boolean shown;
+        synchronized(this){
+            paint();
+            shown = isVisible;
+        }
+        if(shown) {
+            Canvas.getCanvas().wait(10);  // the pause happens outside the monitor
+        }
+    }
+
+    /*
+     * Draw the circle without pausing (used by animation frames).
+     */
+    private void paint(){
         if(isVisible) {
             Canvas canvas = Canvas.getCanvas();
             canvas.draw(this, color, 
                 new Ellipse2D.Double(xPosition, yPosition, 
                 diameter, diameter));
-            canvas.wait(10);
         }
     }
 
@@ -90,8 +106,11 @@ public class Circle{
      * @param distance the desired distance in pixels
      */
     public void moveHorizontal(int distance){
-        erase();
-        xPosition += distance;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            erase();
+            xPosition += distance;
+        }
         draw();
     }
 
@@ -100,49 +119,48 @@ public class Circle{
      * @param distance the desired distance in pixels
      */
     public void moveVertical(int distance){
-        erase();
-        yPosition += distance;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            erase();
+            yPosition += distance;
+        }
         draw();
     }
 
     /**
-     * Slowly move the circle horizontally.
-     * @param distance the desired distance in pixels
+     * Move the circle to an absolute position, redrawing once.
+     * @param x the new horizontal position in pixels
+     * @param y the new vertical position in pixels
      */
-    public void slowMoveHorizontal(int distance){
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-
-        for(int i = 0; i < distance; i++){
-            xPosition += delta;
-            draw();
+    public void moveTo(int x, int y){
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            xPosition = x;
+            yPosition = y;
         }
+        draw();
     }
 
     /**
-     * Slowly move the circle vertically
+     * Slowly move the circle horizontally, one pixel every 10 milliseconds.
+     * The move is played by the AnimationTimeline; this call returns immediately.
      * @param distance the desired distance in pixels
      */
-    public void slowMoveVertical(int distance){
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        }else {
-            delta = 1;
-        }
+    public synchronized void slowMoveHorizontal(int distance){
+        AnimationTimeline.finish(this);
+        AnimationTimeline.getTimeline().tween(this, xPosition, xPosition + distance,
+            10L * Math.abs(distance), x -> { xPosition = x; paint(); });
+    }
 
-        for(int i = 0; i < distance; i++){
-            yPosition += delta;
-            draw();
-        }
+    /**
+     * Slowly move the circle vertically, one pixel every 10 milliseconds.
+     * The move is played by the AnimationTimeline; this call returns immediately.
+     * @param distance the desired distance in pixels
+     */
+    public synchronized void slowMoveVertical(int distance){
+        AnimationTimeline.finish(this);
+        AnimationTimeline.getTimeline().tween(this, yPosition, yPosition + distance,
+            10L * Math.abs(distance), y -> { yPosition = y; paint(); });
     }
 
     /**
@@ -150,18 +168,33 @@ public class Circle{
      * @param newDiameter the new size (in pixels). Size must be >=0.
      */
     public void changeSize(int newDiameter){
-        erase();
-        diameter = newDiameter;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            diameter = newDiameter;
+        }
         draw();
     }
 
+    /**
+     * Slowly change the size, played by the AnimationTimeline; this call returns immediately.
+     * @param newDiameter the new size (in pixels). Size must be >=0.
+     * @param milliseconds how long the change takes
+     */
+    public synchronized void slowChangeSize(int newDiameter, int milliseconds){
+        AnimationTimeline.finish(this);
+        AnimationTimeline.getTimeline().tween(this, diameter, newDiameter, milliseconds,
+            d -> { diameter = d; paint(); });
+    }
+
     /**
      * Change the color. 
      * @param color the new color. Valid colors are "red", "yellow", "blue", "green",
      * "magenta" and "black".
      */
     public void changeColor(String newColor){
-        color = newColor;
+        synchronized(this){
+            color = newColor;
+        }
         draw();
     }
 
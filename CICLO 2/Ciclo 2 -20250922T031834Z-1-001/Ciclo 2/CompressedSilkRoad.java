@@ -0,0 +1,589 @@
+import java.util.*;
+
+/**
+ * Clase CompressedSilkRoad: simulación sin interfaz gráfica para carreteras muy largas y dispersas,
+ * con ubicaciones long. Solo se guardan las ubicaciones ocupadas, en índices ordenados y compactos
+ * (arreglos primitivos), y todas las operaciones trabajan con rangos (la posición de una ubicación
+ * en el índice) en vez de con metros: la memoria y el tiempo dependen de cuántas tiendas y robots
+ * hay, no del largo de la carretera.
+ *
+ * Tiendas: ubicaciones ordenadas con sus tenges iniciales, actuales, veces vaciada y orden de
+ * colocación; reabastecer solo avanza una época y cada tienda se rellena al leerla, como en SilkRoad.
+ * Robots: cada robot tiene un id igual a su orden de llegada; el índice de posiciones está ordenado
+ * por (ubicación, id), así que el primer robot de una ubicación es el de menor orden de llegada.
+ * Mover un robot solo desplaza las entradas entre su rango viejo y el nuevo. Aparte se guarda el
+ * índice de ubicaciones iniciales, que returnRobots copia de una vez.
+ *
+ * Costo aceptado: los índices son arreglos ordenados, así que placeStore, removeStore, placeRobot,
+ * removeRobot y cada movimiento desplazan con System.arraycopy las entradas que quedan detrás, O(n)
+ * por operación (n inserciones sueltas cuestan O(n²) copias de memoria). Es una copia contigua de
+ * primitivos, mucho más barata por elemento que un árbol de nodos, y para cargar muchas tiendas
+ * está placeStores, que mezcla el lote en una sola pasada. moveRobots no recorre todas las tiendas
+ * por robot: arma una vez por llamada dos árboles de máximos sobre los rangos y busca la mejor
+ * tienda de cada robot en O(log S), O(S + R log S) en total.
+ *
+ * Las reglas son las de SilkRoad (ocupación, coste de 1 tenge por metro, recoger al llegar, empate
+ * en moveRobots para la tienda colocada primero) y la ganancia es un int que se desborda igual que
+ * la de SilkRoad, así que porfit() se puede comparar directamente.
+ *
+ * @param length longitud lógica de la carretera.
+ */
+public class CompressedSilkRoad {
+    private final long length;
+    private boolean lastOk = true;
+    private int profit;
+
+    // tiendas, ordenadas por ubicación (el índice es el rango)
+    private long[] storeLoc = new long[16];
+    private int[] storeInitial = new int[16];
+    private int[] storeTenges = new int[16];
+    private int[] storeEpoch = new int[16];
+    private int[] storeEmptied = new int[16];
+    private int[] storeOrder = new int[16];    // orden de colocación (desempate de moveRobots)
+    private int stores;
+    private int supplyEpoch;
+    private int placements;
+
+    // robots por id (= orden de llegada)
+    private long[] robotLoc = new long[16];
+    private long[] robotHome = new long[16];
+    private int[] robotProfit = new int[16];
+    private boolean[] robotAlive = new boolean[16];
+    private int nextId;
+    // índice de posiciones actuales, ordenado por (ubicación, id)
+    private long[] posLoc = new long[16];
+    private int[] posId = new int[16];
+    // índice de ubicaciones iniciales, ordenado por (ubicación inicial, id)
+    private long[] homeLoc = new long[16];
+    private int[] homeId = new int[16];
+    private int robots;
+
+    /**
+     * Constructor de la carretera comprimida.
+     */
+    public CompressedSilkRoad(long length) {
+        this.length = length;
+    }
+
+    /**
+     * Devuelve la longitud lógica de la carretera.
+     * @return longitud.
+     */
+    public long length() { return length; }
+
+    /**
+     * Indica si la última operación fue exitosa.
+     * @return true si terminó bien.
+     */
+    public boolean ok() { return lastOk; }
+
+    /**
+     * Devuelve la ganancia acumulada.
+     * @return ganancia (puede ser negativa).
+     */
+    public int porfit() { return profit; }
+
+    /** @return número de tiendas. */
+    public int storeCount() { return stores; }
+
+    /** @return número de robots. */
+    public int robotCount() { return robots; }
+
+    // ----------------- TIENDAS -----------------
+
+    /**
+     * Coloca una tienda. Falla si ya hay una tienda o un robot en la ubicación.
+     *
+     * @param location ubicación lógica.
+     * @param tenges tenges iniciales.
+     */
+    public void placeStore(long location, int tenges) {
+        int rank = lowerBound(storeLoc, stores, location);
+        if(rank < stores && storeLoc[rank] == location || firstRobotRank(location) >= 0) {
+            lastOk = false;
+            return;
+        }
+        if(stores == storeLoc.length) growStores();
+        shift(rank, 1);
+        storeLoc[rank] = location;
+        storeInitial[rank] = tenges;
+        storeTenges[rank] = tenges;
+        storeEpoch[rank] = supplyEpoch;
+        storeEmptied[rank] = 0;
+        storeOrder[rank] = placements++;
+        stores++;
+        lastOk = true;
+    }
+
+    /**
+     * Coloca muchas tiendas de una vez, con el mismo resultado que llamar placeStore en orden:
+     * ordena el lote y lo mezcla con el índice en una sola pasada (O(S + k log k)) en vez de
+     * desplazar el índice por cada tienda. Como las ubicaciones son long, primero se ordenan solas
+     * para cambiar cada una por su rango, y luego se ordenan las claves empaquetadas
+     * (rango << 32 | índice), todo con arreglos primitivos. Se rechazan también los tenges que no
+     * caben en un int. ok() queda en false si se rechazó alguna.
+     *
+     * @param days tiendas {ubicación, tenges}.
+     * @return tiendas rechazadas {ubicación, tenges}, en el orden de entrada.
+     */
+    public long[][] placeStores(long[][] days) {
+        int n = days.length;
+        long[] sorted = new long[n];
+        for(int i=0;i<n;i++) sorted[i] = days[i][0];
+        Arrays.parallelSort(sorted);
+        long[] keys = new long[n];
+        for(int i=0;i<n;i++) keys[i] = ((long)lowerBound(sorted, n, days[i][0]) << 32) | i;
+        Arrays.parallelSort(keys);
+        int[] order = new int[n];
+        boolean[] accepted = new boolean[n];
+        int count = 0;
+        long previous = 0;
+        for(int k=0;k<n;k++) {
+            int i = (int)keys[k];
+            long location = days[i][0];
+            if(days[i][1] != (int)days[i][1]) continue;         // tenges fuera del rango de int
+            if(count > 0 && location == previous) continue;     // repetida: gana la primera en el orden de entrada
+            if(storeRank(location) >= 0 || firstRobotRank(location) >= 0) continue;
+            accepted[i] = true;
+            order[count++] = i;
+            previous = location;
+        }
+        while(storeLoc.length < stores + count) growStores();
+        // mezcla desde el final: cada tienda existente se mueve una sola vez
+        int a = stores - 1, b = count - 1;
+        for(int w = stores + count - 1; b >= 0; w--) {
+            if(a >= 0 && storeLoc[a] > days[order[b]][0]) {
+                storeLoc[w] = storeLoc[a];
+                storeInitial[w] = storeInitial[a];
+                storeTenges[w] = storeTenges[a];
+                storeEpoch[w] = storeEpoch[a];
+                storeEmptied[w] = storeEmptied[a];
+                storeOrder[w] = storeOrder[a];
+                a--;
+            } else {
+                int i = order[b--];
+                storeLoc[w] = days[i][0];
+                storeInitial[w] = (int)days[i][1];
+                storeTenges[w] = (int)days[i][1];
+                storeEpoch[w] = supplyEpoch;
+                storeEmptied[w] = 0;
+                storeOrder[w] = placements + i;     // se colocan en el orden de entrada
+            }
+        }
+        stores += count;
+        placements += n;
+        long[][] rejected = new long[n - count][];
+        int r = 0;
+        for(int i=0;i<n;i++) if(!accepted[i]) rejected[r++] = new long[]{days[i][0], days[i][1]};
+        lastOk = r == 0;
+        return rejected;
+    }
+
+    /**
+     * Elimina la tienda de una ubicación.
+     * @param location ubicación lógica.
+     */
+    public void removeStore(long location) {
+        int rank = storeRank(location);
+        if(rank < 0) {
+            lastOk = false;
+            return;
+        }
+        shift(rank + 1, -1);
+        stores--;
+        lastOk = true;
+    }
+
+    /**
+     * Reabastece todas las tiendas en O(1): solo avanza la época.
+     */
+    public void resupplyStores() {
+        supplyEpoch++;
+        lastOk = true;
+    }
+
+    /**
+     * Devuelve el rango (posición en orden de ubicación) de la tienda de una ubicación.
+     * @param location ubicación lógica.
+     * @return rango de la tienda, o -1 si no hay tienda allí.
+     */
+    public int storeRank(long location) {
+        int rank = lowerBound(storeLoc, stores, location);
+        return rank < stores && storeLoc[rank] == location ? rank : -1;
+    }
+
+    /**
+     * Devuelve la ubicación de la tienda con un rango dado.
+     * @param rank rango de la tienda (0 es la de menor ubicación).
+     * @return ubicación.
+     */
+    public long storeLocation(int rank) {
+        checkRank(rank, stores);
+        return storeLoc[rank];
+    }
+
+    /**
+     * Devuelve los tenges actuales de la tienda con un rango dado.
+     * @param rank rango de la tienda.
+     * @return tenges actuales.
+     */
+    public int storeTenges(int rank) {
+        checkRank(rank, stores);
+        refresh(rank);
+        return storeTenges[rank];
+    }
+
+    // ----------------- ROBOTS -----------------
+
+    /**
+     * Coloca un robot. Falla si ya hay un robot en la ubicación.
+     * @param location ubicación lógica.
+     */
+    public void placeRobot(long location) {
+        if(firstRobotRank(location) >= 0) {
+            lastOk = false;
+            return;
+        }
+        if(nextId == robotLoc.length) growRobots();
+        int id = nextId++;
+        robotLoc[id] = location;
+        robotHome[id] = location;
+        robotProfit[id] = 0;
+        robotAlive[id] = true;
+        if(robots == posLoc.length) growIndexes();
+        insert(posLoc, posId, robots, location, id);
+        insert(homeLoc, homeId, robots, location, id);
+        robots++;
+        lastOk = true;
+    }
+
+    /**
+     * Elimina el robot de una ubicación (el de menor orden de llegada si hay varios).
+     * @param location ubicación lógica actual.
+     */
+    public void removeRobot(long location) {
+        int rank = firstRobotRank(location);
+        if(rank < 0) {
+            lastOk = false;
+            return;
+        }
+        int id = posId[rank];
+        delete(posLoc, posId, robots, rank);
+        delete(homeLoc, homeId, robots, rank(homeLoc, homeId, robots, robotHome[id], id));
+        robotAlive[id] = false;
+        robots--;
+        lastOk = true;
+    }
+
+    /**
+     * Mueve el robot de una ubicación (el de menor orden de llegada) la cantidad de metros dada.
+     * Cobra 1 tenge por metro y recoge los tenges de la tienda de llegada.
+     *
+     * @param location ubicación lógica actual del robot.
+     * @param meters desplazamiento (positivo o negativo).
+     */
+    public void moveRobot(long location, long meters) {
+        int rank = firstRobotRank(location);
+        if(rank < 0) {
+            lastOk = false;
+            return;
+        }
+        move(rank, location + meters);
+        lastOk = true;
+    }
+
+    /**
+     * Mueve cada robot, en orden de llegada, a la tienda que le deja más ganancia
+     * (tenges menos distancia), si alguna deja ganancia positiva.
+     * Para una tienda detrás del robot (o en su ubicación) la ganancia es (tenges + ubicación) - desde,
+     * y para una delante es (tenges - ubicación) + desde; cada término se busca en un árbol de
+     * máximos sobre los rangos, que se actualiza cuando un robot vacía una tienda.
+     */
+    public void moveRobots() {
+        int size = 1;
+        while(size < stores) size <<= 1;
+        int[] behind = new int[2 * size];   // mejor rango por tenges + ubicación
+        int[] ahead = new int[2 * size];    // mejor rango por tenges - ubicación
+        for(int i=0;i<size;i++) {
+            if(i < stores) refresh(i);
+            behind[size + i] = ahead[size + i] = i < stores ? i : -1;
+        }
+        for(int v=size-1;v>=1;v--) {
+            behind[v] = better(behind[2 * v], behind[2 * v + 1], 1);
+            ahead[v] = better(ahead[2 * v], ahead[2 * v + 1], -1);
+        }
+        for(int id=0;id<nextId;id++) {
+            if(!robotAlive[id]) continue;
+            long from = robotLoc[id];
+            int split = lowerBound(storeLoc, stores, from + 1);   // tiendas en [0, split) están detrás
+            int s = best(behind, size, 0, split, 1);
+            int a = best(ahead, size, split, stores, -1);
+            if(s < 0 || a >= 0 && (gain(a, from) > gain(s, from)
+                                   || gain(a, from) == gain(s, from) && storeOrder[a] < storeOrder[s])) s = a;
+            long bestLocation = s >= 0 && gain(s, from) > 0 ? storeLoc[s] : from;
+            int emptied = move(firstRobotRank(from), bestLocation);
+            lastOk = true;                 // como SilkRoad: sin robots ok() no cambia
+            if(emptied >= 0) {
+                for(int v=(size + emptied)>>1;v>=1;v>>=1) {
+                    behind[v] = better(behind[2 * v], behind[2 * v + 1], 1);
+                    ahead[v] = better(ahead[2 * v], ahead[2 * v + 1], -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Regresa todos los robots a sus ubicaciones iniciales: copia el índice de ubicaciones iniciales.
+     */
+    public void returnRobots() {
+        System.arraycopy(homeLoc, 0, posLoc, 0, robots);
+        System.arraycopy(homeId, 0, posId, 0, robots);
+        for(int i=0;i<robots;i++) robotLoc[homeId[i]] = homeLoc[i];
+        lastOk = true;
+    }
+
+    /**
+     * Reinicia la simulación: reabastece las tiendas, regresa los robots y pone las ganancias en 0.
+     */
+    public void reboot() {
+        resupplyStores();
+        returnRobots();
+        profit = 0;
+        Arrays.fill(robotProfit, 0, nextId, 0);
+        lastOk = true;
+    }
+
+    /**
+     * Devuelve el rango del robot que se movería desde una ubicación.
+     * @param location ubicación lógica.
+     * @return rango en el índice de posiciones, o -1 si no hay robot allí.
+     */
+    public int robotRank(long location) {
+        return firstRobotRank(location);
+    }
+
+    /**
+     * Devuelve la ubicación del robot con un rango dado.
+     * @param rank rango en el índice de posiciones (0 es el de menor ubicación).
+     * @return ubicación actual.
+     */
+    public long robotLocation(int rank) {
+        checkRank(rank, robots);
+        return posLoc[rank];
+    }
+
+    // ----------------- CONSULTAS -----------------
+
+    /**
+     * Devuelve las tiendas ordenadas por ubicación.
+     * @return matriz {ubicación, tenges}.
+     */
+    public long[][] stores() {
+        long[][] out = new long[stores][];
+        for(int i=0;i<stores;i++) {
+            refresh(i);
+            out[i] = new long[]{storeLoc[i], storeTenges[i]};
+        }
+        return out;
+    }
+
+    /**
+     * Devuelve los robots ordenados por ubicación.
+     * @return matriz {ubicación, 0}.
+     */
+    public long[][] robots() {
+        long[][] out = new long[robots][];
+        for(int i=0;i<robots;i++) out[i] = new long[]{posLoc[i], 0};
+        return out;
+    }
+
+    /**
+     * Devuelve la ganancia de cada robot, ordenada por ubicación actual.
+     * @return matriz {ubicación, ganancia}.
+     */
+    public long[][] profitPerRobot() {
+        long[][] out = new long[robots][];
+        for(int i=0;i<robots;i++) out[i] = new long[]{posLoc[i], robotProfit[posId[i]]};
+        return out;
+    }
+
+    /**
+     * Devuelve cuántas veces se vació cada tienda, ordenadas por ubicación.
+     * @return matriz {ubicación, vecesVaciada}.
+     */
+    public long[][] emptiedStores() {
+        long[][] out = new long[stores][];
+        for(int i=0;i<stores;i++) out[i] = new long[]{storeLoc[i], storeEmptied[i]};
+        return out;
+    }
+
+    // ----------------- internos -----------------
+
+    /**
+     * Mueve al robot del rango dado a una ubicación nueva, desplazando solo las entradas
+     * que quedan entre su rango viejo y el nuevo, y cobra y recoge como moveRobot.
+     * @return rango de la tienda que vació, o -1 si no vació ninguna.
+     */
+    private int move(int rank, long to) {
+        int id = posId[rank];
+        long from = posLoc[rank];
+        int target = rank(posLoc, posId, robots, to, id);   // entradas menores que (to, id)
+        if(target > rank) {
+            target--;                                      // sin contar la propia entrada
+            System.arraycopy(posLoc, rank + 1, posLoc, rank, target - rank);
+            System.arraycopy(posId, rank + 1, posId, rank, target - rank);
+        } else {
+            System.arraycopy(posLoc, target, posLoc, target + 1, rank - target);
+            System.arraycopy(posId, target, posId, target + 1, rank - target);
+        }
+        posLoc[target] = to;
+        posId[target] = id;
+        robotLoc[id] = to;
+
+        int cost = (int)Math.abs(to - from);   // como en SilkRoad, la cuenta es en int
+        int taken = 0;
+        int s = storeRank(to);
+        if(s >= 0) {
+            refresh(s);
+            taken = storeTenges[s];
+            if(taken != 0) {
+                storeTenges[s] = 0;
+                storeEmptied[s]++;
+            }
+        }
+        profit += taken - cost;
+        robotProfit[id] += taken - cost;
+        return taken != 0 ? s : -1;
+    }
+
+    /**
+     * Ganancia de ir desde una ubicación a la tienda de un rango.
+     */
+    private long gain(int rank, long from) {
+        return storeTenges[rank] - Math.abs(storeLoc[rank] - from);
+    }
+
+    /**
+     * Elige entre dos rangos de tienda el de mayor tenges + sign * ubicación; en empate, el
+     * colocado primero. Un rango -1 es una hoja vacía.
+     */
+    private int better(int a, int b, int sign) {
+        if(a < 0) return b;
+        if(b < 0) return a;
+        long va = storeTenges[a] + sign * storeLoc[a];
+        long vb = storeTenges[b] + sign * storeLoc[b];
+        if(va != vb) return va > vb ? a : b;
+        return storeOrder[a] < storeOrder[b] ? a : b;
+    }
+
+    /**
+     * Mejor rango en [from, to) de un árbol de máximos con `size` hojas, o -1 si el rango está vacío.
+     */
+    private int best(int[] tree, int size, int from, int to, int sign) {
+        int found = -1;
+        for(int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if((l & 1) == 1) found = better(found, tree[l++], sign);
+            if((r & 1) == 1) found = better(found, tree[--r], sign);
+        }
+        return found;
+    }
+
+    /**
+     * Rango del primer robot (menor orden de llegada) en una ubicación, o -1.
+     */
+    private int firstRobotRank(long location) {
+        int rank = lowerBound(posLoc, robots, location);
+        return rank < robots && posLoc[rank] == location ? rank : -1;
+    }
+
+    /**
+     * Aplica un reabastecimiento pendiente a la tienda de un rango.
+     */
+    private void refresh(int rank) {
+        if(storeEpoch[rank] == supplyEpoch) return;
+        storeEpoch[rank] = supplyEpoch;
+        storeTenges[rank] = storeInitial[rank];
+    }
+
+    /**
+     * Desplaza las tiendas desde `from` hasta el final `by` posiciones (1 para abrir un hueco, -1 para cerrarlo).
+     */
+    private void shift(int from, int by) {
+        int n = stores - from;
+        System.arraycopy(storeLoc, from, storeLoc, from + by, n);
+        System.arraycopy(storeInitial, from, storeInitial, from + by, n);
+        System.arraycopy(storeTenges, from, storeTenges, from + by, n);
+        System.arraycopy(storeEpoch, from, storeEpoch, from + by, n);
+        System.arraycopy(storeEmptied, from, storeEmptied, from + by, n);
+        System.arraycopy(storeOrder, from, storeOrder, from + by, n);
+    }
+
+    /**
+     * Primera posición de a[0..n) con valor mayor o igual que key.
+     */
+    private static int lowerBound(long[] a, int n, long key) {
+        int lo = 0, hi = n;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Cantidad de entradas de un índice (ubicación, id) menores que (location, id).
+     */
+    private static int rank(long[] locs, int[] ids, int n, long location, int id) {
+        int lo = 0, hi = n;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(locs[mid] < location || locs[mid] == location && ids[mid] < id) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static void insert(long[] locs, int[] ids, int n, long location, int id) {
+        int at = rank(locs, ids, n, location, id);
+        System.arraycopy(locs, at, locs, at + 1, n - at);
+        System.arraycopy(ids, at, ids, at + 1, n - at);
+        locs[at] = location;
+        ids[at] = id;
+    }
+
+    private static void delete(long[] locs, int[] ids, int n, int at) {
+        System.arraycopy(locs, at + 1, locs, at, n - at - 1);
+        System.arraycopy(ids, at + 1, ids, at, n - at - 1);
+    }
+
+    private static void checkRank(int rank, int n) {
+        if(rank < 0 || rank >= n) throw new IndexOutOfBoundsException("rango " + rank + " de " + n);
+    }
+
+    private void growStores() {
+        int n = storeLoc.length * 2;
+        storeLoc = Arrays.copyOf(storeLoc, n);
+        storeInitial = Arrays.copyOf(storeInitial, n);
+        storeTenges = Arrays.copyOf(storeTenges, n);
+        storeEpoch = Arrays.copyOf(storeEpoch, n);
+        storeEmptied = Arrays.copyOf(storeEmptied, n);
+        storeOrder = Arrays.copyOf(storeOrder, n);
+    }
+
+    private void growRobots() {
+        int n = robotLoc.length * 2;
+        robotLoc = Arrays.copyOf(robotLoc, n);
+        robotHome = Arrays.copyOf(robotHome, n);
+        robotProfit = Arrays.copyOf(robotProfit, n);
+        robotAlive = Arrays.copyOf(robotAlive, n);
+    }
+
+    private void growIndexes() {
+        int n = posLoc.length * 2;
+        posLoc = Arrays.copyOf(posLoc, n);
+        posId = Arrays.copyOf(posId, n);
+        homeLoc = Arrays.copyOf(homeLoc, n);
+        homeId = Arrays.copyOf(homeId, n);
+    }
+}
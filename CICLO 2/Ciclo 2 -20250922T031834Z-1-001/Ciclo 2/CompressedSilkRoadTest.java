@@ -0,0 +1,108 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Clase CompressedSilkRoadTest: pruebas de CompressedSilkRoad contra SilkRoad.
+ * Aplica las mismas operaciones a ambos motores (escenarios de WorkloadGenerator y secuencias
+ * aleatorias con empates y robots que coinciden en una ubicación) y compara ganancia, tiendas,
+ * robots y ganancia por robot después de cada paso.
+ */
+public class CompressedSilkRoadTest {
+
+    @Test
+    public void workloadsMatchSilkRoad() {
+        long seed = 21;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 200, 40, 200, 4, seed++);
+            CompressedSilkRoad c = new CompressedSilkRoad(w.length());
+            c.placeStores(longs(w.days()));
+            for(int location : w.robots()) c.placeRobot(location);
+            for(int[] m : w.moves()) c.moveRobot(m[0], m[1]);
+            for(int i=0;i<w.rounds();i++) {
+                c.moveRobots();
+                c.resupplyStores();
+            }
+            assertMatches(d.name(), SilkRoad.headless(w::run), c);
+        }
+    }
+
+    @Test
+    public void randomOperationsMatchSilkRoad() {
+        for(long seed = 1; seed <= 20; seed++) {
+            Random rnd = new Random(seed);
+            SilkRoad r = SilkRoad.headless(() -> new SilkRoad(60));
+            CompressedSilkRoad c = new CompressedSilkRoad(60);
+            for(int i=0;i<400;i++) {
+                int l = rnd.nextInt(60);
+                switch(rnd.nextInt(10)) {
+                    case 0: case 1: {
+                        int t = 1 + rnd.nextInt(4) * 10;    // pocos valores: muchos empates
+                        r.placeStore(l, t); c.placeStore(l, t);
+                        break;
+                    }
+                    case 2: r.removeStore(l); c.removeStore(l); break;
+                    case 3: r.placeRobot(l); c.placeRobot(l); break;
+                    case 4: {
+                        int[][] robots = r.robots();
+                        if(robots.length > 0) l = robots[rnd.nextInt(robots.length)][0];
+                        int m = rnd.nextInt(21) - 10;
+                        r.moveRobot(l, m); c.moveRobot(l, m);
+                        break;
+                    }
+                    case 5: case 6: r.moveRobots(); c.moveRobots(); break;
+                    case 7: r.resupplyStores(); c.resupplyStores(); break;
+                    case 8: if(rnd.nextBoolean()) { r.reboot(); c.reboot(); } else { r.returnRobots(); c.returnRobots(); } break;
+                    default: r.removeRobot(l); c.removeRobot(l);
+                }
+                assertMatches("semilla " + seed + " paso " + i, r, c);
+            }
+        }
+    }
+
+    @Test
+    public void tieGoesToTheStorePlacedFirst() {
+        CompressedSilkRoad c = new CompressedSilkRoad(100);
+        c.placeStore(60, 20);    // a 10 metros, ganancia 10, colocada primero
+        c.placeStore(40, 20);    // a 10 metros del otro lado, misma ganancia
+        c.placeRobot(50);
+        c.moveRobots();
+        assertArrayEquals(new long[][]{{60, 0}}, c.robots());
+        assertEquals(10, c.porfit());
+    }
+
+    @Test
+    public void profitOverflowsLikeSilkRoad() {
+        SilkRoad r = SilkRoad.headless(() -> new SilkRoad(10));
+        CompressedSilkRoad c = new CompressedSilkRoad(10);
+        r.placeStore(3, Integer.MAX_VALUE); c.placeStore(3, Integer.MAX_VALUE);
+        r.placeRobot(3); c.placeRobot(3);
+        for(int i=0;i<3;i++) {
+            r.moveRobots(); c.moveRobots();
+            r.resupplyStores(); c.resupplyStores();
+        }
+        assertMatches("desborde", r, c);
+    }
+
+    private static void assertMatches(String what, SilkRoad expected, CompressedSilkRoad actual) {
+        assertEquals(what + ": ok", expected.ok(), actual.ok());
+        assertEquals(what + ": ganancia", expected.porfit(), actual.porfit());
+        assertArrayEquals(what + ": tiendas", expected.stores(), ints(actual.stores()));
+        assertArrayEquals(what + ": robots", expected.robots(), ints(actual.robots()));
+        assertArrayEquals(what + ": por robot", expected.profitPerRobot(), ints(actual.profitPerRobot()));
+    }
+
+    private static long[][] longs(int[][] rows) {
+        long[][] out = new long[rows.length][];
+        for(int i=0;i<rows.length;i++) out[i] = new long[]{rows[i][0], rows[i][1]};
+        return out;
+    }
+
+    private static int[][] ints(long[][] rows) {
+        int[][] out = new int[rows.length][];
+        for(int i=0;i<rows.length;i++) out[i] = new int[]{(int)rows[i][0], (int)rows[i][1]};
+        return out;
+    }
+}
@@ -0,0 +1,19 @@
+/**
+ * Clase Epoch: contador de épocas compartido por una SilkRoad y sus tiendas o robots.
+ * Avanzar la época es O(1); cada objeto guarda la última época que vio y, al consultarse
+ * después de un avance, vuelve por sí mismo a su estado inicial (reabastecer, regresar, reiniciar).
+ */
+public class Epoch {
+    private int value;  // época actual
+
+    /**
+     * Devuelve la época actual.
+     * @return número de época.
+     */
+    public int current() { return value; }
+
+    /**
+     * Pasa a la época siguiente: todo lo que dependa de ella queda pendiente de reiniciarse.
+     */
+    public void advance() { value++; }
+}
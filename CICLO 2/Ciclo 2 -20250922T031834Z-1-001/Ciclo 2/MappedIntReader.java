@@ -0,0 +1,112 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Clase MappedIntReader: lee enteros en texto decimal directamente de un archivo mapeado en memoria,
+ * sin crear String ni usar Scanner.
+ * El archivo se mapea por ventanas de WINDOW bytes; cuando quedan menos de SLACK bytes en la
+ * ventana se vuelve a mapear desde la posición actual, así un número nunca queda partido.
+ *
+ * @param path archivo a leer.
+ */
+public class MappedIntReader implements Closeable {
+    private static final long WINDOW = 64L << 20;  // 64 MB por ventana
+    private static final int SLACK = 32;           // más que el número más largo
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer buf;
+    private long base;  // posición en el archivo del inicio de la ventana
+
+    /**
+     * Constructor del lector.
+     * @throws IOException si no se puede abrir o mapear el archivo.
+     */
+    public MappedIntReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        map(0);
+    }
+
+    /**
+     * Devuelve la cantidad de bytes ya consumidos.
+     * @return posición actual en el archivo.
+     */
+    public long position() { return base + buf.position(); }
+
+    /**
+     * Indica si quedan enteros por leer.
+     * @return true si hay otro entero antes del fin del archivo.
+     * @throws IOException si falla el mapeo.
+     */
+    public boolean hasNext() throws IOException {
+        skipBlanks();
+        return buf.hasRemaining();
+    }
+
+    /**
+     * Lee el siguiente entero (con signo opcional).
+     * @return entero leído.
+     * @throws IOException si se acaba el archivo o hay un carácter inválido.
+     */
+    public int nextInt() throws IOException {
+        long v = nextLong();
+        if(v != (int)v) throw new IOException("entero fuera de rango en el byte " + position());
+        return (int)v;
+    }
+
+    /**
+     * Lee el siguiente entero largo (con signo opcional).
+     * Se acumula en negativo, como Long.parseLong, para aceptar también Long.MIN_VALUE.
+     * @return entero leído.
+     * @throws IOException si se acaba el archivo, hay un carácter inválido o el número no cabe en un long.
+     */
+    public long nextLong() throws IOException {
+        skipBlanks();
+        if(!buf.hasRemaining()) throw new EOFException("se esperaba un entero al final del archivo");
+        byte c = buf.get();
+        boolean negative = c == '-';
+        if(negative || c == '+') {
+            if(!buf.hasRemaining()) throw new EOFException("signo sin número al final del archivo");
+            c = buf.get();
+        }
+        if(c < '0' || c > '9') throw new IOException("carácter inesperado '" + (char)c + "' en el byte " + (position() - 1));
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long v = -(c - '0');
+        while(buf.hasRemaining()) {
+            c = buf.get(buf.position());
+            if(c < '0' || c > '9') break;
+            int d = c - '0';
+            if(v < multmin || v * 10 < limit + d) throw new IOException("entero fuera de rango en el byte " + position());
+            buf.position(buf.position() + 1);
+            v = v * 10 - d;
+        }
+        return negative ? v : -v;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Salta espacios y saltos de línea, moviendo la ventana si hace falta.
+     */
+    private void skipBlanks() throws IOException {
+        while(true) {
+            if(buf.remaining() < SLACK && base + buf.limit() < size) map(position());
+            if(!buf.hasRemaining()) return;
+            byte c = buf.get(buf.position());
+            if(c != ' ' && c != '\n' && c != '\r' && c != '\t') return;
+            buf.position(buf.position() + 1);
+        }
+    }
+
+    private void map(long from) throws IOException {
+        base = from;
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW, size - from));
+    }
+}
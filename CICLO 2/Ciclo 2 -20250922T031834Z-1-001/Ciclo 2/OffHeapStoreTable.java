@@ -0,0 +1,521 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Clase OffHeapStoreTable: tabla de tiendas fuera del heap para carreteras de miles de millones
+ * de metros. Cada tienda es un registro de ancho fijo en memoria directa o en un archivo mapeado,
+ * así que 10^8 tiendas no crean objetos ni presión sobre el recolector y, con archivo, sobreviven
+ * a un reinicio del programa.
+ *
+ * Registro (RECORD bytes): ubicación (long), tenges iniciales (int), tenges actuales (int),
+ * época de reabastecimiento aplicada (int), veces vaciada (int).
+ * Los registros van en páginas de PAGE_RECORDS, cada una ordenada por ubicación y enlazada con la
+ * siguiente en el mismo orden. En el heap solo queda un índice disperso: la primera ubicación y
+ * la cantidad de registros de cada página. Buscar es una búsqueda binaria en el índice y otra en
+ * la página; agregar o quitar una tienda en cualquier ubicación mueve a lo sumo una página de
+ * registros. Una página llena se parte en dos y una que queda con menos de un cuarto se une con su
+ * vecina; esas dos operaciones también recorren el índice (una entera por página), pero pasan una
+ * vez cada cientos de cambios. Igual que en SilkRoad, reabastecer solo avanza la época guardada en
+ * la cabecera; cada registro se rellena al leerlo.
+ *
+ * La memoria se pide por bloques de PAGES_PER_CHUNK páginas a medida que hacen falta, porque un
+ * ByteBuffer no pasa de 2 GB. Los registros van en little-endian para que el archivo sea el mismo
+ * en cualquier máquina.
+ *
+ * @param channel archivo mapeado (null en memoria).
+ * @param header cabecera (solo con archivo; null en memoria).
+ * @param capacity número máximo de tiendas.
+ */
+public class OffHeapStoreTable implements Closeable {
+    private static final int RECORD = 24;
+    private static final int PAGE_RECORDS = 1024;
+    private static final int PAGE_HEADER = 16;            // cantidad (int), página siguiente (int)
+    private static final int PAGE = PAGE_HEADER + PAGE_RECORDS * RECORD;
+    private static final int PAGES_PER_CHUNK = 256;       // 6 MB por bloque
+    private static final int HEADER = 64;
+    private static final long MAGIC = 0x53494c4b524f4144L; // "SILKROAD"
+    private static final int VERSION = 2;
+
+    private static final int LOCATION = 0, INITIAL = 8, TENGES = 12, EPOCH = 16, EMPTIED = 20;
+    private static final int COUNT = 0, NEXT = 4;
+
+    /**
+     * Recibe las tiendas de un recorrido en orden de ubicación.
+     */
+    public interface Row {
+        void accept(long location, int tenges);
+    }
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final MappedByteBuffer header;   // magic, versión, tamaño, época, capacidad, páginas
+    private final FileChannel channel;
+    private final long capacity;
+    private final byte[] scratch = new byte[PAGE_RECORDS * RECORD];
+    private long size;
+    private int epoch;
+
+    private int used;        // páginas físicas ya entregadas
+    private int free = -1;   // primera página libre (lista enlazada por NEXT)
+    private int pages;       // páginas en uso, en orden de ubicación
+    private int[] order = new int[16];      // página física de cada posición del índice
+    private long[] first = new long[16];    // primera ubicación de cada página
+    private int[] count = new int[16];      // registros de cada página
+
+    private OffHeapStoreTable(MappedByteBuffer header, FileChannel channel, long capacity) {
+        this.header = header;
+        this.channel = channel;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Crea una tabla en memoria directa (se pierde al terminar el programa).
+     *
+     * @param capacity número máximo de tiendas.
+     * @return tabla vacía.
+     */
+    public static OffHeapStoreTable allocate(long capacity) {
+        checkCapacity(capacity);
+        return new OffHeapStoreTable(null, null, capacity);
+    }
+
+    /**
+     * Abre (o crea) una tabla respaldada por un archivo mapeado en memoria.
+     * Si el archivo ya existe se conservan sus tiendas y su capacidad, y el índice disperso se
+     * reconstruye recorriendo las páginas en orden.
+     *
+     * @param file archivo de la tabla.
+     * @param capacity número máximo de tiendas si el archivo es nuevo.
+     * @return tabla abierta.
+     * @throws IOException si no se puede abrir o el archivo no es una tabla de tiendas.
+     */
+    public static OffHeapStoreTable open(Path file, long capacity) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = ch.size() == 0;
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if(fresh) {
+                checkCapacity(capacity);
+                header.putLong(0, MAGIC).putInt(8, VERSION).putLong(16, 0).putInt(24, 0).putLong(32, capacity)
+                      .putInt(40, 0).putInt(44, -1).putInt(48, -1);
+            } else if(header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+                throw new IOException("no es una tabla de tiendas: " + file);
+            } else {
+                capacity = header.getLong(32);
+            }
+            OffHeapStoreTable t = new OffHeapStoreTable(header, ch, capacity);
+            t.load();
+            return t;
+        } catch(IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** @return número de tiendas. */
+    public long size() { return size; }
+
+    /** @return número máximo de tiendas. */
+    public long capacity() { return capacity; }
+
+    /** @return época de reabastecimiento actual. */
+    public int epoch() { return epoch; }
+
+    /**
+     * Agrega una tienda en su lugar según la ubicación.
+     *
+     * @param location ubicación de la tienda.
+     * @param tenges tenges iniciales.
+     * @return false si ya hay una tienda en esa ubicación o la tabla está llena.
+     */
+    public boolean add(long location, int tenges) {
+        if(pages == 0) {
+            int p = newPage();
+            setNext(p, -1);
+            insertIndex(0, p, location, 0);
+            saveLinks();
+        }
+        int k = indexOf(location);
+        int i = lowerBound(order[k], count[k], location);
+        if(i < count[k] && location(order[k], i) == location) return false;
+        if(size == capacity) return false;
+        if(count[k] == PAGE_RECORDS && i == PAGE_RECORDS && k == pages - 1) {
+            // al final de la carretera no se parte: así cargar en orden deja las páginas llenas
+            int q = newPage();
+            setNext(q, -1);
+            setNext(order[k], q);
+            insertIndex(++k, q, location, 0);
+            i = 0;
+        } else if(count[k] == PAGE_RECORDS) {
+            split(k);
+            if(location >= first[k + 1]) k++;
+            i = lowerBound(order[k], count[k], location);
+        }
+        int p = order[k];
+        move(p, i, p, i + 1, count[k] - i);
+        ByteBuffer c = chunk(p);
+        int at = offset(p, i);
+        c.putLong(at + LOCATION, location);
+        c.putInt(at + INITIAL, tenges);
+        c.putInt(at + TENGES, tenges);
+        c.putInt(at + EPOCH, epoch);
+        c.putInt(at + EMPTIED, 0);
+        setCount(k, count[k] + 1);
+        if(i == 0) first[k] = location;
+        setSize(size + 1);
+        return true;
+    }
+
+    /**
+     * Quita la tienda de una ubicación.
+     *
+     * @param location ubicación de la tienda.
+     * @return false si no había tienda en esa ubicación.
+     */
+    public boolean remove(long location) {
+        if(pages == 0) return false;
+        int k = indexOf(location);
+        int p = order[k];
+        int i = lowerBound(p, count[k], location);
+        if(i == count[k] || location(p, i) != location) return false;
+        move(p, i + 1, p, i, count[k] - i - 1);
+        setCount(k, count[k] - 1);
+        setSize(size - 1);
+        if(count[k] == 0) {
+            unlink(k);
+        } else {
+            if(i == 0) first[k] = location(p, 0);
+            if(count[k] < PAGE_RECORDS / 4) {
+                if(k + 1 < pages && count[k] + count[k + 1] <= PAGE_RECORDS) merge(k);
+                else if(k > 0 && count[k - 1] + count[k] <= PAGE_RECORDS) merge(k - 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param location ubicación buscada.
+     * @return true si hay una tienda en esa ubicación.
+     */
+    public boolean contains(long location) { return find(location) >= 0; }
+
+    /**
+     * @param location ubicación de la tienda.
+     * @return tenges iniciales.
+     * @throws IllegalArgumentException si no hay tienda en esa ubicación.
+     */
+    public int initialTenges(long location) {
+        long r = require(location);
+        return chunk(page(r)).getInt(offset(r) + INITIAL);
+    }
+
+    /**
+     * @param location ubicación de la tienda.
+     * @return tenges actuales (aplica un reabastecimiento pendiente).
+     * @throws IllegalArgumentException si no hay tienda en esa ubicación.
+     */
+    public int tenges(long location) {
+        long r = require(location);
+        ByteBuffer c = chunk(page(r));
+        int at = offset(r);
+        refresh(c, at);
+        return c.getInt(at + TENGES);
+    }
+
+    /**
+     * @param location ubicación de la tienda.
+     * @return veces que la tienda se ha vaciado.
+     * @throws IllegalArgumentException si no hay tienda en esa ubicación.
+     */
+    public int timesEmptied(long location) {
+        long r = require(location);
+        return chunk(page(r)).getInt(offset(r) + EMPTIED);
+    }
+
+    /**
+     * Vacía una tienda.
+     * @param location ubicación de la tienda.
+     * @return tenges recogidos (0 si ya estaba vacía).
+     * @throws IllegalArgumentException si no hay tienda en esa ubicación.
+     */
+    public int collect(long location) {
+        long r = require(location);
+        ByteBuffer c = chunk(page(r));
+        int at = offset(r);
+        refresh(c, at);
+        int taken = c.getInt(at + TENGES);
+        if(taken != 0) {
+            c.putInt(at + TENGES, 0);
+            c.putInt(at + EMPTIED, c.getInt(at + EMPTIED) + 1);
+        }
+        return taken;
+    }
+
+    /**
+     * Reabastece todas las tiendas en O(1): solo avanza la época.
+     */
+    public void resupply() {
+        epoch++;
+        if(header != null) header.putInt(24, epoch);
+    }
+
+    /**
+     * Suma los tenges actuales de las tiendas con ubicación en [from, to), con un recorrido secuencial.
+     *
+     * @param from inicio del rango (incluido).
+     * @param to fin del rango (excluido).
+     * @return suma de tenges.
+     */
+    public long sumTenges(long from, long to) {
+        long[] sum = {0};
+        forEach(from, to, (location, tenges) -> sum[0] += tenges);
+        return sum[0];
+    }
+
+    /**
+     * Recorre en orden de ubicación las tiendas con ubicación en [from, to).
+     *
+     * @param from inicio del rango (incluido).
+     * @param to fin del rango (excluido).
+     * @param row recibe la ubicación y los tenges actuales de cada tienda.
+     */
+    public void forEach(long from, long to, Row row) {
+        if(pages == 0) return;
+        int k = indexOf(from);
+        int i = lowerBound(order[k], count[k], from);
+        for(; k<pages; k++, i=0) {
+            int p = order[k];
+            ByteBuffer c = chunk(p);
+            for(; i<count[k]; i++) {
+                int at = offset(p, i);
+                long location = c.getLong(at + LOCATION);
+                if(location >= to) return;
+                refresh(c, at);
+                row.accept(location, c.getInt(at + TENGES));
+            }
+        }
+    }
+
+    /**
+     * Escribe en disco los cambios pendientes (solo con archivo).
+     */
+    public void force() {
+        if(header == null) return;
+        for(ByteBuffer c : chunks) ((MappedByteBuffer)c).force();
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        if(channel != null) channel.close();
+    }
+
+    // ----------------- internos -----------------
+
+    private static void checkCapacity(long capacity) {
+        if(capacity <= 0) throw new IllegalArgumentException("capacity debe ser positiva");
+    }
+
+    /**
+     * Lee la cabecera de un archivo existente y reconstruye el índice disperso.
+     */
+    private void load() throws IOException {
+        size = header.getLong(16);
+        epoch = header.getInt(24);
+        used = header.getInt(40);
+        free = header.getInt(48);
+        for(int p = 0; p < used; p += PAGES_PER_CHUNK) addChunk();
+        long n = 0;
+        for(int p = header.getInt(44); p >= 0; p = next(p)) {
+            if(pages == used) throw new IOException("páginas enlazadas en ciclo");
+            int c = chunk(p).getInt(pageOffset(p) + COUNT);
+            insertIndex(pages, p, location(p, 0), c);
+            n += c;
+        }
+        if(n != size) throw new IOException("la cabecera dice " + size + " tiendas y las páginas tienen " + n);
+    }
+
+    private void addChunk() throws IOException {
+        long bytes = (long)PAGES_PER_CHUNK * PAGE;
+        if(channel == null) {
+            chunks.add(ByteBuffer.allocateDirect((int)bytes).order(ByteOrder.LITTLE_ENDIAN));
+        } else {
+            long from = HEADER + chunks.size() * bytes;
+            chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, from, bytes).order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    /**
+     * Entrega una página vacía: la primera libre o una nueva al final.
+     */
+    private int newPage() {
+        int p;
+        if(free >= 0) {
+            p = free;
+            free = next(p);
+        } else {
+            p = used++;
+            if(p / PAGES_PER_CHUNK == chunks.size()) {
+                try {
+                    addChunk();
+                } catch(IOException e) {
+                    throw new UncheckedIOException("no se pudo extender la tabla", e);
+                }
+            }
+        }
+        chunk(p).putInt(pageOffset(p) + COUNT, 0);
+        saveLinks();
+        return p;
+    }
+
+    /**
+     * Parte la página k: la mitad alta pasa a una página nueva justo después en el índice.
+     */
+    private void split(int k) {
+        int p = order[k];
+        int q = newPage();
+        int half = count[k] / 2;
+        move(p, half, q, 0, count[k] - half);
+        setNext(q, next(p));
+        setNext(p, q);
+        insertIndex(k + 1, q, location(q, 0), 0);
+        setCount(k + 1, count[k] - half);
+        setCount(k, half);
+    }
+
+    /**
+     * Pasa los registros de la página k+1 al final de la página k y libera la k+1.
+     */
+    private void merge(int k) {
+        move(order[k + 1], 0, order[k], count[k], count[k + 1]);
+        setCount(k, count[k] + count[k + 1]);
+        setCount(k + 1, 0);
+        unlink(k + 1);
+    }
+
+    /**
+     * Saca del índice y de la lista enlazada la página k (vacía) y la deja libre.
+     */
+    private void unlink(int k) {
+        int p = order[k];
+        if(k > 0) setNext(order[k - 1], next(p));
+        pages--;
+        System.arraycopy(order, k + 1, order, k, pages - k);
+        System.arraycopy(first, k + 1, first, k, pages - k);
+        System.arraycopy(count, k + 1, count, k, pages - k);
+        setNext(p, free);
+        free = p;
+        saveLinks();
+    }
+
+    private void insertIndex(int k, int p, long location, int n) {
+        if(pages == order.length) {
+            order = Arrays.copyOf(order, pages * 2);
+            first = Arrays.copyOf(first, pages * 2);
+            count = Arrays.copyOf(count, pages * 2);
+        }
+        System.arraycopy(order, k, order, k + 1, pages - k);
+        System.arraycopy(first, k, first, k + 1, pages - k);
+        System.arraycopy(count, k, count, k + 1, pages - k);
+        order[k] = p;
+        first[k] = location;
+        count[k] = n;
+        pages++;
+    }
+
+    /**
+     * @return posición en el índice de la última página cuya primera ubicación no pasa de location
+     *         (la primera página si location es menor que todas).
+     */
+    private int indexOf(long location) {
+        int lo = 1, hi = pages;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(first[mid] <= location) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo - 1;
+    }
+
+    private int lowerBound(int p, int n, long location) {
+        ByteBuffer c = chunk(p);
+        int lo = 0, hi = n;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(c.getLong(offset(p, mid) + LOCATION) < location) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @return página * PAGE_RECORDS + posición del registro, o -1 si no existe.
+     */
+    private long find(long location) {
+        if(pages == 0) return -1;
+        int k = indexOf(location);
+        int p = order[k];
+        int i = lowerBound(p, count[k], location);
+        if(i == count[k] || location(p, i) != location) return -1;
+        return (long)p * PAGE_RECORDS + i;
+    }
+
+    private long require(long location) {
+        long r = find(location);
+        if(r < 0) throw new IllegalArgumentException("no hay tienda en la ubicación " + location);
+        return r;
+    }
+
+    /**
+     * Copia n registros (admite que origen y destino se solapen).
+     */
+    private void move(int fromPage, int from, int toPage, int to, int n) {
+        if(n <= 0) return;
+        chunk(fromPage).get(offset(fromPage, from), scratch, 0, n * RECORD);
+        chunk(toPage).put(offset(toPage, to), scratch, 0, n * RECORD);
+    }
+
+    private ByteBuffer chunk(int p) { return chunks.get(p / PAGES_PER_CHUNK); }
+
+    private static int pageOffset(int p) { return (p % PAGES_PER_CHUNK) * PAGE; }
+
+    private static int offset(int p, int i) { return pageOffset(p) + PAGE_HEADER + i * RECORD; }
+
+    private static int page(long r) { return (int)(r / PAGE_RECORDS); }
+
+    private static int offset(long r) { return offset(page(r), (int)(r % PAGE_RECORDS)); }
+
+    private long location(int p, int i) { return chunk(p).getLong(offset(p, i) + LOCATION); }
+
+    private int next(int p) { return chunk(p).getInt(pageOffset(p) + NEXT); }
+
+    private void setNext(int p, int q) { chunk(p).putInt(pageOffset(p) + NEXT, q); }
+
+    private void setCount(int k, int n) {
+        count[k] = n;
+        chunk(order[k]).putInt(pageOffset(order[k]) + COUNT, n);
+    }
+
+    private void refresh(ByteBuffer c, int at) {
+        if(c.getInt(at + EPOCH) == epoch) return;
+        c.putInt(at + EPOCH, epoch);
+        c.putInt(at + TENGES, c.getInt(at + INITIAL));
+    }
+
+    private void setSize(long n) {
+        size = n;
+        if(header != null) header.putLong(16, n);
+    }
+
+    /**
+     * Guarda en la cabecera las páginas entregadas, la primera página y la primera libre.
+     */
+    private void saveLinks() {
+        if(header == null) return;
+        header.putInt(40, used).putInt(44, pages > 0 ? order[0] : -1).putInt(48, free);
+    }
+}
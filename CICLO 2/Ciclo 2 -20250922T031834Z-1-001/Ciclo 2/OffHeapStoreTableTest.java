@@ -0,0 +1,133 @@
+import static org.junit.Assert.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.Test;
+
+/**
+ * Clase OffHeapStoreTableTest: pruebas de OffHeapStoreTable contra un TreeMap y contra SilkRoad.
+ * Las secuencias aleatorias insertan y quitan tiendas en cualquier orden, con suficientes tiendas
+ * para que las páginas se partan y se vuelvan a unir.
+ */
+public class OffHeapStoreTableTest {
+
+    @Test
+    public void randomInsertsAndRemovalsMatchTreeMap() {
+        Random rnd = new Random(7);
+        OffHeapStoreTable t = OffHeapStoreTable.allocate(1 << 20);
+        TreeMap<Long, int[]> expected = new TreeMap<>();   // {iniciales, actuales, vaciadas}
+        for(int i=0;i<60000;i++) {
+            long location = rnd.nextInt(20000) * 1_000_003L - 5_000_000_000L;
+            int op = rnd.nextInt(10);
+            if(i > 40000 && op < 6) op = 4;                 // al final sobre todo se quita: se unen páginas
+            switch(op) {
+                case 0: case 1: case 2: case 3: {
+                    int tenges = 1 + rnd.nextInt(100);
+                    assertEquals(!expected.containsKey(location), t.add(location, tenges));
+                    expected.putIfAbsent(location, new int[]{tenges, tenges, 0});
+                    break;
+                }
+                case 4: case 5:
+                    assertEquals(expected.remove(location) != null, t.remove(location));
+                    break;
+                case 6: {
+                    int[] s = expected.get(location);
+                    if(s == null) {
+                        assertFalse(t.contains(location));
+                    } else {
+                        assertEquals(s[1], t.collect(location));
+                        if(s[1] != 0) s[2]++;
+                        s[1] = 0;
+                        assertEquals(s[2], t.timesEmptied(location));
+                    }
+                    break;
+                }
+                case 7:
+                    t.resupply();
+                    for(int[] s : expected.values()) s[1] = s[0];
+                    break;
+                default: {
+                    long to = location + rnd.nextInt(1000) * 1_000_003L;
+                    long sum = 0;
+                    for(int[] s : expected.subMap(location, to).values()) sum += s[1];
+                    assertEquals(sum, t.sumTenges(location, to));
+                }
+            }
+            assertEquals(expected.size(), t.size());
+        }
+        assertRows(expected, t);
+    }
+
+    @Test
+    public void reopenedFileKeepsOrderAndEpoch() throws Exception {
+        Path f = Files.createTempFile("stores", ".tbl");
+        Files.delete(f);
+        try {
+            try(OffHeapStoreTable t = OffHeapStoreTable.open(f, 10000)) {
+                for(int i=3000;i>0;i--) assertTrue(t.add(i * 10L, i * 10));
+                for(int i=1;i<=3000;i+=2) assertTrue(t.remove(i * 10L));
+                assertEquals(20, t.collect(20));
+                t.resupply();
+                assertEquals(40, t.collect(40));
+            }
+            try(OffHeapStoreTable t = OffHeapStoreTable.open(f, 1)) {
+                assertEquals(1500, t.size());
+                assertEquals(10000, t.capacity());
+                assertEquals(1, t.epoch());
+                assertEquals(20, t.tenges(20));
+                assertEquals(0, t.tenges(40));
+                assertEquals(1, t.timesEmptied(40));
+                assertFalse(t.contains(30));
+                assertTrue(t.add(30, 3));
+                assertEquals(20 + 3 + 0 + 60, t.sumTenges(20, 70));
+            }
+        } finally {
+            Files.deleteIfExists(f);
+        }
+    }
+
+    @Test
+    public void fullTableRejectsAndMissingStoreThrows() {
+        OffHeapStoreTable t = OffHeapStoreTable.allocate(2);
+        assertTrue(t.add(5, 1));
+        assertTrue(t.add(-5, 1));
+        assertFalse(t.add(0, 1));
+        assertTrue(t.remove(5));
+        assertTrue(t.add(0, 1));
+        try {
+            t.tenges(5);
+            fail("no hay tienda en 5");
+        } catch(IllegalArgumentException e) {
+            // esperado
+        }
+    }
+
+    @Test
+    public void workloadStoresMatchSilkRoad() {
+        long seed = 3;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 3000, 10, 0, 0, seed++);
+            SilkRoad road = SilkRoad.headless(() -> {
+                SilkRoad r = new SilkRoad(w.length());
+                r.createFromDays(w.days());
+                return r;
+            });
+            OffHeapStoreTable t = OffHeapStoreTable.allocate(w.days().length);
+            for(int[] day : w.days()) t.add(day[0], day[1]);
+            List<int[]> rows = new ArrayList<>();
+            t.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (location, tenges) -> rows.add(new int[]{(int)location, tenges}));
+            assertArrayEquals(d.name(), road.stores(), rows.toArray(new int[0][]));
+        }
+    }
+
+    private static void assertRows(TreeMap<Long, int[]> expected, OffHeapStoreTable t) {
+        Iterator<Map.Entry<Long, int[]>> it = expected.entrySet().iterator();
+        t.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (location, tenges) -> {
+            Map.Entry<Long, int[]> e = it.next();
+            assertEquals(e.getKey().longValue(), location);
+            assertEquals(e.getValue()[1], tenges);
+        });
+        assertFalse(it.hasNext());
+    }
+}
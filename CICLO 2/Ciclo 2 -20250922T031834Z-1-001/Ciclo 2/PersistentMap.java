@@ -0,0 +1,173 @@
+import java.util.function.BiConsumer;
+
+/**
+ * Clase PersistentMap: mapa ordenado e inmutable de claves long a valores, con estructura compartida.
+ * Es un treap cuyas prioridades salen de un hash de la clave: cada put o remove copia solo el camino
+ * de la raíz al nodo tocado (O(log n) esperado) y deja intacta la versión anterior, así que guardar
+ * una versión cuesta O(1) (basta con conservar la referencia).
+ *
+ * @param <V> tipo de los valores (deberían ser inmutables).
+ */
+public final class PersistentMap<V> {
+    private static final PersistentMap<?> EMPTY = new PersistentMap<>(null);
+
+    private final Node<V> root;
+
+    private PersistentMap(Node<V> root) {
+        this.root = root;
+    }
+
+    /**
+     * Devuelve el mapa vacío.
+     * @return mapa sin elementos.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentMap<V> empty() {
+        return (PersistentMap<V>)EMPTY;
+    }
+
+    /**
+     * Número de elementos.
+     * @return tamaño del mapa.
+     */
+    public int size() { return root == null ? 0 : root.size; }
+
+    /**
+     * Indica si el mapa está vacío.
+     * @return true si no tiene elementos.
+     */
+    public boolean isEmpty() { return root == null; }
+
+    /**
+     * Busca el valor de una clave.
+     * @param key clave.
+     * @return valor o null si no está.
+     */
+    public V get(long key) {
+        Node<V> t = root;
+        while(t != null) {
+            if(key == t.key) return t.value;
+            t = key < t.key ? t.left : t.right;
+        }
+        return null;
+    }
+
+    /**
+     * Indica si la clave está en el mapa.
+     * @param key clave.
+     * @return true si está.
+     */
+    public boolean containsKey(long key) { return get(key) != null; }
+
+    /**
+     * Devuelve la menor clave mayor o igual a `key`.
+     * @param key clave de búsqueda.
+     * @return clave encontrada, o null si no hay ninguna.
+     */
+    public Long ceilingKey(long key) {
+        Node<V> t = root;
+        Node<V> best = null;
+        while(t != null) {
+            if(t.key >= key) { best = t; t = t.left; }
+            else t = t.right;
+        }
+        return best == null ? null : best.key;
+    }
+
+    /**
+     * Devuelve un mapa con la clave asociada al valor (la versión actual no cambia).
+     * @param key clave.
+     * @param value valor (no null).
+     * @return nueva versión del mapa.
+     */
+    public PersistentMap<V> put(long key, V value) {
+        return new PersistentMap<>(put(root, key, value, priority(key)));
+    }
+
+    /**
+     * Devuelve un mapa sin la clave (la versión actual no cambia).
+     * @param key clave.
+     * @return nueva versión del mapa (la misma si la clave no estaba).
+     */
+    public PersistentMap<V> remove(long key) {
+        if(!containsKey(key)) return this;
+        return new PersistentMap<>(remove(root, key));
+    }
+
+    /**
+     * Recorre los elementos en orden creciente de clave.
+     * @param action acción a aplicar a cada par (clave, valor).
+     */
+    public void forEach(BiConsumer<Long, V> action) {
+        forEach(root, action);
+    }
+
+    // ----------------- treap persistente -----------------
+
+    private static final class Node<V> {
+        final long key;
+        final V value;
+        final int priority;
+        final Node<V> left, right;
+        final int size;
+
+        Node(long key, V value, int priority, Node<V> left, Node<V> right) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+        }
+    }
+
+    private static int priority(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int)(z ^ (z >>> 31));
+    }
+
+    private static <V> Node<V> put(Node<V> t, long key, V value, int priority) {
+        if(t == null) return new Node<>(key, value, priority, null, null);
+        if(key == t.key) return new Node<>(key, value, t.priority, t.left, t.right);
+        if(key < t.key) {
+            Node<V> l = put(t.left, key, value, priority);
+            if(l.priority > t.priority) {
+                // rotación a la derecha
+                return new Node<>(l.key, l.value, l.priority, l.left,
+                                  new Node<>(t.key, t.value, t.priority, l.right, t.right));
+            }
+            return new Node<>(t.key, t.value, t.priority, l, t.right);
+        } else {
+            Node<V> r = put(t.right, key, value, priority);
+            if(r.priority > t.priority) {
+                // rotación a la izquierda
+                return new Node<>(r.key, r.value, r.priority,
+                                  new Node<>(t.key, t.value, t.priority, t.left, r.left), r.right);
+            }
+            return new Node<>(t.key, t.value, t.priority, t.left, r);
+        }
+    }
+
+    private static <V> Node<V> remove(Node<V> t, long key) {
+        if(t == null) return null;
+        if(key == t.key) return merge(t.left, t.right);
+        if(key < t.key) return new Node<>(t.key, t.value, t.priority, remove(t.left, key), t.right);
+        return new Node<>(t.key, t.value, t.priority, t.left, remove(t.right, key));
+    }
+
+    private static <V> Node<V> merge(Node<V> a, Node<V> b) {
+        if(a == null) return b;
+        if(b == null) return a;
+        if(a.priority > b.priority) return new Node<>(a.key, a.value, a.priority, a.left, merge(a.right, b));
+        return new Node<>(b.key, b.value, b.priority, merge(a, b.left), b.right);
+    }
+
+    private static <V> void forEach(Node<V> t, BiConsumer<Long, V> action) {
+        if(t == null) return;
+        forEach(t.left, action);
+        action.accept(t.key, t.value);
+        forEach(t.right, action);
+    }
+}
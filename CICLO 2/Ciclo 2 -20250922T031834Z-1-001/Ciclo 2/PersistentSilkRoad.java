@@ -0,0 +1,450 @@
+import java.util.*;
+
+/**
+ * Clase PersistentSilkRoad: motor de simulación sin interfaz gráfica, aparte de SilkRoad, cuyo
+ * estado vive en mapas persistentes (PersistentMap) con estructura compartida.
+ * SilkRoad no cambia ni gana undo: sus tiendas y robots siguen siendo objetos con figura y épocas.
+ * Este motor aplica las reglas de SilkRoad (fuera de las rondas de beginRound/endRound) sobre
+ * estado inmutable, para los casos que necesitan versiones: guarda además el orden de colocación
+ * de las tiendas, de modo que en moveRobots los empates se resuelven igual (gana la colocada
+ * primero), y cada paso mueve al robot de menor orden de llegada en la ubicación, como
+ * SilkRoad.moveRobot. Cada operación produce una versión nueva sin copiar la carretera, así que
+ *  - tomar una versión (snapshot) cuesta O(1),
+ *  - undo() y redo() se mueven entre versiones en O(1),
+ *  - branch() crea un escenario hipotético desde el punto actual sin copiar nada.
+ * El historial de undo guarda como mucho historyLimit versiones; al pasarse se olvida la más
+ * vieja, así que una corrida larga no retiene todas sus versiones.
+ *
+ * @param length longitud lógica de la carretera.
+ * @param historyLimit versiones que se pueden deshacer (por defecto DEFAULT_HISTORY).
+ */
+public class PersistentSilkRoad {
+    public static final int DEFAULT_HISTORY = 1000;
+
+    private final int length;
+    private final int historyLimit;            // máximo de versiones en undo
+    private State state;                       // versión actual
+    private final Deque<State> undo;           // versiones anteriores
+    private final Deque<State> redo;           // versiones deshechas
+
+    /**
+     * Versión inmutable de la simulación. Puede guardarse y restaurarse con restore().
+     */
+    public static final class State {
+        private final PersistentMap<StoreState> stores;    // ubicación -> tienda
+        private final PersistentMap<StoreState> placed;    // orden de colocación -> tienda
+        private final PersistentMap<RobotState> byLocation; // (ubicación, orden) -> robot
+        private final PersistentMap<RobotState> byOrder;    // orden -> robot
+        private final int profit;
+        private final int arrivalCounter;
+        private final int placementCounter;
+        private final boolean ok;
+
+        private State(PersistentMap<StoreState> stores, PersistentMap<StoreState> placed,
+                      PersistentMap<RobotState> byLocation, PersistentMap<RobotState> byOrder,
+                      int profit, int arrivalCounter, int placementCounter, boolean ok) {
+            this.stores = stores;
+            this.placed = placed;
+            this.byLocation = byLocation;
+            this.byOrder = byOrder;
+            this.profit = profit;
+            this.arrivalCounter = arrivalCounter;
+            this.placementCounter = placementCounter;
+            this.ok = ok;
+        }
+
+        private State withOk(boolean ok) {
+            return ok == this.ok ? this : new State(stores, placed, byLocation, byOrder, profit, arrivalCounter, placementCounter, ok);
+        }
+
+        private State withStores(PersistentMap<StoreState> stores, PersistentMap<StoreState> placed, int placementCounter) {
+            return new State(stores, placed, byLocation, byOrder, profit, arrivalCounter, placementCounter, true);
+        }
+
+        private State withRobots(PersistentMap<RobotState> byLocation, PersistentMap<RobotState> byOrder,
+                                 int profit, int arrivalCounter) {
+            return new State(stores, placed, byLocation, byOrder, profit, arrivalCounter, placementCounter, true);
+        }
+
+        /** @return ganancia en esta versión. */
+        public int porfit() { return profit; }
+        /** @return número de tiendas en esta versión. */
+        public int storeCount() { return stores.size(); }
+        /** @return número de robots en esta versión. */
+        public int robotCount() { return byOrder.size(); }
+    }
+
+    /** Tienda inmutable. */
+    private static final class StoreState {
+        final int location, initialTenges, tenges, order;
+
+        StoreState(int location, int initialTenges, int tenges, int order) {
+            this.location = location;
+            this.initialTenges = initialTenges;
+            this.tenges = tenges;
+            this.order = order;
+        }
+
+        StoreState withTenges(int tenges) {
+            return new StoreState(location, initialTenges, tenges, order);
+        }
+    }
+
+    /** Robot inmutable. */
+    private static final class RobotState {
+        final int initialLocation, location, arrivalOrder, profit;
+
+        RobotState(int initialLocation, int location, int arrivalOrder, int profit) {
+            this.initialLocation = initialLocation;
+            this.location = location;
+            this.arrivalOrder = arrivalOrder;
+            this.profit = profit;
+        }
+
+        long key() { return key(location, arrivalOrder); }
+
+        static long key(int location, int arrivalOrder) {
+            return ((long)location << 32) | (arrivalOrder & 0xffffffffL);
+        }
+    }
+
+    /**
+     * Constructor de la simulación persistente.
+     */
+    public PersistentSilkRoad(int length) {
+        this(length, DEFAULT_HISTORY);
+    }
+
+    /**
+     * Constructor con un límite de historial propio.
+     */
+    public PersistentSilkRoad(int length, int historyLimit) {
+        this(length, historyLimit, new State(PersistentMap.empty(), PersistentMap.empty(), PersistentMap.empty(), PersistentMap.empty(),
+                                             0, 0, 0, true));
+    }
+
+    private PersistentSilkRoad(int length, int historyLimit, State state) {
+        if(historyLimit < 0) throw new IllegalArgumentException("historyLimit no puede ser negativo");
+        this.length = length;
+        this.historyLimit = historyLimit;
+        this.state = state;
+        this.undo = new ArrayDeque<>();
+        this.redo = new ArrayDeque<>();
+    }
+
+    // ----------------- versiones -----------------
+
+    /**
+     * Devuelve la versión actual. Cuesta O(1): no copia nada.
+     * @return versión inmutable.
+     */
+    public State snapshot() { return state; }
+
+    /**
+     * Vuelve a una versión tomada antes con snapshot() (de esta simulación o de una rama).
+     * El cambio se puede deshacer con undo().
+     * @param version versión a restaurar.
+     */
+    public void restore(State version) { commit(version); }
+
+    /**
+     * Deshace la última operación.
+     * @return true si había algo que deshacer.
+     */
+    public boolean undo() {
+        if(undo.isEmpty()) return false;
+        redo.push(state);
+        state = undo.pop();
+        return true;
+    }
+
+    /**
+     * Rehace la última operación deshecha.
+     * @return true si había algo que rehacer.
+     */
+    public boolean redo() {
+        if(redo.isEmpty()) return false;
+        undo.push(state);
+        state = redo.pop();
+        return true;
+    }
+
+    /**
+     * Crea una rama: una simulación nueva que parte de la versión actual y comparte
+     * toda su estructura con ella. Las operaciones en la rama no afectan a esta simulación.
+     * @return la rama, con historial vacío.
+     */
+    public PersistentSilkRoad branch() { return new PersistentSilkRoad(length, historyLimit, state); }
+
+    /**
+     * Olvida el historial de undo/redo (libera las versiones que nadie más usa).
+     */
+    public void clearHistory() {
+        undo.clear();
+        redo.clear();
+    }
+
+    // ----------------- operaciones (mismas reglas que SilkRoad) -----------------
+
+    /** @return longitud lógica de la carretera. */
+    public int length() { return length; }
+
+    /** @return true si la última operación terminó bien. */
+    public boolean ok() { return state.ok; }
+
+    /**
+     * Coloca una tienda. Falla si hay otra tienda o algún robot en la ubicación.
+     * @param location ubicación lógica.
+     * @param tenges tenges iniciales.
+     */
+    public void placeStore(int location, int tenges) {
+        State s = state;
+        if(s.stores.containsKey(location) || robotAt(s, location) != null) { fail(); return; }
+        StoreState st = new StoreState(location, tenges, tenges, s.placementCounter);
+        commit(s.withStores(s.stores.put(location, st), s.placed.put(st.order, st), s.placementCounter + 1));
+    }
+
+    /**
+     * Crea la ruta a partir de un arreglo de días {ubicación, tenges}, como SilkRoad.createFromDays:
+     * igual que placeStore en orden, rechazando las ubicaciones repetidas u ocupadas. Es una sola
+     * versión, así que un undo() deshace todos los días. ok() es true solo si se colocaron todos.
+     *
+     * @param days arreglo de días donde cada elemento es {ubicación, tenges}.
+     * @return esta misma simulación.
+     */
+    public PersistentSilkRoad createFromDays(int[][] days) {
+        State s = state;
+        PersistentMap<StoreState> stores = s.stores, placed = s.placed;
+        int order = s.placementCounter;
+        boolean all = true;
+        for(int[] day : days) {
+            int location = day[0];
+            if(stores.containsKey(location) || robotAt(s, location) != null) { all = false; continue; }
+            StoreState st = new StoreState(location, day[1], day[1], order++);
+            stores = stores.put(location, st);
+            placed = placed.put(st.order, st);
+        }
+        if(order == s.placementCounter) fail();
+        else commit(s.withStores(stores, placed, order).withOk(all));
+        return this;
+    }
+
+    /**
+     * Elimina la tienda de una ubicación.
+     * @param location ubicación lógica.
+     */
+    public void removeStore(int location) {
+        State s = state;
+        StoreState st = s.stores.get(location);
+        if(st == null) { fail(); return; }
+        commit(s.withStores(s.stores.remove(location), s.placed.remove(st.order), s.placementCounter));
+    }
+
+    /**
+     * Coloca un robot. Falla si ya hay un robot en esa ubicación.
+     * @param location ubicación lógica.
+     */
+    public void placeRobot(int location) {
+        State s = state;
+        if(robotAt(s, location) != null) { fail(); return; }
+        RobotState r = new RobotState(location, location, s.arrivalCounter, 0);
+        commit(s.withRobots(s.byLocation.put(r.key(), r), s.byOrder.put(r.arrivalOrder, r),
+                            s.profit, s.arrivalCounter + 1));
+    }
+
+    /**
+     * Elimina el robot de menor orden de llegada en una ubicación.
+     * @param location ubicación lógica.
+     */
+    public void removeRobot(int location) {
+        State s = state;
+        RobotState r = robotAt(s, location);
+        if(r == null) { fail(); return; }
+        commit(s.withRobots(s.byLocation.remove(r.key()), s.byOrder.remove(r.arrivalOrder),
+                            s.profit, s.arrivalCounter));
+    }
+
+    /**
+     * Mueve el robot de menor orden de llegada en `location` la cantidad `meters`,
+     * cobrando un tenge por metro y recogiendo la tienda de destino.
+     * @param location ubicación actual del robot.
+     * @param meters desplazamiento en metros.
+     */
+    public void moveRobot(int location, int meters) {
+        State s = state;
+        RobotState r = robotAt(s, location);
+        if(r == null) { fail(); return; }
+        commit(move(s, r, meters));
+    }
+
+    /**
+     * Mueve los robots como SilkRoad.moveRobots: en orden de llegada, cada robot busca la tienda
+     * con mayor beneficio positivo (tenges - distancia; a igual beneficio, la colocada primero)
+     * y el robot de menor orden de llegada en su ubicación va hasta ella.
+     */
+    public void moveRobots() {
+        State s = state;
+        List<Integer> orders = new ArrayList<>(s.byOrder.size());
+        s.byOrder.forEach((k, r) -> orders.add(r.arrivalOrder));
+        for(int order : orders) {
+            int here = s.byOrder.get(order).location;
+            int[] best = {here, 0};
+            s.placed.forEach((k, st) -> {
+                int p = st.tenges - Math.abs(st.location - here);
+                if(p > best[1]) { best[1] = p; best[0] = st.location; }
+            });
+            s = move(s, robotAt(s, here), best[0] - here);
+        }
+        commit(s);
+    }
+
+    /**
+     * Reabastece todas las tiendas.
+     */
+    public void resupplyStores() {
+        State s = state;
+        commit(resupplied(s));
+    }
+
+    /**
+     * Regresa todos los robots a sus ubicaciones iniciales.
+     */
+    public void returnRobots() {
+        State s = state;
+        PersistentMap<RobotState>[] maps = returned(s.byOrder, false);
+        commit(s.withRobots(maps[0], maps[1], s.profit, s.arrivalCounter));
+    }
+
+    /**
+     * Reinicia: tiendas reabastecidas, ganancia 0 y robots en sus ubicaciones iniciales.
+     */
+    public void reboot() {
+        State s = state;
+        PersistentMap<RobotState>[] maps = returned(s.byOrder, true);
+        commit(resupplied(s).withRobots(maps[0], maps[1], 0, s.arrivalCounter));
+    }
+
+    /** @return ganancia actual. */
+    public int porfit() { return state.profit; }
+
+    /**
+     * Tiendas ordenadas por ubicación.
+     * @return matriz {ubicación, tenges}.
+     */
+    public int[][] stores() {
+        List<int[]> out = new ArrayList<>(state.stores.size());
+        state.stores.forEach((k, st) -> out.add(new int[]{st.location, st.tenges}));
+        return out.toArray(new int[0][]);
+    }
+
+    /**
+     * Robots ordenados por ubicación.
+     * @return matriz {ubicación, 0}.
+     */
+    public int[][] robots() {
+        List<int[]> out = new ArrayList<>(state.byLocation.size());
+        state.byLocation.forEach((k, r) -> out.add(new int[]{r.location, 0}));
+        return out.toArray(new int[0][]);
+    }
+
+    /**
+     * Veces que se ha vaciado cada tienda, ordenadas por ubicación, con la misma cuenta que
+     * SilkRoad.emptiedStores (tenges iniciales menos tenges actuales).
+     * @return matriz {ubicación, vecesVacía}.
+     */
+    public int[][] emptiedStores() {
+        List<int[]> out = new ArrayList<>(state.stores.size());
+        state.stores.forEach((k, st) -> out.add(new int[]{st.location, st.initialTenges - st.tenges}));
+        return out.toArray(new int[0][]);
+    }
+
+    /**
+     * Ganancia de cada robot ordenada por ubicación.
+     * @return matriz {ubicación, ganancia}.
+     */
+    public int[][] profitPerRobot() {
+        List<int[]> out = new ArrayList<>(state.byLocation.size());
+        state.byLocation.forEach((k, r) -> out.add(new int[]{r.location, r.profit}));
+        return out.toArray(new int[0][]);
+    }
+
+    // ----------------- auxiliares -----------------
+
+    private void commit(State next) {
+        undo.push(state);
+        if(undo.size() > historyLimit) undo.pollLast();   // se olvida la versión más vieja
+        redo.clear();
+        state = next;
+    }
+
+    private void fail() {
+        // un fallo no cambia la simulación, pero ok() debe reflejarlo
+        state = state.withOk(false);
+    }
+
+    /**
+     * Robot de menor orden de llegada en una ubicación, o null.
+     */
+    private static RobotState robotAt(State s, int location) {
+        Long k = s.byLocation.ceilingKey(RobotState.key(location, 0));
+        if(k == null || (int)(k >> 32) != location) return null;
+        return s.byLocation.get(k);
+    }
+
+    /**
+     * Versión resultante de mover un robot.
+     */
+    private static State move(State s, RobotState r, int meters) {
+        int to = r.location + meters;
+        int profit = s.profit - Math.abs(meters);
+        StoreState st = s.stores.get(to);
+        int taken = 0;
+        if(st != null && st.tenges != 0) {
+            taken = st.tenges;
+            StoreState emptied = st.withTenges(0);
+            s = s.withStores(s.stores.put(to, emptied), s.placed.put(st.order, emptied), s.placementCounter);
+            profit += taken;
+        }
+        RobotState moved = new RobotState(r.initialLocation, to, r.arrivalOrder, r.profit + taken - Math.abs(meters));
+        return s.withRobots(s.byLocation.remove(r.key()).put(moved.key(), moved),
+                            s.byOrder.put(moved.arrivalOrder, moved), profit, s.arrivalCounter);
+    }
+
+    /**
+     * Versión con todas las tiendas en sus tenges iniciales.
+     */
+    private static State resupplied(State s) {
+        PersistentMap<StoreState>[] out = newMaps(2);
+        out[0] = s.stores;
+        out[1] = s.placed;
+        s.stores.forEach((k, st) -> {
+            if(st.tenges != st.initialTenges) {
+                StoreState full = st.withTenges(st.initialTenges);
+                out[0] = out[0].put(k, full);
+                out[1] = out[1].put(st.order, full);
+            }
+        });
+        return s.withStores(out[0], out[1], s.placementCounter);
+    }
+
+    /**
+     * Mapas {byLocation, byOrder} con todos los robots en su ubicación inicial.
+     */
+    private static PersistentMap<RobotState>[] returned(PersistentMap<RobotState> byOrder, boolean resetProfit) {
+        PersistentMap<RobotState>[] out = newMaps(2);
+        out[0] = PersistentMap.empty();
+        out[1] = byOrder;
+        byOrder.forEach((k, r) -> {
+            RobotState home = new RobotState(r.initialLocation, r.initialLocation, r.arrivalOrder,
+                                             resetProfit ? 0 : r.profit);
+            out[0] = out[0].put(home.key(), home);
+            out[1] = out[1].put(k, home);
+        });
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> PersistentMap<V>[] newMaps(int n) {
+        return (PersistentMap<V>[])new PersistentMap<?>[n];
+    }
+}
@@ -0,0 +1,120 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Clase PersistentSilkRoadTest: pruebas de PersistentSilkRoad contra SilkRoad.
+ * Aplica las mismas operaciones a ambos motores (escenarios de WorkloadGenerator y secuencias
+ * aleatorias con empates y robots que coinciden en una ubicación) y compara el estado completo
+ * después de cada paso; además prueba undo, redo y branch.
+ */
+public class PersistentSilkRoadTest {
+
+    @Test
+    public void workloadsMatchSilkRoad() {
+        long seed = 11;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 100, 25, 150, 3, seed++);
+            PersistentSilkRoad p = new PersistentSilkRoad(w.length());
+            p.createFromDays(w.days());
+            for(int location : w.robots()) p.placeRobot(location);
+            for(int[] m : w.moves()) p.moveRobot(m[0], m[1]);
+            for(int i=0;i<w.rounds();i++) {
+                p.moveRobots();
+                p.resupplyStores();
+            }
+            assertMatches(d.name(), w.run(), p);
+        }
+    }
+
+    @Test
+    public void randomOperationsMatchSilkRoad() {
+        for(long seed = 1; seed <= 20; seed++) {
+            Random rnd = new Random(seed);
+            SilkRoad r = new SilkRoad(60);
+            PersistentSilkRoad p = new PersistentSilkRoad(60);
+            for(int i=0;i<400;i++) {
+                int l = rnd.nextInt(60);
+                switch(rnd.nextInt(10)) {
+                    case 0: case 1: {
+                        int t = 1 + rnd.nextInt(4) * 10;    // pocos valores: muchos empates
+                        r.placeStore(l, t); p.placeStore(l, t);
+                        break;
+                    }
+                    case 2: r.removeStore(l); p.removeStore(l); break;
+                    case 3: r.placeRobot(l); p.placeRobot(l); break;
+                    case 4: {
+                        int[][] robots = r.robots();
+                        if(robots.length > 0) l = robots[rnd.nextInt(robots.length)][0];
+                        int m = rnd.nextInt(21) - 10;
+                        r.moveRobot(l, m); p.moveRobot(l, m);
+                        break;
+                    }
+                    case 5: case 6: r.moveRobots(); p.moveRobots(); break;
+                    case 7: r.resupplyStores(); p.resupplyStores(); break;
+                    case 8: if(rnd.nextBoolean()) { r.reboot(); p.reboot(); } else { r.returnRobots(); p.returnRobots(); } break;
+                    default: r.removeRobot(l); p.removeRobot(l);
+                }
+                assertMatches("semilla " + seed + " paso " + i, r, p);
+            }
+        }
+    }
+
+    @Test
+    public void createFromDaysRejectsLikeSilkRoad() {
+        int[][] days = {{5, 10}, {7, 3}, {5, 99}, {2, 4}};
+        SilkRoad r = new SilkRoad(20);
+        r.placeRobot(2);
+        r.createFromDays(days);
+        PersistentSilkRoad p = new PersistentSilkRoad(20);
+        p.placeRobot(2);
+        p.createFromDays(days);
+        assertMatches("createFromDays", r, p);
+        assertFalse(p.ok());
+        assertTrue(p.undo());
+        assertEquals(0, p.stores().length);
+    }
+
+    @Test
+    public void undoRedoAndBranch() {
+        PersistentSilkRoad p = new PersistentSilkRoad(100);
+        p.placeStore(10, 50);
+        p.placeRobot(0);
+        PersistentSilkRoad.State before = p.snapshot();
+        p.moveRobots();
+        assertEquals(40, p.porfit());
+        assertTrue(p.undo());
+        assertEquals(0, p.porfit());
+        assertSame(before, p.snapshot());
+        assertTrue(p.redo());
+        assertEquals(40, p.porfit());
+
+        PersistentSilkRoad what = p.branch();
+        what.resupplyStores();
+        what.moveRobots();
+        assertEquals(90, what.porfit());
+        assertEquals(40, p.porfit());
+        assertArrayEquals(new int[][]{{10, 0}}, p.stores());
+    }
+
+    @Test
+    public void historyIsBounded() {
+        PersistentSilkRoad p = new PersistentSilkRoad(100, 2);
+        for(int i=0;i<5;i++) p.placeStore(i, 1);
+        assertTrue(p.undo());
+        assertTrue(p.undo());
+        assertFalse(p.undo());
+        assertEquals(3, p.stores().length);
+    }
+
+    private static void assertMatches(String what, SilkRoad expected, PersistentSilkRoad actual) {
+        assertEquals(what + ": ok", expected.ok(), actual.ok());
+        assertEquals(what + ": ganancia", expected.porfit(), actual.porfit());
+        assertArrayEquals(what + ": tiendas", expected.stores(), actual.stores());
+        assertArrayEquals(what + ": robots", expected.robots(), actual.robots());
+        assertArrayEquals(what + ": vaciadas", expected.emptiedStores(), actual.emptiedStores());
+        assertArrayEquals(what + ": por robot", expected.profitPerRobot(), actual.profitPerRobot());
+    }
+}
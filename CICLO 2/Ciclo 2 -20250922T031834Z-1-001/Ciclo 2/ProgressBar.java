@@ -1,21 +1,38 @@
 import java.awt.*;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * Clase ProgressBar: representa una barra de progreso para mostrar las ganancias de la simulación.
  * Está compuesta por dos rectángulos: el fondo y la barra que crece proporcionalmente al valor actual.
  *
+ * El máximo se lleva como un total acumulado (addMax/removeMax), así que nadie tiene que recorrer
+ * las tiendas para calcularlo. setValue y los cambios de máximo solo guardan el dato: el dibujo se
+ * agrupa en a lo sumo una actualización por cuadro (FRAME_MILLIS) que se aplica en el hilo de
+ * eventos de Swing, y solo redibuja si el ancho de la barra cambió.
+ *
+ * Los rectángulos solo se tocan en el hilo de eventos: makeVisible y makeInvisible guardan el estado
+ * pedido y encargan allí el cambio, así que una actualización nunca se cruza con un ocultamiento
+ * desde el hilo de la simulación. El temporizador se crea en el primer makeVisible: una SilkRoad
+ * que nunca se muestra no crea ninguno.
+ *
  * @param x coordenada X de la barra en el lienzo.
  * @param y coordenada Y de la barra en el lienzo.
  * @param width ancho total de la barra.
  * @param height alto total de la barra.
  */
 public class ProgressBar {
+    public static final int FRAME_MILLIS = 16;
+
     private Rectangle background;   // rectángulo de fondo
     private Rectangle bar;          // rectángulo de progreso
-    private boolean visible;
+    private volatile boolean visible;   // estado pedido; las figuras cambian en el hilo de eventos
     private int x, y, width, height;
-    private int maxValue;
-    private int currentValue;
+    private volatile long maxValue;     // máximo dibujado: nunca menor que 1, como en el original
+    private long total;                 // suma de setMax/addMax/removeMax (puede quedar en 0)
+    private volatile int currentValue;
+    private int shownWidth = -1;        // ancho dibujado (solo en el hilo de eventos)
+    private volatile Timer frame;       // aplica la actualización pendiente; null hasta el primer makeVisible
     private String bgColor = "black";
     private String barColor = "green";
 
@@ -36,58 +53,144 @@ public class ProgressBar {
     }
 
     /**
-     * Establece el valor máximo de la barra.
+     * Establece el valor máximo de la barra (reemplaza el total acumulado).
+     * Un máximo menor que 1 se toma como 1.
      * @param max valor máximo permitido.
      */
     public void setMax(int max) {
         if(max <= 0) max = 1;
-        this.maxValue = max;
-        updateVisual();
+        total = max;
+        maxValue = max;
+        requestUpdate();
+    }
+
+    /**
+     * Suma al máximo de la barra (por ejemplo, los tenges iniciales de una tienda nueva).
+     * @param amount cantidad a sumar.
+     */
+    public void addMax(int amount) {
+        if(amount == 0) return;
+        total += amount;
+        maxValue = Math.max(1, total);
+        requestUpdate();
+    }
+
+    /**
+     * Resta del máximo de la barra (por ejemplo, al eliminar una tienda).
+     * @param amount cantidad a restar.
+     */
+    public void removeMax(int amount) {
+        addMax(-amount);
     }
 
     /**
-     * Establece el valor actual de la barra y actualiza la visualización.
+     * Devuelve el máximo de la barra: el total acumulado, o 1 si no llega a 1.
+     * @return valor máximo.
+     */
+    public long max() { return maxValue; }
+
+    /**
+     * Establece el valor actual de la barra; se dibuja en el próximo cuadro.
      * @param val valor actual.
      */
     public void setValue(int val) {
         this.currentValue = Math.max(0, val);
-        updateVisual();
+        requestUpdate();
     }
 
     /**
      * Hace visible la barra de progreso en el lienzo.
      */
     public void makeVisible() {
-        if(!visible) {
-            visible = true;
-            background.makeVisible();
-            bar.makeVisible();
-            background.moveHorizontal(x-70);
-            background.moveVertical(y-15);
-            bar.moveHorizontal(x-70+2);
-            bar.moveVertical(y-15+2);
-            updateVisual();
+        if(visible) return;
+        if(frame == null) {
+            Timer t = new Timer(FRAME_MILLIS, e -> updateVisual());
+            t.setRepeats(false);
+            t.setCoalesce(true);
+            frame = t;
         }
+        visible = true;
+        onEventThread(() -> {
+            if(!visible) return;   // se ocultó antes de llegar aquí
+            Canvas canvas = Canvas.getCanvas();
+            canvas.beginBatch();
+            try {
+                background.moveTo(x, y);
+                bar.moveTo(x+2, y+2);
+                background.makeVisible();
+                bar.makeVisible();
+            } finally {
+                canvas.endBatch();
+            }
+            shownWidth = -1;
+            updateVisual();
+        });
     }
 
     /**
      * Hace invisible la barra de progreso en el lienzo.
      */
     public void makeInvisible() {
-        if(visible) {
-            visible = false;
+        if(!visible) return;
+        visible = false;
+        onEventThread(() -> {
+            if(visible) return;    // se volvió a mostrar antes de llegar aquí
             background.makeInvisible();
             bar.makeInvisible();
-        }
+        });
+    }
+
+    /**
+     * Programa la actualización visual para el próximo cuadro. Si ya hay una pendiente,
+     * no hace nada: esa usará el valor y el máximo más recientes.
+     */
+    private void requestUpdate() {
+        Timer t = frame;
+        if(visible && t != null && !t.isRunning()) t.start();
+    }
+
+    /**
+     * Ejecuta una tarea en el hilo de eventos (en seguida si ya se está en él).
+     */
+    private static void onEventThread(Runnable task) {
+        if(SwingUtilities.isEventDispatchThread()) task.run();
+        else SwingUtilities.invokeLater(task);
     }
 
     /**
      * Actualiza visualmente la barra de progreso de acuerdo al valor actual.
+     * Se ejecuta en el hilo de eventos, una vez por cuadro como máximo.
      */
     private void updateVisual() {
         if(!visible) return;
         int w = (int)((double)currentValue / maxValue * (width-4));
-        if(w < 0) w = 0;
-        bar.changeSize(height-4, Math.max(1, w));
+        w = Math.max(1, w);
+        if(w == shownWidth) return;
+        shownWidth = w;
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginBatch();   // sin la pausa de 10 ms de draw: no se bloquea el hilo de eventos
+        try {
+            bar.changeSize(height-4, w);
+        } finally {
+            canvas.endBatch();
+        }
+    }
+
+    /**
+     * Aplica ya la actualización pendiente, en el hilo de eventos (útil al terminar una
+     * simulación o en pruebas sin pantalla).
+     */
+    public void flush() {
+        Timer t = frame;
+        if(t != null) t.stop();
+        if(SwingUtilities.isEventDispatchThread()) {
+            updateVisual();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(this::updateVisual);
+        } catch(Exception e) {
+            // si el hilo de eventos no está disponible la barra se actualizará en el próximo cuadro
+        }
     }
 }
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+
+/**
+ * Clase RangeSumTree: árbol de búsqueda balanceado (treap) con claves int y varias columnas de sumas
+ * de long por clave. Suma un valor en una clave y responde la suma de una columna sobre un rango de
+ * claves en O(log n) esperado. A diferencia de un árbol de Fenwick sobre ubicaciones comprimidas,
+ * una clave nueva se inserta en su lugar sin reconstruir nada; una clave cuyas columnas vuelven
+ * todas a 0 se quita, así que el árbol solo guarda las ubicaciones ocupadas.
+ * Los nodos viven en arreglos primitivos (el nodo 0 es el vacío) y los liberados se reutilizan.
+ *
+ * @param columns cantidad de columnas de sumas.
+ */
+public class RangeSumTree {
+    private final int columns;
+    private int[] key = new int[16];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] priority = new int[16];
+    private long[] value;      // valor de cada nodo: value[nodo * columns + columna]
+    private long[] sum;        // suma del subárbol, mismo formato
+    private int[] free = new int[16];  // nodos liberados, como pila
+    private int freeCount;
+    private int nodes = 1;     // nodos usados, contando el 0
+    private int size;
+    private int root;
+    private int seed = 0x2545F491;
+    private int splitLeft, splitRight;  // resultado de split
+
+    /**
+     * Constructor del árbol vacío.
+     */
+    public RangeSumTree(int columns) {
+        this.columns = columns;
+        value = new long[16 * columns];
+        sum = new long[16 * columns];
+    }
+
+    /**
+     * Devuelve la cantidad de claves con algún valor distinto de 0.
+     * @return claves en el árbol.
+     */
+    public int size() { return size; }
+
+    /**
+     * Suma delta en una columna de una clave (la crea si no existe).
+     * @param k clave.
+     * @param column columna (0..columns-1).
+     * @param delta cantidad a sumar (puede ser negativa).
+     */
+    public void add(int k, int column, long delta) {
+        if(delta == 0) return;
+        int n = find(k);
+        if(n == 0) {
+            n = newNode(k);
+            split(root, k);
+            root = merge(merge(splitLeft, n), splitRight);
+        }
+        // el camino desde la raíz hasta la clave es el único que cambia de suma
+        for(int t = root; ; t = k < key[t] ? left[t] : right[t]) {
+            sum[t * columns + column] += delta;
+            if(key[t] == k) break;
+        }
+        value[n * columns + column] += delta;
+        for(int c=0;c<columns;c++) {
+            if(value[n * columns + c] != 0) return;
+        }
+        root = erase(root, k);
+    }
+
+    /**
+     * Suma una columna sobre las claves en [from, to] (incluidas).
+     * @param column columna.
+     * @param from inicio del rango.
+     * @param to fin del rango.
+     * @return suma.
+     */
+    public long sum(int column, int from, int to) {
+        return from > to ? 0 : below(column, (long)to + 1) - below(column, from);
+    }
+
+    // ----------------- internos -----------------
+
+    /**
+     * Suma de una columna sobre las claves menores que x.
+     */
+    private long below(int column, long x) {
+        long s = 0;
+        int t = root;
+        while(t != 0) {
+            if(key[t] < x) {
+                s += sum[left[t] * columns + column] + value[t * columns + column];
+                t = right[t];
+            } else {
+                t = left[t];
+            }
+        }
+        return s;
+    }
+
+    private int find(int k) {
+        int t = root;
+        while(t != 0 && key[t] != k) t = k < key[t] ? left[t] : right[t];
+        return t;
+    }
+
+    /**
+     * Parte un subárbol en claves menores que k (splitLeft) y mayores o iguales (splitRight).
+     */
+    private void split(int t, int k) {
+        if(t == 0) {
+            splitLeft = splitRight = 0;
+            return;
+        }
+        if(key[t] < k) {
+            split(right[t], k);
+            right[t] = splitLeft;
+            pull(t);
+            splitLeft = t;
+        } else {
+            split(left[t], k);
+            left[t] = splitRight;
+            pull(t);
+            splitRight = t;
+        }
+    }
+
+    /**
+     * Une dos subárboles donde todas las claves de a son menores que las de b.
+     */
+    private int merge(int a, int b) {
+        if(a == 0) return b;
+        if(b == 0) return a;
+        if(priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            pull(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        pull(b);
+        return b;
+    }
+
+    /**
+     * Quita la clave k; el nodo tiene todas sus columnas en 0, así que las sumas de sus
+     * ancestros no cambian.
+     */
+    private int erase(int t, int k) {
+        if(key[t] == k) {
+            int m = merge(left[t], right[t]);
+            free[freeCount++] = t;
+            size--;
+            return m;
+        }
+        if(k < key[t]) left[t] = erase(left[t], k);
+        else right[t] = erase(right[t], k);
+        return t;
+    }
+
+    private void pull(int t) {
+        int l = left[t] * columns, r = right[t] * columns, o = t * columns;
+        for(int c=0;c<columns;c++) sum[o + c] = sum[l + c] + sum[r + c] + value[o + c];
+    }
+
+    private int newNode(int k) {
+        int n;
+        if(freeCount > 0) {
+            n = free[--freeCount];
+        } else {
+            if(nodes == key.length) grow();
+            n = nodes++;
+        }
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        key[n] = k;
+        left[n] = right[n] = 0;
+        priority[n] = seed;
+        Arrays.fill(value, n * columns, (n + 1) * columns, 0);
+        Arrays.fill(sum, n * columns, (n + 1) * columns, 0);
+        size++;
+        return n;
+    }
+
+    private void grow() {
+        int c = key.length * 2;
+        key = Arrays.copyOf(key, c);
+        left = Arrays.copyOf(left, c);
+        right = Arrays.copyOf(right, c);
+        priority = Arrays.copyOf(priority, c);
+        value = Arrays.copyOf(value, c * columns);
+        sum = Arrays.copyOf(sum, c * columns);
+        free = Arrays.copyOf(free, c);
+    }
+}
@@ -0,0 +1,121 @@
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+/**
+ * Clase RangeSumTreeTest: pruebas de RangeSumTree contra un TreeMap y de las consultas por tramo
+ * de SilkRoad (tengesBetween, robotsBetween, collectedBetween) contra un recorrido completo.
+ * El árbol se arma con la primera consulta y después se sigue consultando mientras se colocan y
+ * quitan tiendas y robots en ubicaciones nuevas, así que se prueban las actualizaciones en el lugar.
+ */
+public class RangeSumTreeTest {
+
+    @Test
+    public void randomAddsMatchTreeMap() {
+        Random rnd = new Random(9);
+        RangeSumTree t = new RangeSumTree(2);
+        TreeMap<Integer, long[]> expected = new TreeMap<>();
+        for(int i=0;i<50000;i++) {
+            int k = rnd.nextInt(2000) * 1_000_003 - 1_000_000_000;
+            int column = rnd.nextInt(2);
+            long[] v = expected.get(k);
+            // la mitad de las veces se deshace lo que hay: las claves se quitan y vuelven
+            long delta = v != null && rnd.nextBoolean() ? -v[column] : rnd.nextInt(201) - 100;
+            t.add(k, column, delta);
+            if(v == null) expected.put(k, v = new long[2]);
+            v[column] += delta;
+            if(v[0] == 0 && v[1] == 0) expected.remove(k);
+            int to = k + rnd.nextInt(300) * 1_000_003;
+            long s = 0;
+            for(long[] w : expected.subMap(k, true, to, true).values()) s += w[column];
+            assertEquals(s, t.sum(column, k, to));
+            assertEquals(expected.size(), t.size());
+        }
+        assertEquals(0, t.sum(0, 5, 4));
+    }
+
+    @Test
+    public void workloadRangesMatchBruteForce() {
+        long seed = 17;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 300, 40, 150, 3, seed++);
+            SilkRoad r = SilkRoad.headless(() -> new SilkRoad(w.length()));
+            r.tengesBetween(0, 0);      // arma el árbol vacío: todo lo demás se hace en el lugar
+            r.createFromDays(w.days());
+            for(int location : w.robots()) r.placeRobot(location);
+            for(int[] m : w.moves()) r.moveRobot(m[0], m[1]);
+            assertRanges(d.name() + " movidos", r, w.length());
+            for(int i=0;i<w.rounds();i++) {
+                r.moveRobots();
+                assertRanges(d.name() + " ronda " + i, r, w.length());
+                r.resupplyStores();
+            }
+            assertCollected(d.name(), SilkRoad.headless(w::run), r, w.length());
+        }
+    }
+
+    @Test
+    public void randomOperationsMatchBruteForce() {
+        for(long seed = 1; seed <= 20; seed++) {
+            Random rnd = new Random(seed);
+            List<int[]> log = new ArrayList<>();
+            SilkRoad r = SilkRoad.headless(() -> new SilkRoad(60));
+            r.robotsBetween(0, 0);
+            for(int i=0;i<300;i++) {
+                int[] op = {rnd.nextInt(8), rnd.nextInt(60), rnd.nextInt(21) - 10};
+                if(op[0] == 4) {
+                    int[][] robots = r.robots();
+                    if(robots.length > 0) op[1] = robots[rnd.nextInt(robots.length)][0];
+                }
+                apply(r, op);
+                log.add(op);
+                assertRanges("semilla " + seed + " paso " + i, r, 60);
+            }
+            // el recogido no se ve desde afuera: se compara con el árbol que arma una carretera
+            // que hace lo mismo pero solo consulta al final
+            SilkRoad replay = SilkRoad.headless(() -> new SilkRoad(60));
+            for(int[] op : log) apply(replay, op);
+            assertCollected("semilla " + seed, replay, r, 60);
+        }
+    }
+
+    private static void apply(SilkRoad r, int[] op) {
+        switch(op[0]) {
+            case 0: case 1: r.placeStore(op[1], 5 + op[2]); break;
+            case 2: r.removeStore(op[1]); break;
+            case 3: r.placeRobot(op[1]); break;
+            case 4: r.moveRobot(op[1], op[2]); break;
+            case 5: r.moveRobots(); break;
+            case 6: r.resupplyStores(); break;
+            default: r.removeRobot(op[1]);
+        }
+    }
+
+    private static void assertRanges(String what, SilkRoad road, int length) {
+        int[][] stores = road.stores();
+        int[][] robots = road.robots();
+        int step = Math.max(1, length / 12);
+        for(int from = -5; from < length + 5; from += step) {
+            for(int to = from - 1; to < length + 5; to += step + 3) {
+                long tenges = 0;
+                int count = 0;
+                for(int[] s : stores) if(s[0] >= from && s[0] <= to) tenges += s[1];
+                for(int[] b : robots) if(b[0] >= from && b[0] <= to) count++;
+                assertEquals(what + ": tenges [" + from + ", " + to + "]", tenges, road.tengesBetween(from, to));
+                assertEquals(what + ": robots [" + from + ", " + to + "]", count, road.robotsBetween(from, to));
+            }
+        }
+    }
+
+    private static void assertCollected(String what, SilkRoad fresh, SilkRoad incremental, int length) {
+        int step = Math.max(1, length / 12);
+        for(int from = -5; from < length + 5; from += step) {
+            for(int to = from - 1; to < length + 5; to += step + 3) {
+                assertEquals(what + ": recogido [" + from + ", " + to + "]",
+                    fresh.collectedBetween(from, to), incremental.collectedBetween(from, to));
+            }
+        }
+    }
+}
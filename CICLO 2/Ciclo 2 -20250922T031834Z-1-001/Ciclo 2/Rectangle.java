@@ -13,6 +13,7 @@ public class Rectangle{
 
     public static int EDGES = 4;
     
+    // guarded by this; AnimationTimeline runs our animation frames holding the same monitor
     private int height;
     private int width;
     private int xPosition;
@@ -37,14 +38,16 @@ public class Rectangle{
      * Make this rectangle visible. If it was already visible, do nothing.
      */
     public void makeVisible(){
-        isVisible = true;
+        synchronized(this){
+            isVisible = true;
+        }
         draw();
     }
     
     /**
      * Make this rectangle invisible. If it was already invisible, do nothing.
      */
-    public void makeInvisible(){
+    public synchronized void makeInvisible(){
         erase();
         isVisible = false;
     }
@@ -82,8 +85,11 @@ public class Rectangle{
      * @param distance the desired distance in pixels
      */
     public void moveHorizontal(int distance){
-        erase();
-        xPosition += distance;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            erase();
+            xPosition += distance;
+        }
         draw();
     }
 
@@ -92,49 +98,48 @@ public class Rectangle{
      * @param distance the desired distance in pixels
      */
     public void moveVertical(int distance){
-        erase();
-        yPosition += distance;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            erase();
+            yPosition += distance;
+        }
         draw();
     }
 
     /**
-     * Slowly move the rectangle horizontally.
-     * @param distance the desired distance in pixels
+     * Move the rectangle to an absolute position, redrawing once.
+     * @param x the new horizontal position in pixels
+     * @param y the new vertical position in pixels
      */
-    public void slowMoveHorizontal(int distance){
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-
-        for(int i = 0; i < distance; i++){
-            xPosition += delta;
-            draw();
+    public void moveTo(int x, int y){
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            xPosition = x;
+            yPosition = y;
         }
+        draw();
     }
 
     /**
-     * Slowly move the rectangle vertically.
+     * Slowly move the rectangle horizontally, one pixel every 10 milliseconds.
+     * The move is played by the AnimationTimeline; this call returns immediately.
      * @param distance the desired distance in pixels
      */
-    public void slowMoveVertical(int distance){
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
+    public synchronized void slowMoveHorizontal(int distance){
+        AnimationTimeline.finish(this);
+        AnimationTimeline.getTimeline().tween(this, xPosition, xPosition + distance,
+            10L * Math.abs(distance), x -> { xPosition = x; paint(); });
+    }
 
-        for(int i = 0; i < distance; i++){
-            yPosition += delta;
-            draw();
-        }
+    /**
+     * Slowly move the rectangle vertically, one pixel every 10 milliseconds.
+     * The move is played by the AnimationTimeline; this call returns immediately.
+     * @param distance the desired distance in pixels
+     */
+    public synchronized void slowMoveVertical(int distance){
+        AnimationTimeline.finish(this);
+        AnimationTimeline.getTimeline().tween(this, yPosition, yPosition + distance,
+            10L * Math.abs(distance), y -> { yPosition = y; paint(); });
     }
 
     /**
@@ -143,11 +148,30 @@ public class Rectangle{
      * @param newWidht the new width in pixels. newWidth must be >=0.
      */
     public void changeSize(int newHeight, int newWidth) {
-        erase();
-        height = newHeight;
-        width = newWidth;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            height = newHeight;
+            width = newWidth;
+        }
         draw();
     }
+
+    /**
+     * Slowly change the size, played by the AnimationTimeline; this call returns immediately.
+     * @param newHeight the new height in pixels. newHeight must be >=0.
+     * @param newWidth the new width in pixels. newWidth must be >=0.
+     * @param milliseconds how long the change takes
+     */
+    public synchronized void slowChangeSize(int newHeight, int newWidth, int milliseconds) {
+        AnimationTimeline.finish(this);
+        int height0 = height;
+        int width0 = width;
+        AnimationTimeline.getTimeline().animate(this, milliseconds, t -> {
+            height = height0 + (int)Math.round((newHeight - height0) * t);
+            width = width0 + (int)Math.round((newWidth - width0) * t);
+            paint();
+        });
+    }
     
     /**
      * Change the color. 
@@ -155,7 +179,9 @@ public class Rectangle{
      * "magenta" and "black".
      */
     public void changeColor(String newColor){
-        color = newColor;
+        synchronized(this){
+            color = newColor;
+        }
         draw();
     }
 
@@ -163,13 +189,26 @@ public class Rectangle{
      * Draw the rectangle with current specifications on screen.
      */
 
-    private void draw() {
+    private void draw(){
+        boolean shown;
+        synchronized(this){
+            paint();
+            shown = isVisible;
+        }
+        if(shown) {
+            Canvas.getCanvas().wait(10);  // the pause happens outside the monitor
+        }
+    }
+
+    /*
+     * Draw the rectangle without pausing (used by animation frames).
+     */
+    private void paint(){
         if(isVisible) {
             Canvas canvas = Canvas.getCanvas();
             canvas.draw(this, color,
                 new java.awt.Rectangle(xPosition, yPosition, 
                                        width, height));
-            canvas.wait(10);
         }
     }
 
@@ -0,0 +1,205 @@
+import java.awt.geom.Ellipse2D;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+/**
+ * Clase RenderLoop: dibujo separado de la simulación.
+ * La simulación corre sin interfaz gráfica y publica fotografías (SilkRoadSnapshot); un reloj
+ * encola un cuadro por tic en el hilo de eventos de Swing, que toma la más reciente y la dibuja
+ * en el Canvas en un solo redibujo. Si el hilo de eventos va atrasado los tics no se acumulan:
+ * hay a lo sumo un cuadro encolado. Las versiones publicadas entre dos cuadros nunca se dibujan,
+ * así que la simulación avanza a su propia velocidad y se puede mirar en vivo a la frecuencia de
+ * la pantalla. Un cuadro que falla se cuenta (framesFailed, lastFailure) y el reloj sigue.
+ * Cada tienda y cada robot se dibujan con su propio color cuando la fotografía lo trae.
+ *
+ * Hay dos formas de alimentarlo:
+ *   - con una fuente que se consulta en cada cuadro, por ejemplo new RenderLoop(loop::snapshot, 60)
+ *     para un SilkRoadLoop;
+ *   - con publish(...) desde el hilo de la simulación; needsSnapshot() dice si la última
+ *     fotografía ya se dibujó, para no fotografiar la simulación más seguido que los cuadros.
+ *
+ * @param source fuente de la fotografía más reciente (puede ser null si se usa publish).
+ * @param framesPerSecond cuadros por segundo.
+ */
+public class RenderLoop {
+    private static final String[] COLORS = {"red","blue","green","yellow","magenta","black"};
+
+    private final Supplier<SilkRoadSnapshot> source;
+    private final long frameNanos;
+    private final List<Object> storeKeys = new ArrayList<>();  // identidad de cada rectángulo en el Canvas
+    private final List<Object> robotKeys = new ArrayList<>();  // identidad de cada círculo en el Canvas
+    private volatile SilkRoadSnapshot latest;  // última publicada con publish()
+    private volatile SilkRoadSnapshot drawn;   // última dibujada
+    private final AtomicBoolean queued = new AtomicBoolean();   // hay un cuadro encolado en Swing
+    private volatile long frames;
+    private volatile long dropped;
+    private volatile long failed;
+    private volatile RuntimeException lastFailure;
+    private ScheduledExecutorService clock;
+
+    /**
+     * Constructor para alimentar el dibujo con publish().
+     */
+    public RenderLoop(int framesPerSecond) {
+        this(null, framesPerSecond);
+    }
+
+    /**
+     * Constructor con una fuente que se consulta en cada cuadro.
+     */
+    public RenderLoop(Supplier<SilkRoadSnapshot> source, int framesPerSecond) {
+        if(framesPerSecond <= 0) throw new IllegalArgumentException("framesPerSecond debe ser positivo");
+        this.source = source;
+        this.frameNanos = 1000000000L / framesPerSecond;
+    }
+
+    /**
+     * Publica una fotografía; reemplaza a la anterior si todavía no se dibujó.
+     * @param snapshot fotografía a dibujar en el próximo cuadro.
+     */
+    public void publish(SilkRoadSnapshot snapshot) {
+        latest = snapshot;
+    }
+
+    /**
+     * Indica si la última fotografía publicada ya se dibujó. La simulación puede consultarlo
+     * para tomar una fotografía nueva solo cuando el hilo de dibujo la va a usar.
+     * @return true si conviene publicar.
+     */
+    public boolean needsSnapshot() {
+        return latest == drawn;
+    }
+
+    /**
+     * Arranca el reloj de dibujo (no hace nada si ya está corriendo).
+     */
+    public synchronized void start() {
+        if(clock != null) return;
+        clock = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "silkroad-render");
+            t.setDaemon(true);
+            return t;
+        });
+        clock.scheduleAtFixedRate(this::requestFrame, 0, frameNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Detiene el reloj de dibujo; un cuadro ya encolado todavía se dibuja.
+     */
+    public synchronized void stop() {
+        if(clock == null) return;
+        clock.shutdown();
+        try {
+            clock.awaitTermination(1, TimeUnit.SECONDS);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        clock = null;
+    }
+
+    /**
+     * Devuelve la cantidad de cuadros dibujados.
+     * @return cuadros dibujados.
+     */
+    public long framesDrawn() { return frames; }
+
+    /**
+     * Devuelve la cantidad de versiones que se publicaron pero nunca se dibujaron.
+     * @return versiones descartadas.
+     */
+    public long framesDropped() { return dropped; }
+
+    /**
+     * Devuelve la cantidad de cuadros que lanzaron una excepción.
+     * @return cuadros fallidos.
+     */
+    public long framesFailed() { return failed; }
+
+    /**
+     * Devuelve la excepción del último cuadro fallido.
+     * @return última falla, o null si ningún cuadro falló.
+     */
+    public RuntimeException lastFailure() { return lastFailure; }
+
+    /**
+     * Encola un cuadro en el hilo de eventos de Swing, salvo que ya haya uno esperando.
+     */
+    private void requestFrame() {
+        if(queued.compareAndSet(false, true)) SwingUtilities.invokeLater(this::runFrame);
+    }
+
+    /**
+     * Dibuja el cuadro encolado; una excepción se registra y no detiene los cuadros siguientes.
+     */
+    private void runFrame() {
+        queued.set(false);
+        try {
+            frame();
+        } catch(RuntimeException e) {
+            if(failed++ == 0) System.err.println("RenderLoop: falló un cuadro: " + e);
+            lastFailure = e;
+        }
+    }
+
+    /**
+     * Dibuja un cuadro con la fotografía más reciente, si cambió desde el anterior.
+     * El reloj lo llama en el hilo de eventos de Swing; para dibujar a mano conviene hacer lo mismo.
+     */
+    public void frame() {
+        SilkRoadSnapshot s = source != null ? source.get() : latest;
+        SilkRoadSnapshot previous = drawn;
+        if(s == null || s == previous) return;
+        if(previous != null && s.version() > previous.version() + 1) {
+            dropped += s.version() - previous.version() - 1;
+        }
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginBatch();
+        try {
+            int length = s.length();
+            int[] count = {0};
+            s.forEachStore((location, tenges) -> {
+                int packed = SilkRoad.coordsFor(location, length);
+                java.awt.Rectangle box = tenges == 0
+                    ? new java.awt.Rectangle((packed>>16)&0xffff, packed&0xffff, 28, 18)
+                    : new java.awt.Rectangle((packed>>16)&0xffff, packed&0xffff, 44, 30);
+                canvas.draw(key(storeKeys, count[0]), color(s.storeColor(count[0]++), location), box);
+            });
+            trim(canvas, storeKeys, count[0]);
+            count[0] = 0;
+            s.forEachRobot((location, unused) -> {
+                int packed = SilkRoad.coordsFor(location, length);
+                canvas.draw(key(robotKeys, count[0]), color(s.robotColor(count[0]++), location),
+                    new Ellipse2D.Double((packed>>16)&0xffff, packed&0xffff, 20, 20));
+            });
+            trim(canvas, robotKeys, count[0]);
+        } finally {
+            canvas.endBatch();
+        }
+        drawn = s;
+        frames++;
+    }
+
+    // ----------------- internos -----------------
+
+    private static Object key(List<Object> keys, int i) {
+        if(i == keys.size()) keys.add(new Object());
+        return keys.get(i);
+    }
+
+    /**
+     * Borra del Canvas las figuras que sobran respecto al cuadro anterior.
+     */
+    private static void trim(Canvas canvas, List<Object> keys, int used) {
+        for(int i = keys.size() - 1; i >= used; i--) canvas.erase(keys.remove(i));
+    }
+
+    /**
+     * @return el color guardado en la fotografía, o uno según la ubicación si no lo trae.
+     */
+    private static String color(String color, int location) {
+        return color != null ? color : COLORS[Math.floorMod(location, COLORS.length)];
+    }
+}
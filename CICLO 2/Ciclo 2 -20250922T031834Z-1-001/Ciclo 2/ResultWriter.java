@@ -0,0 +1,196 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Clase ResultWriter: escribe los resultados de stores(), robots() y profitPerMove() directamente
+ * en un ByteBuffer o en un canal, sin construir los int[][] intermedios.
+ * Cada fila es un par {ubicación, valor} en orden de ubicación, igual que en los métodos de SilkRoad.
+ *
+ * Formatos:
+ *   BINARY  dos int por fila, en el orden de bytes del buffer.
+ *   TEXT    "ubicación valor\n" en decimal ASCII.
+ * Escribiendo en un ByteBuffer, si no cabe se lanza BufferOverflowException (para BINARY se
+ * necesitan 8 bytes por fila). Escribiendo en un canal, el buffer se vacía en el canal cada vez
+ * que se llena, así que su tamaño solo afecta la cantidad de llamadas al canal.
+ * Para un IntBuffer están los métodos estáticos stores/robots/profitPerMove(road, IntBuffer).
+ *
+ * @param buffer destino de los bytes (o buffer intermedio, si hay canal).
+ * @param channel canal de salida (puede ser null).
+ * @param format formato de las filas.
+ */
+public class ResultWriter {
+    private static final int MAX_ROW = 24; // "-2147483648 -2147483648\n"
+
+    /**
+     * Formatos de salida.
+     */
+    public enum Format { BINARY, TEXT }
+
+    /**
+     * Receptor de filas {ubicación, valor}.
+     */
+    interface Row {
+        void accept(int location, int value);
+    }
+
+    private final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+    private final Row sink;        // escribe una fila en el formato elegido
+    private IOException failure;   // primer error del canal durante un recorrido
+
+    /**
+     * Constructor para escribir directamente en un ByteBuffer.
+     */
+    public ResultWriter(ByteBuffer buffer, Format format) {
+        this(buffer, null, format);
+    }
+
+    /**
+     * Constructor para escribir en un canal usando `buffer` como intermedio.
+     */
+    public ResultWriter(ByteBuffer buffer, WritableByteChannel channel, Format format) {
+        if(channel != null && buffer.capacity() < MAX_ROW) {
+            throw new IllegalArgumentException("el buffer debe tener al menos " + MAX_ROW + " bytes");
+        }
+        this.buffer = buffer;
+        this.channel = channel;
+        this.sink = format == Format.BINARY ? this::binaryRow : this::textRow;
+    }
+
+    /**
+     * Escribe las tiendas como {ubicación, tenges}.
+     * @param road simulación.
+     * @return filas escritas.
+     * @throws IOException si falla el canal.
+     */
+    public int stores(SilkRoad road) throws IOException {
+        road.forEachStore(sink);
+        check();
+        return road.storeCount();
+    }
+
+    /**
+     * Escribe los robots como {ubicación, 0}.
+     * @param road simulación.
+     * @return filas escritas.
+     * @throws IOException si falla el canal.
+     */
+    public int robots(SilkRoad road) throws IOException {
+        road.forEachRobot(sink, 0);
+        check();
+        return road.robotCount();
+    }
+
+    /**
+     * Escribe las ganancias por movimiento como {ubicación, ganancia}.
+     * @param road simulación.
+     * @return filas escritas.
+     * @throws IOException si falla el canal.
+     */
+    public int profitPerMove(SilkRoad road) throws IOException {
+        road.forEachRobot(sink, road.currentProfit());
+        check();
+        return road.robotCount();
+    }
+
+    /**
+     * Vacía en el canal lo que quede en el buffer (no hace nada si no hay canal).
+     * @throws IOException si falla el canal.
+     */
+    public void flush() throws IOException {
+        if(channel == null) return;
+        buffer.flip();
+        while(buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // ----------------- IntBuffer -----------------
+
+    /**
+     * Escribe las tiendas como pares de int en un IntBuffer.
+     * @param road simulación.
+     * @param out destino (2 int por tienda).
+     * @return filas escritas.
+     */
+    public static int stores(SilkRoad road, IntBuffer out) {
+        road.forEachStore((location, value) -> out.put(location).put(value));
+        return road.storeCount();
+    }
+
+    /**
+     * Escribe los robots como pares {ubicación, 0} en un IntBuffer.
+     * @param road simulación.
+     * @param out destino (2 int por robot).
+     * @return filas escritas.
+     */
+    public static int robots(SilkRoad road, IntBuffer out) {
+        road.forEachRobot((location, value) -> out.put(location).put(value), 0);
+        return road.robotCount();
+    }
+
+    /**
+     * Escribe las ganancias por movimiento como pares {ubicación, ganancia} en un IntBuffer.
+     * @param road simulación.
+     * @param out destino (2 int por robot).
+     * @return filas escritas.
+     */
+    public static int profitPerMove(SilkRoad road, IntBuffer out) {
+        road.forEachRobot((location, value) -> out.put(location).put(value), road.currentProfit());
+        return road.robotCount();
+    }
+
+    // ----------------- filas -----------------
+
+    private void binaryRow(int location, int value) {
+        if(!room()) return;
+        buffer.putInt(location).putInt(value);
+    }
+
+    private void textRow(int location, int value) {
+        if(!room()) return;
+        putDecimal(location);
+        buffer.put((byte)' ');
+        putDecimal(value);
+        buffer.put((byte)'\n');
+    }
+
+    /**
+     * Escribe un entero en decimal, de derecha a izquierda, sin crear String.
+     */
+    private void putDecimal(int v) {
+        long x = v;
+        if(x < 0) { buffer.put((byte)'-'); x = -x; }
+        int digits = 1;
+        for(long p = 10; p <= x; p *= 10) digits++;
+        int end = buffer.position() + digits;
+        if(end > buffer.limit()) throw new BufferOverflowException();
+        for(int i = end - 1; i >= buffer.position(); i--) {
+            buffer.put(i, (byte)('0' + x % 10));
+            x /= 10;
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Con canal, vacía el buffer si la próxima fila podría no caber.
+     * @return false si el canal ya falló en este recorrido (las filas restantes se descartan).
+     */
+    private boolean room() {
+        if(failure != null) return false;
+        if(channel == null || buffer.remaining() >= MAX_ROW) return true;
+        try {
+            flush();
+            return true;
+        } catch(IOException e) {
+            failure = e;
+            return false;
+        }
+    }
+
+    private void check() throws IOException {
+        IOException e = failure;
+        failure = null;
+        if(e != null) throw e;
+    }
+}
@@ -2,6 +2,9 @@
  * Clase Robot: encapsula la representación y estado de un robot dentro de la simulación.
  * Cada robot tiene una ubicación inicial, una ubicación actual, un color y un círculo como representación visual.
  * También puede moverse, volver a su posición inicial y hacerse visible o invisible en el lienzo.
+ * El círculo solo existe mientras el robot está visible: se arma en makeVisible con el color y la
+ * última posición guardada y se suelta en makeInvisible, así que los robots de una simulación que
+ * nunca se muestra no guardan figuras.
  *
  * @param location ubicación inicial lógica del robot.
  * @param color color del robot (para la visualización).
@@ -10,23 +13,38 @@
 public class Robot {
     private int initialLocation;   // ubicación inicial del robot
     private int location;          // ubicación actual del robot
-    private Circle shape;          // representación visual del robot
+    private Circle shape;          // representación visual del robot (null mientras está oculto)
     private String color;          // color del robot
+    private int x = 20, y = 15;    // posición en el lienzo (en píxeles)
     private boolean visible;       // estado de visibilidad
     private int arrivalOrder;      // orden de llegada (para desempates)
+    private int profit;            // ganancia acumulada por este robot
+    private Epoch home;            // época de regreso a la ubicación inicial (null si no se comparte)
+    private Epoch ledger;          // época de puesta en cero de la ganancia (null si no se comparte)
+    private int seenHome;          // última época de regreso aplicada
+    private int seenLedger;        // última época de puesta en cero aplicada
 
     /**
      * Constructor del robot.
      */
     public Robot(int location, String color, int arrivalOrder) {
+        this(location, color, arrivalOrder, null, null);
+    }
+
+    /**
+     * Constructor de un robot que vuelve solo a su ubicación inicial cuando avanza la época `home`
+     * y pone su ganancia en cero cuando avanza la época `ledger`.
+     *
+     * @param home época de regreso de la carretera (puede ser null).
+     * @param ledger época de reinicio de la carretera (puede ser null).
+     */
+    public Robot(int location, String color, int arrivalOrder, Epoch home, Epoch ledger) {
+        bind(home, ledger);
         this.initialLocation = location;
         this.location = location;
         this.color = color;
-        this.shape = new Circle();
         this.visible = false;
         this.arrivalOrder = arrivalOrder;
-        shape.changeColor(color);
-        shape.changeSize(20);
     }
 
     /**
@@ -39,7 +57,16 @@ public class Robot {
      * Devuelve la ubicación actual del robot.
      * @return ubicación actual.
      */
-    public int location() { return location; }
+    public int location() {
+        refresh();
+        return location;
+    }
+
+    /**
+     * Devuelve el color del robot.
+     * @return color del robot.
+     */
+    public String color() { return color; }
 
     /**
      * Devuelve el orden de llegada del robot (para desempates).
@@ -48,39 +75,94 @@ public class Robot {
     public int arrivalOrder() { return arrivalOrder; }
 
     /**
-     * Establece la posición visual del robot en el lienzo.
+     * Devuelve la ganancia acumulada por este robot (tenges recogidos menos metros recorridos).
+     * @return ganancia del robot.
+     */
+    public int profit() {
+        refresh();
+        return profit;
+    }
+
+    /**
+     * Suma (o resta) una cantidad a la ganancia acumulada del robot.
+     * @param amount cantidad a sumar.
+     */
+    public void addProfit(int amount) {
+        refresh();
+        profit += amount;
+    }
+
+    /**
+     * Pone en cero la ganancia acumulada del robot.
+     */
+    public void resetProfit() {
+        refresh();
+        profit = 0;
+    }
+
+    /**
+     * Cambia la ubicación lógica del robot sin moverlo en el lienzo.
+     *
+     * @param location nueva ubicación lógica.
+     */
+    public void setLocation(int location) {
+        refresh();
+        this.location = location;
+    }
+
+    /**
+     * Cambia las épocas a las que responde el robot (al pasar a otra carretera).
+     * Los reinicios pendientes de las épocas anteriores se aplican antes del cambio.
+     *
+     * @param home nueva época de regreso (puede ser null).
+     * @param ledger nueva época de reinicio (puede ser null).
+     */
+    void bind(Epoch home, Epoch ledger) {
+        refresh();
+        this.home = home;
+        this.ledger = ledger;
+        this.seenHome = home == null ? 0 : home.current();
+        this.seenLedger = ledger == null ? 0 : ledger.current();
+    }
+
+    /**
+     * Establece la posición visual del robot en el lienzo (posición absoluta, un solo redibujo).
+     * No cambia la visibilidad: si el robot está oculto solo se guarda la posición.
+     * Se mueve con el monitor del robot tomado, así un parpadeo o un makeInvisible de otro hilo
+     * no pueden soltar la figura mientras se dibuja en la nueva posición.
      *
      * @param x coordenada X en píxeles.
      * @param y coordenada Y en píxeles.
      */
-    public void setPosition(int x, int y) {
-        shape.makeVisible();
-        int dx = x - 20; // desplazamiento horizontal desde posición por defecto
-        int dy = y - 15; // desplazamiento vertical desde posición por defecto
-        shape.moveHorizontal(dx);
-        shape.moveVertical(dy);
+    public synchronized void setPosition(int x, int y) {
+        this.x = x;
+        this.y = y;
+        if(shape != null) shape.moveTo(x, y);
     }
 
     /**
      * Mueve el robot una cierta cantidad de metros en la simulación.
-     * La distancia en metros se convierte en píxeles usando el factor pixelScale.
+     * Si está visible, se dibuja en la posición que coordMapper da a su nueva ubicación.
      *
      * @param meters distancia en metros a mover.
-     * @param pixelScale número de píxeles equivalentes a un metro.
+     * @param coordMapper función que convierte la ubicación lógica en coordenadas de píxeles.
      */
-    public void moveByMeters(int meters, int pixelScale) {
-        int px = meters * pixelScale;
-        shape.moveHorizontal(px); // movimiento visual
+    public void moveByMeters(int meters, java.util.function.IntUnaryOperator coordMapper) {
+        refresh();
         this.location += meters;  // actualización lógica de la ubicación
+        if(visible) {
+            int coords = coordMapper.applyAsInt(location); // empaqueta X y Y
+            setPosition((coords >> 16) & 0xffff, coords & 0xffff);
+        }
     }
 
     /**
      * Regresa el robot a su ubicación inicial tanto lógica como visualmente.
      *
-     * @param pixelScale escala de conversión de metros a píxeles.
      * @param coordMapper función que convierte la ubicación lógica en coordenadas de píxeles.
      */
-    public void returnToInitial(int pixelScale, java.util.function.IntUnaryOperator coordMapper) {
+    public void returnToInitial(java.util.function.IntUnaryOperator coordMapper) {
+        refresh();
         this.location = initialLocation;
         int coords = coordMapper.applyAsInt(initialLocation); // empaqueta X y Y
         int x = (coords >> 16) & 0xffff;
@@ -88,12 +170,31 @@ public class Robot {
         setPosition(x, y);
     }
 
+    /**
+     * Aplica un regreso o reinicio pendiente si alguna época avanzó desde la última consulta.
+     * Solo cambia el estado lógico; la SilkRoad reubica en pantalla los robots visibles.
+     */
+    private void refresh() {
+        if(home != null && seenHome != home.current()) {
+            seenHome = home.current();
+            location = initialLocation;
+        }
+        if(ledger != null && seenLedger != ledger.current()) {
+            seenLedger = ledger.current();
+            profit = 0;
+        }
+    }
+
     /**
      * Hace visible al robot en el lienzo.
      */
-    public void makeVisible() {
+    public synchronized void makeVisible() {
         if(!visible) {
             visible = true;
+            shape = new Circle();
+            shape.changeColor(color);
+            shape.changeSize(20);
+            shape.moveTo(x, y);
             shape.makeVisible();
         }
     }
@@ -101,10 +202,28 @@ public class Robot {
     /**
      * Hace invisible al robot en el lienzo.
      */
-    public void makeInvisible() {
+    public synchronized void makeInvisible() {
         if(visible) {
             visible = false;
             shape.makeInvisible();
+            shape = null;
         }
     }
+
+    /**
+     * Hace parpadear al robot sin bloquear: la AnimationTimeline lo oculta y lo muestra
+     * en los cuadros siguientes y esta llamada vuelve de inmediato.
+     * Solo se oculta la figura; si el robot se hace invisible durante el parpadeo, queda invisible.
+     *
+     * @param times cantidad de parpadeos.
+     * @param periodMillis milisegundos oculto y luego visible en cada parpadeo.
+     */
+    public void blink(int times, int periodMillis) {
+        // cada cuadro corre con el monitor del robot (el dueño de la animación) tomado
+        AnimationTimeline.getTimeline().blink(this, times, periodMillis, show -> {
+            if(!visible) return;
+            if(show) shape.makeVisible();
+            else shape.makeInvisible();
+        });
+    }
 }
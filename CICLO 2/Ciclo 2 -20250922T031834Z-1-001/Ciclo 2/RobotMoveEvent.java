@@ -0,0 +1,25 @@
+import jdk.jfr.*;
+
+/**
+ * Clase RobotMoveEvent: evento de JDK Flight Recorder emitido por cada SilkRoad.moveRobot exitoso.
+ * Su duración es la del movimiento completo (lógica y dibujo). Sin grabación activa no cuesta nada.
+ */
+@Name("silkroad.RobotMove")
+@Label("Robot Move")
+@Category({"SilkRoad", "Simulation"})
+@Description("Un robot movido por SilkRoad.moveRobot")
+public class RobotMoveEvent extends Event {
+    @Label("Robot")
+    @Description("Orden de llegada del robot")
+    public int robot;
+
+    @Label("From")
+    public int from;
+
+    @Label("To")
+    public int to;
+
+    @Label("Collected")
+    @Description("Tenges recogidos al llegar")
+    public int collected;
+}
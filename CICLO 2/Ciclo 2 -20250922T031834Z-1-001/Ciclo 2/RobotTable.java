@@ -0,0 +1,386 @@
+import java.util.Arrays;
+
+/**
+ * Clase RobotTable: robots sin interfaz gráfica guardados como arreglos paralelos de primitivos.
+ * En lugar de un objeto Robot por robot (con su Circle, su color en texto y sus referencias en las
+ * listas de la SilkRoad), cada dato vive en su propio arreglo: ubicación inicial, ubicación actual,
+ * orden de llegada, ganancia acumulada e índice de color. Un robot ocupa unos 29 bytes en los
+ * arreglos, más hasta 16 del índice de ubicaciones, y los recorridos (como el de moveRobots) leen
+ * memoria contigua.
+ *
+ * Los robots se guardan densos y en orden de inserción (las posiciones 0..size()-1). Cada robot
+ * tiene además un id entero estable que no cambia aunque se eliminen otros; los ids liberados se
+ * reutilizan. Un índice de ubicaciones (tabla hash de primitivos, con sondeo lineal) guarda, por
+ * ubicación ocupada, el primer robot de una cadena ordenada por orden de llegada, así que firstAt
+ * es O(1) y mover un robot solo reengancha su cadena. SegmentedSilkRoad planea sus moveRobots
+ * sobre una RobotTable.
+ *
+ * @param capacity cantidad de robots para la que se reserva espacio (crece sola).
+ */
+public class RobotTable {
+    private int[] initialLocation;
+    private int[] location;
+    private int[] arrivalOrder;
+    private int[] profit;
+    private byte[] colorIndex;
+    private int[] idAt;        // id del robot en cada posición
+    private int[] slotOf;      // posición de cada id (-1 si el id está libre)
+    private int[] freeIds;     // ids liberados, como pila
+    private int[] nextAt;      // por id: siguiente robot en la misma ubicación (-1 al final)
+    private int[] indexKey = new int[32];   // índice de ubicaciones: ubicación de cada casilla
+    private int[] indexHead = new int[32];  // primer id de la cadena de esa ubicación (-1 = casilla libre)
+    private int indexSize;
+    private int freeCount;
+    private int size;
+    private int nextId;
+
+    /**
+     * Constructor de la tabla vacía.
+     */
+    public RobotTable(int capacity) {
+        int c = Math.max(16, capacity);
+        initialLocation = new int[c];
+        location = new int[c];
+        arrivalOrder = new int[c];
+        profit = new int[c];
+        colorIndex = new byte[c];
+        idAt = new int[c];
+        slotOf = new int[c];
+        freeIds = new int[c];
+        nextAt = new int[c];
+        Arrays.fill(indexHead, -1);
+    }
+
+    /**
+     * Constructor de la tabla vacía con la capacidad por defecto.
+     */
+    public RobotTable() {
+        this(16);
+    }
+
+    /**
+     * Agrega un robot al final de la tabla.
+     * @param location ubicación inicial (y actual) del robot.
+     * @param arrivalOrder orden de llegada (para desempates).
+     * @param colorIndex índice de color (0..127).
+     * @return id estable del robot.
+     * @throws IllegalArgumentException si colorIndex está fuera de 0..127.
+     */
+    public int add(int location, int arrivalOrder, int colorIndex) {
+        if(colorIndex < 0 || colorIndex > Byte.MAX_VALUE) throw new IllegalArgumentException("colorIndex debe estar entre 0 y 127");
+        if(size == idAt.length) grow();
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        int slot = size++;
+        initialLocation[slot] = location;
+        this.location[slot] = location;
+        this.arrivalOrder[slot] = arrivalOrder;
+        profit[slot] = 0;
+        this.colorIndex[slot] = (byte)colorIndex;
+        idAt[slot] = id;
+        slotOf[id] = slot;
+        link(id, location);
+        return id;
+    }
+
+    /**
+     * Elimina un robot; los que estaban después se corren una posición y conservan su id.
+     * @param id id del robot.
+     * @return true si el robot existía.
+     */
+    public boolean remove(int id) {
+        if(!contains(id)) return false;
+        int slot = slotOf[id];
+        unlink(id, location[slot]);
+        int tail = size - slot - 1;
+        System.arraycopy(initialLocation, slot + 1, initialLocation, slot, tail);
+        System.arraycopy(location, slot + 1, location, slot, tail);
+        System.arraycopy(arrivalOrder, slot + 1, arrivalOrder, slot, tail);
+        System.arraycopy(profit, slot + 1, profit, slot, tail);
+        System.arraycopy(colorIndex, slot + 1, colorIndex, slot, tail);
+        System.arraycopy(idAt, slot + 1, idAt, slot, tail);
+        size--;
+        for(int i = slot; i < size; i++) slotOf[idAt[i]] = i;
+        slotOf[id] = -1;
+        freeIds[freeCount++] = id;
+        return true;
+    }
+
+    /**
+     * Indica si un id corresponde a un robot de la tabla.
+     * @param id id a consultar.
+     * @return true si el robot existe.
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < nextId && slotOf[id] >= 0;
+    }
+
+    /**
+     * Devuelve la cantidad de robots.
+     * @return cantidad de robots.
+     */
+    public int size() { return size; }
+
+    /**
+     * Devuelve el id del robot en una posición (orden de inserción).
+     * @param slot posición (0..size()-1).
+     * @return id del robot.
+     */
+    public int idAt(int slot) { return idAt[slot]; }
+
+    /**
+     * Devuelve la ubicación inicial de un robot.
+     * @param id id del robot.
+     * @return ubicación inicial.
+     */
+    public int initialLocation(int id) { return initialLocation[slotOf[id]]; }
+
+    /**
+     * Devuelve la ubicación actual de un robot.
+     * @param id id del robot.
+     * @return ubicación actual.
+     */
+    public int location(int id) { return location[slotOf[id]]; }
+
+    /**
+     * Devuelve el orden de llegada de un robot.
+     * @param id id del robot.
+     * @return orden de llegada.
+     */
+    public int arrivalOrder(int id) { return arrivalOrder[slotOf[id]]; }
+
+    /**
+     * Devuelve la ganancia acumulada de un robot.
+     * @param id id del robot.
+     * @return ganancia del robot.
+     */
+    public int profit(int id) { return profit[slotOf[id]]; }
+
+    /**
+     * Devuelve el índice de color de un robot.
+     * @param id id del robot.
+     * @return índice de color.
+     */
+    public int colorIndex(int id) { return colorIndex[slotOf[id]]; }
+
+    /**
+     * Cambia la ubicación actual de un robot.
+     * @param id id del robot.
+     * @param location nueva ubicación.
+     */
+    public void setLocation(int id, int location) {
+        int slot = slotOf[id];
+        unlink(id, this.location[slot]);
+        this.location[slot] = location;
+        link(id, location);
+    }
+
+    /**
+     * Suma (o resta) una cantidad a la ganancia de un robot.
+     * @param id id del robot.
+     * @param amount cantidad a sumar.
+     */
+    public void addProfit(int id, int amount) {
+        profit[slotOf[id]] += amount;
+    }
+
+    /**
+     * Devuelve el robot que está en una ubicación; si hay varios, el de menor orden de llegada
+     * (el mismo criterio que usa la SilkRoad para elegir qué robot mover). O(1) con el índice.
+     * @param location ubicación a consultar.
+     * @return id del robot, o -1 si no hay ninguno.
+     */
+    public int firstAt(int location) {
+        return indexHead[indexSlot(location)];
+    }
+
+    /**
+     * Devuelve todos los robots a su ubicación inicial (y rehace el índice de ubicaciones).
+     */
+    public void returnAll() {
+        System.arraycopy(initialLocation, 0, location, 0, size);
+        Arrays.fill(indexHead, -1);
+        indexSize = 0;
+        for(int i=0;i<size;i++) link(idAt[i], location[i]);
+    }
+
+    /**
+     * Pone en cero la ganancia de todos los robots.
+     */
+    public void resetProfits() {
+        Arrays.fill(profit, 0, size, 0);
+    }
+
+    /**
+     * Mueve los robots como SilkRoad.moveRobots, pero sobre los arreglos: en orden de inserción,
+     * cada robot busca la tienda con mayor ganancia (tenges - distancia, solo si es positiva),
+     * el primer robot de su ubicación se mueve hasta ella y recoge sus tenges. A igual ganancia gana
+     * la tienda que aparece antes en los arreglos (la SilkRoad las recorre en orden de colocación).
+     * Con los robots agregados en orden de llegada el resultado es el de la SilkRoad.
+     * Cada paso recorre las tiendas una vez (O(S)); el robot a mover sale del índice de ubicaciones.
+     *
+     * @param storeLocations ubicaciones de las tiendas.
+     * @param tenges tenges de cada tienda; las tiendas recogidas quedan en 0.
+     * @return ganancia total del movimiento (tenges recogidos menos metros recorridos).
+     */
+    public long moveRobots(int[] storeLocations, int[] tenges) {
+        return moveRobots(storeLocations, tenges, null, null);
+    }
+
+    /**
+     * Igual que moveRobots(storeLocations, tenges), y además anota cada paso como el par
+     * (ubicación de salida, metros) que recibiría SilkRoad.moveRobot.
+     *
+     * @param storeLocations ubicaciones de las tiendas.
+     * @param tenges tenges de cada tienda; las tiendas recogidas quedan en 0.
+     * @param from si no es null, recibe la ubicación de salida de cada paso (largo >= size()).
+     * @param meters si no es null, recibe los metros (con signo) de cada paso (largo >= size()).
+     * @return ganancia total del movimiento (tenges recogidos menos metros recorridos).
+     */
+    public long moveRobots(int[] storeLocations, int[] tenges, int[] from, int[] meters) {
+        long total = 0;
+        int stores = storeLocations.length;
+        for(int i=0;i<size;i++) {
+            int here = location[i];
+            int best = -1;
+            int bestProfit = 0;
+            for(int s=0;s<stores;s++) {
+                int p = tenges[s] - Math.abs(storeLocations[s] - here);
+                if(p > bestProfit) {
+                    bestProfit = p;
+                    best = s;
+                }
+            }
+            int bestLocation = best < 0 ? here : storeLocations[best];
+            int id = firstAt(here);
+            int mover = slotOf[id];
+            int distance = Math.abs(bestLocation - here);
+            if(bestLocation != here) {
+                unlink(id, here);
+                location[mover] = bestLocation;
+                link(id, bestLocation);
+            }
+            // si una tienda ganó, tiene tenges > 0; si no, en la ubicación actual no hay nada que recoger
+            int taken = 0;
+            if(best >= 0) {
+                taken = tenges[best];
+                tenges[best] = 0;
+            }
+            profit[mover] += taken - distance;
+            total += taken - distance;
+            if(from != null) from[i] = here;
+            if(meters != null) meters[i] = bestLocation - here;
+        }
+        return total;
+    }
+
+    /**
+     * Devuelve los robots en orden de inserción.
+     * @return matriz con {id, ubicación, ganancia} por robot.
+     */
+    public int[][] robots() {
+        int[][] out = new int[size][];
+        for(int i=0;i<size;i++) out[i] = new int[]{idAt[i], location[i], profit[i]};
+        return out;
+    }
+
+    // ----------------- internos -----------------
+
+    /**
+     * Engancha un robot en la cadena de su ubicación, ordenada por orden de llegada
+     * (a igual orden, después de los que ya estaban).
+     */
+    private void link(int id, int location) {
+        int order = arrivalOrder[slotOf[id]];
+        int i = indexSlot(location);
+        int head = indexHead[i];
+        if(head < 0 || order < arrivalOrder[slotOf[head]]) {
+            nextAt[id] = head;
+            indexHead[i] = id;
+            if(head < 0) {
+                indexKey[i] = location;
+                if(++indexSize * 2 > indexKey.length) rehash();
+            }
+            return;
+        }
+        int prev = head;
+        while(nextAt[prev] >= 0 && arrivalOrder[slotOf[nextAt[prev]]] <= order) prev = nextAt[prev];
+        nextAt[id] = nextAt[prev];
+        nextAt[prev] = id;
+    }
+
+    /**
+     * Quita un robot de la cadena de su ubicación.
+     */
+    private void unlink(int id, int location) {
+        int i = indexSlot(location);
+        int head = indexHead[i];
+        if(head == id) {
+            if(nextAt[id] < 0) removeSlot(i);
+            else indexHead[i] = nextAt[id];
+            return;
+        }
+        int prev = head;
+        while(nextAt[prev] != id) prev = nextAt[prev];
+        nextAt[prev] = nextAt[id];
+    }
+
+    /**
+     * Casilla del índice que tiene la ubicación, o la casilla libre donde iría.
+     */
+    private int indexSlot(int location) {
+        int mask = indexKey.length - 1;
+        int i = hash(location) & mask;
+        while(indexHead[i] >= 0 && indexKey[i] != location) i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Libera una casilla del índice y corre hacia atrás las que la sondeo lineal dejaría
+     * inalcanzables (no hacen falta marcas de borrado).
+     */
+    private void removeSlot(int i) {
+        int mask = indexKey.length - 1;
+        indexHead[i] = -1;
+        indexSize--;
+        for(int j = (i + 1) & mask; indexHead[j] >= 0; j = (j + 1) & mask) {
+            int home = hash(indexKey[j]) & mask;
+            boolean reachable = i <= j ? i < home && home <= j : i < home || home <= j;
+            if(reachable) continue;
+            indexKey[i] = indexKey[j];
+            indexHead[i] = indexHead[j];
+            indexHead[j] = -1;
+            i = j;
+        }
+    }
+
+    private void rehash() {
+        int[] keys = indexKey, heads = indexHead;
+        indexKey = new int[keys.length * 2];
+        indexHead = new int[keys.length * 2];
+        Arrays.fill(indexHead, -1);
+        for(int i=0;i<keys.length;i++) {
+            if(heads[i] < 0) continue;
+            int s = indexSlot(keys[i]);
+            indexKey[s] = keys[i];
+            indexHead[s] = heads[i];
+        }
+    }
+
+    private static int hash(int location) {
+        int h = location * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        int c = idAt.length * 2;
+        initialLocation = Arrays.copyOf(initialLocation, c);
+        location = Arrays.copyOf(location, c);
+        arrivalOrder = Arrays.copyOf(arrivalOrder, c);
+        profit = Arrays.copyOf(profit, c);
+        colorIndex = Arrays.copyOf(colorIndex, c);
+        idAt = Arrays.copyOf(idAt, c);
+        slotOf = Arrays.copyOf(slotOf, c);
+        freeIds = Arrays.copyOf(freeIds, c);
+        nextAt = Arrays.copyOf(nextAt, c);
+    }
+}
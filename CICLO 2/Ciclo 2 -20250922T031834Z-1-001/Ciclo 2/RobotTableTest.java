@@ -0,0 +1,126 @@
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+/**
+ * Clase RobotTableTest: pruebas de RobotTable contra SilkRoad.
+ * La pasada de moveRobots sobre los arreglos debe dejar la misma ganancia, robots y tiendas que
+ * la de la SilkRoad en los escenarios de WorkloadGenerator; con robots que se agregan, quitan y
+ * mueven (muchos en la misma ubicación) el índice de ubicaciones debe elegir el mismo robot.
+ */
+public class RobotTableTest {
+
+    @Test
+    public void moveRobotsMatchesSilkRoad() {
+        long seed = 31;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 200, 40, 200, 4, seed++);
+            SilkRoad r = SilkRoad.headless(() -> new SilkRoad(w.length()));
+            r.createFromDays(w.days());
+            for(int location : w.robots()) r.placeRobot(location);
+            for(int[] m : w.moves()) r.moveRobot(m[0], m[1]);
+            RobotTable t = new RobotTable();
+            for(long b : r.robotsByArrival()) t.add((int)b, (int)(b >> 32), 0);
+            // tiendas en orden de colocación (las repetidas de createFromDays no se colocan)
+            int[] storeLoc = new int[r.stores().length];
+            Set<Integer> seen = new HashSet<>();
+            int n = 0;
+            for(int[] day : w.days()) if(seen.add(day[0])) storeLoc[n++] = day[0];
+            for(int i=0;i<w.rounds();i++) {
+                String what = d.name() + " ronda " + i;
+                int[][] before = r.stores();
+                int[] amounts = new int[n];
+                for(int s=0;s<n;s++) amounts[s] = tengesAt(before, storeLoc[s]);
+                int profit = r.porfit();
+                long total = t.moveRobots(storeLoc, amounts);
+                r.moveRobots();
+                assertEquals(what + ": ganancia", r.porfit() - profit, (int)total);
+                assertArrayEquals(what + ": robots", r.robots(), locations(t));
+                int[][] stores = r.stores();
+                for(int s=0;s<n;s++) {
+                    assertEquals(what + ": tienda " + storeLoc[s], tengesAt(stores, storeLoc[s]), amounts[s]);
+                }
+                r.resupplyStores();
+            }
+        }
+    }
+
+    @Test
+    public void locationIndexPicksTheSameRobot() {
+        for(long seed = 1; seed <= 20; seed++) {
+            Random rnd = new Random(seed);
+            SilkRoad r = SilkRoad.headless(() -> new SilkRoad(30));
+            RobotTable t = new RobotTable(2);         // crece varias veces
+            Map<Integer, Integer> idOf = new HashMap<>();   // orden de llegada -> id
+            for(int i=0;i<400;i++) {
+                String what = "semilla " + seed + " paso " + i;
+                int l = rnd.nextInt(30);
+                switch(rnd.nextInt(6)) {
+                    case 0: case 1: {
+                        r.placeRobot(l);
+                        if(!r.ok()) break;      // ubicación ocupada
+                        long[] all = r.robotsByArrival();
+                        int order = (int)(all[all.length - 1] >> 32);
+                        idOf.put(order, t.add(l, order, order % 128));
+                        break;
+                    }
+                    case 2: {
+                        int id = t.firstAt(l);
+                        r.removeRobot(l);
+                        assertEquals(what, r.ok(), id >= 0);
+                        if(id >= 0) {
+                            assertTrue(t.remove(id));
+                            idOf.values().remove(id);       // su id se reutiliza
+                        }
+                        break;
+                    }
+                    case 3: case 4: {
+                        int id = t.firstAt(l);
+                        int m = rnd.nextInt(7) - 3;
+                        r.moveRobot(l, m);
+                        if(r.ok()) {
+                            t.setLocation(id, l + m);
+                            t.addProfit(id, -Math.abs(m));
+                        }
+                        break;
+                    }
+                    default: r.returnRobots(); t.returnAll();
+                }
+                assertArrayEquals(what + ": robots", r.robots(), locations(t));
+                assertArrayEquals(what + ": por robot", r.profitPerRobot(), profits(t));
+                // el primero de cada ubicación es el de menor orden de llegada en la SilkRoad
+                Map<Integer, Integer> first = new HashMap<>();
+                for(long b : r.robotsByArrival()) first.putIfAbsent((int)b, (int)(b >> 32));
+                for(int k=0;k<30;k++) {
+                    Integer order = first.get(k);
+                    assertEquals(what + ": primero en " + k, order == null ? -1 : (int)idOf.get(order), t.firstAt(k));
+                }
+                assertEquals(what, idOf.size(), t.size());
+                for(Map.Entry<Integer, Integer> e : idOf.entrySet()) {
+                    assertEquals(what, (int)e.getKey(), t.arrivalOrder(e.getValue()));
+                }
+            }
+        }
+    }
+
+    private static int[][] locations(RobotTable t) {
+        int[][] out = new int[t.size()][];
+        for(int i=0;i<out.length;i++) out[i] = new int[]{t.location(t.idAt(i)), 0};
+        Arrays.sort(out, Comparator.comparingInt(a -> a[0]));
+        return out;
+    }
+
+    private static int[][] profits(RobotTable t) {
+        int[][] out = new int[t.size()][];
+        for(int i=0;i<out.length;i++) out[i] = new int[]{t.location(t.idAt(i)), t.profit(t.idAt(i))};
+        Arrays.sort(out, Comparator.comparingInt(a -> a[0]));    // estable: a igual ubicación, orden de llegada
+        return out;
+    }
+
+    private static int tengesAt(int[][] stores, int location) {
+        for(int[] s : stores) if(s[0] == location) return s[1];
+        throw new AssertionError("no hay tienda en " + location);
+    }
+}
@@ -0,0 +1,18 @@
+import jdk.jfr.*;
+
+/**
+ * Clase RobotsMoveEvent: evento de JDK Flight Recorder emitido por cada SilkRoad.moveRobots.
+ * Incluye el parpadeo del robot ganador cuando la simulación es visible.
+ */
+@Name("silkroad.RobotsMove")
+@Label("Robots Move")
+@Category({"SilkRoad", "Simulation"})
+@Description("Una ronda de SilkRoad.moveRobots")
+public class RobotsMoveEvent extends Event {
+    @Label("Robots")
+    public int robots;
+
+    @Label("Collected")
+    @Description("Cambio de la ganancia global durante la ronda")
+    public int collected;
+}
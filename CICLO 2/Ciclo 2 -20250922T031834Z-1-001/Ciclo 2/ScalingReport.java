@@ -0,0 +1,79 @@
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+
+/**
+ * Clase ScalingReport: ejecuta escenarios de WorkloadGenerator sin interfaz gráfica y escribe
+ * una tabla de escalado con operaciones por segundo y memoria heap máxima contra el tamaño
+ * de la entrada, para cada distribución.
+ *
+ * Uso: java ScalingReport [maxExponente] [archivo] [semilla]
+ *   maxExponente  mayor potencia de 10 de tiendas (por defecto 4).
+ *   archivo       si se indica, la tabla también se escribe allí.
+ *   semilla       semilla de los escenarios (por defecto 1).
+ * Cada escenario tiene n tiendas, n/10 robots, n movimientos y una ronda de moveRobots.
+ */
+public class ScalingReport {
+    private static volatile long sink;   // evita que se eliminen resultados
+
+    /**
+     * Punto de entrada.
+     * @param args [maxExponente] [archivo] [semilla].
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int maxExp = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        String table = run(maxExp, seed);
+        System.out.print(table);
+        if(args.length > 1) {
+            try(Writer w = new OutputStreamWriter(new FileOutputStream(args[1]), "UTF-8")) { w.write(table); }
+        }
+    }
+
+    /**
+     * Genera y ejecuta todos los escenarios y arma la tabla.
+     *
+     * @param maxExp mayor potencia de 10 de tiendas.
+     * @param seed semilla de los escenarios.
+     * @return tabla de escalado en texto.
+     */
+    public static String run(int maxExp, long seed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-12s %9s %8s %9s %8s %14s %12s%n",
+                  "distribución", "tiendas", "robots", "movs", "largo", "ops/s", "heap máx MB"));
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            for(int exp = 2; exp <= maxExp; exp++) {
+                int n = (int)Math.pow(10, exp);
+                Workload w = WorkloadGenerator.generate(d, n, Math.max(1, n / 10), n, 1, seed);
+                sink += w.run().porfit(); // calentamiento
+                long[] measured = measure(w);
+                sb.append(String.format("%-12s %9d %8d %9d %8d %14.1f %12.1f%n",
+                          d.name().toLowerCase(), w.days().length, w.robots().length, w.moves().length,
+                          w.length(), w.operations() * 1e9 / Math.max(1, measured[0]),
+                          measured[1] / (1024.0 * 1024.0)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ejecuta un escenario midiendo el tiempo y el pico de heap.
+     * @return {nanosegundos, bytes de heap máximos}.
+     */
+    private static long[] measure(Workload w) {
+        List<MemoryPoolMXBean> heap = new ArrayList<>();
+        for(MemoryPoolMXBean p : ManagementFactory.getMemoryPoolMXBeans()) {
+            if(p.getType() == MemoryType.HEAP && p.isValid()) heap.add(p);
+        }
+        System.gc();
+        for(MemoryPoolMXBean p : heap) p.resetPeakUsage();
+        long t0 = System.nanoTime();
+        SilkRoad road = w.run();
+        long nanos = System.nanoTime() - t0;
+        long peak = 0;
+        for(MemoryPoolMXBean p : heap) peak += p.getPeakUsage().getUsed();
+        sink += road.porfit();
+        return new long[]{nanos, peak};
+    }
+}
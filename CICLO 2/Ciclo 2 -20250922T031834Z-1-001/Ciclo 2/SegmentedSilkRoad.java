@@ -0,0 +1,395 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Clase SegmentedSilkRoad: divide una carretera muy larga en segmentos contiguos de ubicaciones.
+ * Cada segmento es una SilkRoad sin interfaz gráfica dueña de sus tiendas y robots, y la procesa
+ * su propio hilo trabajador, de modo que las operaciones de segmentos distintos corren en paralelo
+ * sin un candado global. Cuando moveRobot lleva un robot fuera de su segmento, el robot se entrega al
+ * segmento de destino a través de la cola de ese segmento.
+ *
+ * Las operaciones devuelven un CompletableFuture con ok(). Los movimientos de un mismo robot que
+ * cruzan segmentos deben encadenarse esperando el futuro anterior (o llamando a sync()).
+ * Las consultas stores(), robots() y porfit() esperan a que se vacíen las colas y combinan los
+ * resultados de todos los segmentos.
+ *
+ * moveRobots da el mismo resultado que SilkRoad.moveRobots sobre la carretera completa: cada robot
+ * considera las tiendas de todos los segmentos. Como cada elección depende de lo que recogieron
+ * los robots anteriores, el plan es global y secuencial: se calcula en el hilo que llama, en
+ * O(R·S), sobre una copia combinada de tiendas y robots, y esa parte no escala con los núcleos.
+ * Lo que sí se reparte es su aplicación: cada segmento aplica en paralelo sus pasos en el orden del
+ * plan, y un robot que cruza de segmento lo entrega el de origen al de destino con un futuro. El
+ * estado de una ubicación solo depende de los pasos de su segmento, así que el resultado es el del
+ * plan aplicado en un solo hilo.
+ *
+ * @param length longitud lógica de la carretera.
+ * @param segments número de segmentos (y de hilos trabajadores).
+ */
+public class SegmentedSilkRoad {
+    private final int length;
+    private final int segmentSize;          // ubicaciones por segmento
+    private final Segment[] segments;       // ordenados por ubicación
+    private final AtomicInteger arrivalCounter;
+    private final AtomicInteger storeCounter;                 // orden global de colocación de tiendas
+    private final Map<Integer, Integer> storeOrder;           // ubicación -> orden de colocación
+    private final AtomicInteger inFlight;   // robots en camino entre segmentos
+
+    /**
+     * Constructor con un segmento por núcleo disponible.
+     */
+    public SegmentedSilkRoad(int length) {
+        this(length, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor de la carretera segmentada.
+     */
+    public SegmentedSilkRoad(int length, int segments) {
+        int n = Math.max(1, Math.min(segments, Math.max(1, length)));
+        this.length = length;
+        this.segmentSize = (Math.max(1, length) + n - 1) / n;
+        this.segments = new Segment[n];
+        for(int i=0;i<n;i++) this.segments[i] = new Segment(i, i * segmentSize, (i + 1) * segmentSize, length);
+        this.arrivalCounter = new AtomicInteger();
+        this.storeCounter = new AtomicInteger();
+        this.storeOrder = new ConcurrentHashMap<>();
+        this.inFlight = new AtomicInteger();
+    }
+
+    /**
+     * Devuelve la longitud lógica de la carretera.
+     * @return longitud.
+     */
+    public int length() { return length; }
+
+    /**
+     * Devuelve el número de segmentos.
+     * @return cantidad de segmentos.
+     */
+    public int segmentCount() { return segments.length; }
+
+    /**
+     * Coloca una tienda en el segmento dueño de la ubicación.
+     * @param location ubicación lógica.
+     * @param tenges tenges iniciales.
+     * @return futuro con ok().
+     */
+    public CompletableFuture<Boolean> placeStore(int location, int tenges) {
+        int order = storeCounter.getAndIncrement();
+        return segmentOf(location).call(r -> {
+            r.placeStore(location, tenges);
+            if(r.ok()) storeOrder.put(location, order);
+            return r.ok();
+        });
+    }
+
+    /**
+     * Elimina una tienda.
+     * @param location ubicación lógica.
+     * @return futuro con ok().
+     */
+    public CompletableFuture<Boolean> removeStore(int location) {
+        return segmentOf(location).call(r -> {
+            r.removeStore(location);
+            if(r.ok()) storeOrder.remove(location);
+            return r.ok();
+        });
+    }
+
+    /**
+     * Coloca un robot. El orden de llegada es global a todos los segmentos.
+     * @param location ubicación lógica.
+     * @return futuro con ok().
+     */
+    public CompletableFuture<Boolean> placeRobot(int location) {
+        int order = arrivalCounter.getAndIncrement();
+        return segmentOf(location).call(r -> { r.placeRobot(location, order); return r.ok(); });
+    }
+
+    /**
+     * Elimina un robot.
+     * @param location ubicación lógica actual del robot.
+     * @return futuro con ok().
+     */
+    public CompletableFuture<Boolean> removeRobot(int location) {
+        return segmentOf(location).call(r -> { r.removeRobot(location); return r.ok(); });
+    }
+
+    /**
+     * Mueve un robot `meters` metros. Si el destino cae en otro segmento, el segmento de origen
+     * cobra el movimiento y entrega el robot al segmento de destino, que recoge la tienda al llegar.
+     *
+     * @param location ubicación actual del robot.
+     * @param meters desplazamiento en metros.
+     * @return futuro con ok(), completado cuando el robot ya llegó a su destino.
+     */
+    public CompletableFuture<Boolean> moveRobot(int location, int meters) {
+        Segment from = segmentOf(location);
+        int target = location + meters;
+        Segment to = segmentOf(target);
+        if(from == to) return from.call(r -> { r.moveRobot(location, meters); return r.ok(); });
+        inFlight.incrementAndGet();
+        return from.call(r -> r.detachRobot(location)).thenCompose(robot -> {
+            if(robot == null) return CompletableFuture.completedFuture(false);
+            // el origen cobra el movimiento; el destino recoge al llegar
+            from.run(r -> r.addProfit(-Math.abs(meters)));
+            robot.addProfit(-Math.abs(meters));
+            return to.call(r -> { r.attachRobot(robot, target, true); return true; });
+        }).whenComplete((ok, e) -> inFlight.decrementAndGet());
+    }
+
+    /**
+     * Mueve todos los robots buscando maximizar ganancias, igual que SilkRoad.moveRobots sobre la
+     * carretera completa: en orden de llegada, cada robot elige entre las tiendas de todos los
+     * segmentos la de mayor ganancia (a igual ganancia, la colocada primero) y el primer robot de
+     * su ubicación va hasta ella. Espera a que se vacíen las colas y arma el plan sobre una RobotTable
+     * en el hilo que llama; luego cada segmento aplica sus pasos en paralelo con los demás.
+     * @return futuro que se completa cuando todos los movimientos terminaron.
+     */
+    public CompletableFuture<Void> moveRobots() {
+        sync();
+        // tiendas en orden de colocación, con sus tenges actuales
+        int[][] byLocation = merge(SilkRoad::stores);
+        long[] keys = new long[byLocation.length];
+        for(int i=0;i<keys.length;i++) keys[i] = (long)storeOrder.get(byLocation[i][0]) << 32 | i;
+        Arrays.sort(keys);
+        int[] storeLoc = new int[keys.length];
+        int[] tenges = new int[keys.length];
+        for(int i=0;i<keys.length;i++) {
+            int[] row = byLocation[(int)keys[i]];
+            storeLoc[i] = row[0];
+            tenges[i] = row[1];
+        }
+        // robots de todos los segmentos en orden de llegada; la RobotTable planea la pasada
+        // codiciosa de SilkRoad.moveRobots y anota cada paso (ubicación de salida, metros)
+        List<CompletableFuture<long[]>> parts = new ArrayList<>();
+        for(Segment seg : segments) parts.add(seg.call(SilkRoad::robotsByArrival));
+        long[] robots = parts.stream().map(CompletableFuture::join).flatMapToLong(Arrays::stream).sorted().toArray();
+        RobotTable plan = new RobotTable(robots.length);
+        for(long r : robots) plan.add((int)r, (int)(r >> 32), 0);
+        int[] from = new int[robots.length];
+        int[] meters = new int[robots.length];
+        plan.moveRobots(storeLoc, tenges, from, meters);
+        // cada segmento aplica en orden los pasos que lo tocan: como salida, como llegada o ambos
+        List<List<Integer>> steps = new ArrayList<>();
+        for(int i=0;i<segments.length;i++) steps.add(new ArrayList<>());
+        List<CompletableFuture<Robot>> handoff = new ArrayList<>(Collections.nCopies(robots.length, null));
+        for(int i=0;i<robots.length;i++) {
+            Segment a = segmentOf(from[i]), b = segmentOf(from[i] + meters[i]);
+            steps.get(a.index).add(i);
+            if(a != b) {
+                steps.get(b.index).add(i);
+                handoff.set(i, new CompletableFuture<>());
+            }
+        }
+        CompletableFuture<?>[] done = new CompletableFuture<?>[segments.length];
+        for(Segment seg : segments) {
+            List<Integer> mine = steps.get(seg.index);
+            done[seg.index] = seg.call(r -> { apply(seg, r, mine, from, meters, handoff); return null; });
+        }
+        return CompletableFuture.allOf(done);
+    }
+
+    /**
+     * Aplica en un segmento sus pasos del plan de moveRobots, en orden. Un paso que sale del segmento
+     * retira el robot, cobra el movimiento y completa su entrega; uno que llega espera esa entrega.
+     * Esperar no se bloquea para siempre: el paso i de otro segmento solo depende de pasos anteriores
+     * a i, y este segmento ya aplicó los suyos.
+     */
+    private void apply(Segment seg, SilkRoad r, List<Integer> mine, int[] from, int[] meters,
+                       List<CompletableFuture<Robot>> handoff) {
+        try {
+            for(int i : mine) {
+                int f = from[i], m = meters[i];
+                CompletableFuture<Robot> h = handoff.get(i);
+                if(h == null) {
+                    r.moveRobot(f, m);
+                } else if(segmentOf(f) == seg) {
+                    Robot robot = r.detachRobot(f);
+                    if(robot != null) {
+                        r.addProfit(-Math.abs(m));
+                        robot.addProfit(-Math.abs(m));
+                    }
+                    h.complete(robot);
+                } else {
+                    Robot robot = h.join();
+                    if(robot != null) r.attachRobot(robot, f + m, true);
+                }
+            }
+        } finally {
+            // si algo falló, que ningún segmento quede esperando un robot de este
+            for(int i : mine) {
+                CompletableFuture<Robot> h = handoff.get(i);
+                if(h != null && segmentOf(from[i]) == seg) h.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Reabastece todas las tiendas de todos los segmentos.
+     * @return futuro que se completa cuando todos los segmentos terminaron.
+     */
+    public CompletableFuture<Void> resupplyStores() {
+        return all(r -> { r.resupplyStores(); return null; });
+    }
+
+    /**
+     * Regresa todos los robots a sus ubicaciones iniciales, devolviéndolos a su segmento de origen.
+     */
+    public void returnRobots() {
+        bringRobotsHome();
+        all(r -> { r.returnRobots(); return null; }).join();
+    }
+
+    /**
+     * Reinicia todos los segmentos: tiendas reabastecidas, ganancia 0 y robots en sus iniciales.
+     */
+    public void reboot() {
+        bringRobotsHome();
+        all(r -> { r.reboot(); return null; }).join();
+    }
+
+    /**
+     * Espera a que todos los segmentos terminen los comandos encolados, incluidas las
+     * entregas de robots entre segmentos que esos comandos generen.
+     */
+    public void sync() {
+        boolean busy = true;
+        while(busy) {
+            all(r -> null).join();
+            busy = inFlight.get() > 0;
+            for(Segment s : segments) if(s.pending.get() > 0) busy = true;
+        }
+    }
+
+    /**
+     * Ganancia global: suma de las ganancias de todos los segmentos.
+     * @return ganancia acumulada.
+     */
+    public int porfit() {
+        sync();
+        int total = 0;
+        for(Segment s : segments) total += s.call(SilkRoad::porfit).join();
+        return total;
+    }
+
+    /**
+     * Tiendas de todos los segmentos ordenadas por ubicación.
+     * @return matriz {ubicación, tenges}.
+     */
+    public int[][] stores() {
+        sync();
+        return merge(SilkRoad::stores);
+    }
+
+    /**
+     * Robots de todos los segmentos ordenados por ubicación.
+     * @return matriz {ubicación, 0}.
+     */
+    public int[][] robots() {
+        sync();
+        return merge(SilkRoad::robots);
+    }
+
+    /**
+     * Detiene los hilos trabajadores después de terminar lo encolado.
+     */
+    public void shutdown() {
+        sync();
+        for(Segment s : segments) s.worker.shutdown();
+    }
+
+    /**
+     * Devuelve el segmento dueño de una ubicación (las ubicaciones fuera de la
+     * carretera pertenecen al primer o al último segmento).
+     */
+    private Segment segmentOf(int location) {
+        int i = location < 0 ? 0 : location / segmentSize;
+        return segments[Math.min(i, segments.length - 1)];
+    }
+
+    /**
+     * Ejecuta la misma tarea en todos los segmentos en paralelo.
+     */
+    private <T> CompletableFuture<Void> all(java.util.function.Function<SilkRoad, T> task) {
+        CompletableFuture<?>[] fs = new CompletableFuture<?>[segments.length];
+        for(int i=0;i<segments.length;i++) fs[i] = segments[i].call(task);
+        return CompletableFuture.allOf(fs);
+    }
+
+    /**
+     * Concatena en orden las matrices de cada segmento; como los segmentos son contiguos
+     * y cada uno está ordenado, el resultado queda ordenado por ubicación.
+     */
+    private int[][] merge(java.util.function.Function<SilkRoad, int[][]> query) {
+        List<CompletableFuture<int[][]>> parts = new ArrayList<>();
+        for(Segment s : segments) parts.add(s.call(query));
+        int total = 0;
+        for(CompletableFuture<int[][]> p : parts) total += p.join().length;
+        int[][] out = new int[total][];
+        int k = 0;
+        for(CompletableFuture<int[][]> p : parts) {
+            int[][] part = p.join();
+            System.arraycopy(part, 0, out, k, part.length);
+            k += part.length;
+        }
+        return out;
+    }
+
+    /**
+     * Devuelve a su segmento de origen cada robot que terminó en un segmento ajeno.
+     */
+    private void bringRobotsHome() {
+        sync();
+        List<CompletableFuture<List<Robot>>> strays = new ArrayList<>();
+        for(Segment s : segments) strays.add(s.call(r -> r.detachRobotsOutside(s.from, s.to)));
+        List<CompletableFuture<Boolean>> arrivals = new ArrayList<>();
+        for(CompletableFuture<List<Robot>> f : strays) {
+            for(Robot robot : f.join()) {
+                int home = robot.initialLocation();
+                arrivals.add(segmentOf(home).call(r -> { r.attachRobot(robot, home, false); return true; }));
+            }
+        }
+        for(CompletableFuture<Boolean> f : arrivals) f.join();
+    }
+
+    /**
+     * Segmento: rango de ubicaciones [from, to), su SilkRoad y su hilo trabajador.
+     */
+    private static final class Segment {
+        final int index;                     // posición en segments
+        final int from, to;
+        final SilkRoad road;                 // solo la toca el trabajador
+        final ExecutorService worker;        // un hilo, cola FIFO
+        final AtomicInteger pending;         // tareas encoladas sin terminar
+
+        Segment(int index, int from, int to, int length) {
+            this.index = index;
+            this.from = from;
+            this.to = to;
+            this.road = new SilkRoad(length);
+            this.pending = new AtomicInteger();
+            this.worker = Executors.newSingleThreadExecutor(task -> {
+                Thread t = new Thread(task, "silkroad-segment-" + index);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        <T> CompletableFuture<T> call(java.util.function.Function<SilkRoad, T> task) {
+            pending.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.apply(road);
+                } finally {
+                    pending.decrementAndGet();
+                }
+            }, worker);
+        }
+
+        void run(java.util.function.Consumer<SilkRoad> task) {
+            call(r -> { task.accept(r); return null; });
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Clase SegmentedSilkRoadTest: pruebas de SegmentedSilkRoad contra SilkRoad.
+ * Juega los escenarios de WorkloadGenerator con distintas cantidades de segmentos y compara
+ * ganancia, tiendas y robots con los de la misma secuencia sobre una sola SilkRoad.
+ */
+public class SegmentedSilkRoadTest {
+    private static final int[] SEGMENTS = {1, 3, 8};
+
+    @Test
+    public void everyDistributionMatchesSilkRoad() {
+        long seed = 7;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 120, 30, 200, 3, seed++);
+            SilkRoad expected = w.run();
+            for(int n : SEGMENTS) {
+                SegmentedSilkRoad road = new SegmentedSilkRoad(w.length(), n);
+                try {
+                    play(road, w);
+                    String what = d.name() + " con " + n + " segmentos";
+                    assertEquals(what, expected.porfit(), road.porfit());
+                    assertArrayEquals(what, expected.stores(), road.stores());
+                    assertArrayEquals(what, expected.robots(), road.robots());
+                } finally {
+                    road.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void crossingMoveHandsRobotOver() {
+        SegmentedSilkRoad road = new SegmentedSilkRoad(100, 4);
+        try {
+            road.placeStore(90, 30).join();
+            road.placeRobot(5).join();
+            assertTrue(road.moveRobot(5, 85).join());
+            assertEquals(-55, road.porfit());
+            assertArrayEquals(new int[][]{{90, 0}}, road.robots());
+            assertArrayEquals(new int[][]{{90, 0}}, road.stores());
+        } finally {
+            road.shutdown();
+        }
+    }
+
+    @Test
+    public void returnRobotsBringsThemHome() {
+        SegmentedSilkRoad road = new SegmentedSilkRoad(100, 4);
+        try {
+            road.placeStore(80, 100).join();
+            road.placeRobot(10).join();
+            road.moveRobots().join();
+            road.returnRobots();
+            assertArrayEquals(new int[][]{{10, 0}}, road.robots());
+            assertEquals(30, road.porfit());
+        } finally {
+            road.shutdown();
+        }
+    }
+
+    /**
+     * Juega el escenario completo, esperando cada movimiento antes del siguiente.
+     */
+    private static void play(SegmentedSilkRoad road, Workload w) {
+        for(int[] day : w.days()) road.placeStore(day[0], day[1]);
+        for(int location : w.robots()) road.placeRobot(location);
+        road.sync();
+        for(int[] m : w.moves()) road.moveRobot(m[0], m[1]).join();
+        for(int i=0;i<w.rounds();i++) {
+            road.moveRobots().join();
+            road.resupplyStores().join();
+        }
+    }
+}
@@ -6,21 +6,42 @@ import java.util.*;
  * Gestiona tiendas (Store), robots (Robot), la barra de progreso (ProgressBar) y el lienzo (Canvas).
  * Permite colocar/eliminar tiendas y robots, mover robots, consultar ganancias,
  * reiniciar la simulación y mostrar/ocultar elementos gráficos.
+ * Una SilkRoad construida dentro de headless(...) (así las arma SimulationRunner) nunca se
+ * hace visible: makeVisible y finish no tocan el Canvas, y como el parpadeo de los robots y las
+ * animaciones solo ocurren con la simulación visible, tampoco llega a la AnimationTimeline.
  *
  * @param length longitud lógica de la carretera SilkRoad.
  */
 public class SilkRoad {
+    private static final ThreadLocal<Boolean> HEADLESS = ThreadLocal.withInitial(() -> false);
+
     private int length; // longitud lógica
     private LinkedHashMap<Integer, Store> storesMap; // location -> Store (insertion order)
-    private LinkedHashMap<Integer, List<Robot>> robotsMap; // location -> list of robots currently there
-    private List<Robot> robotsList; // insertion ordered robots
+    private TreeMap<Integer, Store> storeIndex; // location -> Store (location order, for sorted output)
+    private TreeMap<Integer, List<Robot>> robotsMap; // location -> list of robots currently there (location order)
+    private TreeMap<Integer, Robot> robotsByOrder; // arrivalOrder -> robot (arrival order, unique per road)
     private ProgressBar progressBar;
     private boolean visible;
+    private final boolean headless; // never drawn: built inside headless(...)
     private boolean lastOk;
     private int arrivalCounter;
     private int profit;
-    private int pixelScale = 1; // pixels per meter for movement (adjustable)
     private java.util.function.IntUnaryOperator coordMapper; // maps location -> packed x,y
+    private int stockedStores;      // stores whose initial tenges are not 0
+    private int nonEmptyStores;     // stores that currently hold tenges
+    private volatile SilkRoadMetrics metrics; // null unless the MXBean is registered
+    private Epoch supplyEpoch = new Epoch(); // bumped by resupplyStores: stores refill lazily
+    private Epoch homeEpoch = new Epoch();   // bumped by returnRobots/reboot: robots go home lazily
+    private Epoch ledgerEpoch = new Epoch(); // bumped by reboot: robot profits reset lazily
+    private Set<Robot> awayFromHome = new HashSet<>(); // robots moved since they were last sent home
+    private List<Store> emptiedSinceSupply = new ArrayList<>(); // stores to redraw on next resupply
+    private ArrivalQueues arrivals;  // per-store arrival queues for rounds; built on the first beginRound
+    private Map<Integer, Map<Integer, Robot>> roundArrivals; // location -> (arrivalOrder -> robot) while a round is open
+    private Map<Robot, Integer> roundClock; // meters each robot has travelled in the open round
+    // range aggregates per occupied location: column 0 tenges, 1 robots, 2 tenges collected;
+    // null until the first range query, then kept up to date on every change
+    private RangeSumTree aggregates;
+    private StoreRanking ranking;      // top-k indexes over the stores; null until the first query, then kept up to date
     
     // color cycles
     private String[] colors = {"red","blue","green","yellow","magenta","black"};
@@ -33,47 +54,59 @@ public class SilkRoad {
     public SilkRoad(int length) {
         this.length = length;
         storesMap = new LinkedHashMap<>();
-        robotsMap = new LinkedHashMap<>();
-        robotsList = new ArrayList<>();
+        storeIndex = new TreeMap<>();
+        robotsMap = new TreeMap<>();
+        robotsByOrder = new TreeMap<>();
         progressBar = new ProgressBar(10, 260, 200, 16);
         visible = false;
+        headless = HEADLESS.get();
         lastOk = true;
         arrivalCounter = 0;
         profit = 0;
-        coordMapper = l -> {
-            // default: linear mapping across canvas width (x, y constant)
-            // pack into int: (x<<16)|y
-            int canvasW = 300;
-            int canvasH = 300;
-            if(length >= 20000) {
-                // spiral mapping: create square spiral centered
-                // compute spiral coordinates for index l
-                int n = l;
-                // Spiral generation algorithm (approximate)
-                int layer = (int)Math.ceil((Math.sqrt(n+1)-1)/2);
-                int legLen = 2*layer;
-                int maxVal = (2*layer+1)*(2*layer+1)-1;
-                int diff = maxVal - n;
-                int side = diff / legLen; // 0..3
-                int offset = diff % legLen;
-                int cx = canvasW/2;
-                int cy = canvasH/2;
-                int x= cx, y=cy;
-                if(side==0) { x += layer; y += -layer + offset; }
-                else if(side==1) { x += layer - offset; y += layer; }
-                else if(side==2) { x += -layer; y += layer - offset; }
-                else { x += -layer + offset; y += -layer; }
-                x = Math.max(10, Math.min(canvasW-40, x));
-                y = Math.max(10, Math.min(canvasH-40, y));
-                return (x<<16)|y;
-            } else {
-                int margin = 10;
-                int usable = canvasW - 2*margin;
-                int x = margin + (int)((long)l * usable / Math.max(1, length-1));
-                int y = canvasH/2;
-                return (x<<16)|y;
-            }
-        };
+        coordMapper = l -> coordsFor(l, length);
+    }
+
+    /**
+     * Calcula la posición en el lienzo de una ubicación lógica: en línea recta o, para
+     * carreteras de 20000 metros o más, en espiral cuadrada desde el centro.
+     *
+     * @param location ubicación lógica.
+     * @param length longitud de la carretera.
+     * @return coordenadas empaquetadas (x<<16)|y.
+     */
+    static int coordsFor(int location, int length) {
+        // default: linear mapping across canvas width (x, y constant)
+        // pack into int: (x<<16)|y
+        int canvasW = 300;
+        int canvasH = 300;
+        if(length >= 20000) {
+            // spiral mapping: create square spiral centered
+            // compute spiral coordinates for the location
+            int n = location;
+            // Spiral generation algorithm (approximate)
+            int layer = (int)Math.ceil((Math.sqrt(n+1)-1)/2);
+            int legLen = 2*layer;
+            int maxVal = (2*layer+1)*(2*layer+1)-1;
+            int diff = maxVal - n;
+            int side = diff / legLen; // 0..3
+            int offset = diff % legLen;
+            int cx = canvasW/2;
+            int cy = canvasH/2;
+            int x= cx, y=cy;
+            if(side==0) { x += layer; y += -layer + offset; }
+            else if(side==1) { x += layer - offset; y += layer; }
+            else if(side==2) { x += -layer; y += layer - offset; }
+            else { x += -layer + offset; y += -layer; }
+            x = Math.max(10, Math.min(canvasW-40, x));
+            y = Math.max(10, Math.min(canvasH-40, y));
+            return (x<<16)|y;
+        } else {
+            int margin = 10;
+            int usable = canvasW - 2*margin;
+            int x = margin + (int)((long)location * usable / Math.max(1, length-1));
+            int y = canvasH/2;
+            return (x<<16)|y;
+        }
     }
     
     // Helper: generate next distinct color
@@ -96,11 +129,35 @@ public class SilkRoad {
         return c;
     }
     
+    /**
+     * Construye simulaciones que nunca se muestran: toda SilkRoad creada por el hilo actual
+     * mientras corre build rechaza makeVisible (ok() es false) y no toca el Canvas, la barra de
+     * progreso ni la AnimationTimeline, que son compartidos por toda la JVM. Las SilkRoad que build
+     * cree en otros hilos no quedan marcadas.
+     *
+     * @param build código que crea y juega las simulaciones.
+     * @return lo que devuelva build.
+     */
+    public static <T> T headless(java.util.function.Supplier<T> build) {
+        boolean previous = HEADLESS.get();
+        HEADLESS.set(true);
+        try {
+            return build.get();
+        } finally {
+            HEADLESS.set(previous);
+        }
+    }
+
     /**
      * Hace visible la simulación: muestra el lienzo, la barra de progreso,
      * y dibuja tiendas y robots en sus posiciones mapeadas.
+     * Una simulación construida con headless(...) no se muestra y ok() queda en false.
      */
     public void makeVisible() {
+        if(headless) {
+            lastOk = false;
+            return;
+        }
         Canvas.getCanvas().setVisible(true);
         progressBar.makeVisible();
         // draw stores and robots at their mapped positions
@@ -111,15 +168,14 @@ public class SilkRoad {
             s.setPosition(x,y);
             s.makeVisible();
         }
-        for(Robot r : robotsList) {
+        for(Robot r : robotsByOrder.values()) {
             int packed = coordMapper.applyAsInt(r.location());
             int x = (packed>>16)&0xffff;
             int y = packed & 0xffff;
             r.setPosition(x,y);
             r.makeVisible();
         }
-        // set progressbar max as sum of initial tenges
-        progressBar.setMax(sumInitialTenges());
+        // the progress bar max is kept as a running sum of initial tenges
         progressBar.setValue(profit);
         visible = true;
     }
@@ -129,7 +185,7 @@ public class SilkRoad {
      */
     public void makeInvisible() {
         for(Store s : storesMap.values()) s.makeInvisible();
-        for(Robot r: robotsList) r.makeInvisible();
+        for(Robot r: robotsByOrder.values()) r.makeInvisible();
         progressBar.makeInvisible();
         visible = false;
     }
@@ -139,9 +195,15 @@ public class SilkRoad {
      */
     public void finish() {
         makeInvisible();
-        Canvas.getCanvas().setVisible(false);
+        if(!headless) Canvas.getCanvas().setVisible(false);
     }
     
+    /**
+     * Devuelve la longitud lógica de la carretera.
+     * @return longitud lógica.
+     */
+    public int length() { return length; }
+    
     /**
      * Indica si la última operación fue exitosa.
      * @return true si la última operación terminó OK, false si hubo error.
@@ -156,23 +218,34 @@ public class SilkRoad {
      * @param tenges cantidad de tenges iniciales de la tienda.
      */
     public void placeStore(int location, int tenges) {
-        if(storesMap.containsKey(location) || robotsMap.containsKey(location) && robotsMap.get(location)!=null && !robotsMap.get(location).isEmpty()) {
-            lastOk = false;
-            if(visible) JOptionPane.showMessageDialog(null, "No se puede colocar tienda: ubicación ocupada.");
-            return;
-        }
-        Store s = new Store(location, tenges, nextColorForStore());
-        storesMap.put(location, s);
-        // visual placement if visible
-        if(visible) {
-            int packed = coordMapper.applyAsInt(location);
-            int x = (packed>>16)&0xffff;
-            int y = packed & 0xffff;
-            s.setPosition(x,y);
-            s.makeVisible();
-            progressBar.setMax(sumInitialTenges());
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            if(storesMap.containsKey(location) || robotsMap.containsKey(location) && robotsMap.get(location)!=null && !robotsMap.get(location).isEmpty()) {
+                lastOk = false;
+                if(visible) JOptionPane.showMessageDialog(null, "No se puede colocar tienda: ubicación ocupada.");
+                return;
+            }
+            Store s = new Store(location, tenges, nextColorForStore(), supplyEpoch);
+            storesMap.put(location, s);
+            storeIndex.put(location, s);
+            if(!s.isEmpty()) { stockedStores++; nonEmptyStores++; }
+            progressBar.addMax(tenges);
+            trackStore(location, tenges, 0);
+            if(ranking != null) ranking.add(location, tenges);
+            if(arrivals != null) arrivals.addStore(location, tenges);
+            // visual placement if visible
+            if(visible) {
+                int packed = coordMapper.applyAsInt(location);
+                int x = (packed>>16)&0xffff;
+                int y = packed & 0xffff;
+                s.setPosition(x,y);
+                s.makeVisible();
+            }
+            lastOk = true;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.PLACE_STORE, start, lastOk);
         }
-        lastOk = true;
     }
     
     /**
@@ -181,16 +254,28 @@ public class SilkRoad {
      * @param location ubicación lógica de la tienda a eliminar.
      */
     public void removeStore(int location) {
-        Store s = storesMap.get(location);
-        if(s == null) {
-            lastOk = false;
-            if(visible) JOptionPane.showMessageDialog(null, "No se puede eliminar tienda: no existe.");
-            return;
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            Store s = storesMap.get(location);
+            if(s == null) {
+                lastOk = false;
+                if(visible) JOptionPane.showMessageDialog(null, "No se puede eliminar tienda: no existe.");
+                return;
+            }
+            s.makeInvisible();
+            trackStore(location, -s.tenges(), -s.collected());
+            if(ranking != null) ranking.remove(location);
+            storesMap.remove(location);
+            storeIndex.remove(location);
+            if(arrivals != null) arrivals.removeStore(location);
+            if(s.initialTenges() != 0) stockedStores--;
+            if(!s.isEmpty()) nonEmptyStores--;
+            progressBar.removeMax(s.initialTenges());
+            lastOk = true;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.REMOVE_STORE, start, lastOk);
         }
-        s.makeInvisible();
-        storesMap.remove(location);
-        if(visible) progressBar.setMax(sumInitialTenges());
-        lastOk = true;
     }
     
     /**
@@ -199,17 +284,34 @@ public class SilkRoad {
      * @param location ubicación lógica donde se coloca el robot.
      */
     public void placeRobot(int location) {
-        // robots must start at distinct locations
-        for(Robot r: robotsList) {
-            if(r.location() == location) {
-                lastOk = false;
-                if(visible) JOptionPane.showMessageDialog(null, "No se puede colocar robot: ya existe robot en la ubicación inicial.");
-                return;
-            }
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            placeRobot(location, arrivalCounter);
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.PLACE_ROBOT, start, lastOk);
+        }
+    }
+    
+    /**
+     * Coloca un robot con un orden de llegada dado (usado cuando varias carreteras
+     * comparten una misma numeración de robots).
+     *
+     * @param location ubicación lógica donde se coloca el robot.
+     * @param arrivalOrder orden de llegada del robot.
+     */
+    void placeRobot(int location, int arrivalOrder) {
+        // robots must start at distinct locations (and arrival orders are unique per road)
+        if(firstRobotAt(location) != null || robotsByOrder.containsKey(arrivalOrder)) {
+            lastOk = false;
+            if(visible) JOptionPane.showMessageDialog(null, "No se puede colocar robot: ya existe robot en la ubicación inicial.");
+            return;
         }
-        Robot r = new Robot(location, nextColorForRobot(), arrivalCounter++);
-        robotsList.add(r);
+        Robot r = new Robot(location, nextColorForRobot(), arrivalOrder, homeEpoch, ledgerEpoch);
+        arrivalCounter = Math.max(arrivalCounter, arrivalOrder + 1);
+        robotsByOrder.put(arrivalOrder, r);
         robotsMap.computeIfAbsent(location, k -> new ArrayList<>()).add(r);
+        trackRobot(location, 1);
         if(visible) {
             int packed = coordMapper.applyAsInt(location);
             int x = (packed>>16)&0xffff;
@@ -226,23 +328,22 @@ public class SilkRoad {
      * @param location ubicación lógica donde se busca el robot a eliminar.
      */
     public void removeRobot(int location) {
-        // remove the robot that has current location == location and earliest arrivalOrder
-        Robot chosen = null;
-        for(Robot r: robotsList) {
-            if(r.location() == location) {
-                if(chosen == null || r.arrivalOrder() < chosen.arrivalOrder()) chosen = r;
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            // remove the robot that has current location == location and earliest arrivalOrder
+            Robot chosen = firstRobotAt(location);
+            if(chosen == null) {
+                lastOk = false;
+                if(visible) JOptionPane.showMessageDialog(null, "No se puede eliminar robot: no encontrado en esa ubicación.");
+                return;
             }
+            chosen.makeInvisible();
+            forget(chosen);
+            lastOk = true;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.REMOVE_ROBOT, start, lastOk);
         }
-        if(chosen == null) {
-            lastOk = false;
-            if(visible) JOptionPane.showMessageDialog(null, "No se puede eliminar robot: no encontrado en esa ubicación.");
-            return;
-        }
-        chosen.makeInvisible();
-        robotsList.remove(chosen);
-        List<Robot> list = robotsMap.get(location);
-        if(list != null) { list.remove(chosen); if(list.isEmpty()) robotsMap.remove(location); }
-        lastOk = true;
     }
     
     /**
@@ -253,35 +354,54 @@ public class SilkRoad {
      * @param meters desplazamiento en metros (positivo o negativo).
      */
     public void moveRobot(int location, int meters) {
-        // find robot at current location
-        Robot chosen = null;
-        for(Robot r: robotsList) {
-            if(r.location() == location) {
-                if(chosen == null || r.arrivalOrder() < chosen.arrivalOrder()) chosen = r;
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        RobotMoveEvent event = new RobotMoveEvent();
+        event.begin();
+        try {
+            // find robot at current location
+            Robot chosen = firstRobotAt(location);
+            if(chosen == null) {
+                lastOk = false;
+                if(visible) JOptionPane.showMessageDialog(null, "No se puede mover robot: no hay robot en esa ubicación.");
+                return;
             }
+            // apply movement cost
+            profit -= Math.abs(meters); // 1 tenge per meter
+            chosen.moveByMeters(meters, coordMapper);
+            // update robotsMap: remove from old list, add to new
+            List<Robot> oldList = robotsMap.get(location);
+            if(oldList != null) { oldList.remove(chosen); if(oldList.isEmpty()) robotsMap.remove(location); }
+            chosen = updateRobotLocationAfterMove(chosen, meters);
+            int newLoc = chosen.location();
+            robotsMap.computeIfAbsent(newLoc, k -> new ArrayList<>()).add(chosen);
+            awayFromHome.add(chosen);
+            trackRobot(location, -1);
+            trackRobot(newLoc, 1);
+            chosen.addProfit(-Math.abs(meters));
+            // check if there's a store at newLoc with tenges; inside a round the arrival is queued instead
+            Store s = storesMap.get(newLoc);
+            int taken = 0;
+            if(roundArrivals != null) {
+                int clock = roundClock.merge(chosen, Math.abs(meters), Integer::sum);
+                if(s != null && arrivals.arrive(newLoc, clock, chosen.arrivalOrder())) {
+                    roundArrivals.computeIfAbsent(newLoc, k -> new HashMap<>()).put(chosen.arrivalOrder(), chosen);
+                }
+            } else {
+                taken = collect(s, chosen);
+            }
+            if(visible) progressBar.setValue(profit);
+            lastOk = true;
+            if(event.shouldCommit()) {
+                event.robot = chosen.arrivalOrder();
+                event.from = location;
+                event.to = newLoc;
+                event.collected = taken;
+                event.commit();
+            }
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.MOVE_ROBOT, start, lastOk);
         }
-        if(chosen == null) {
-            lastOk = false;
-            if(visible) JOptionPane.showMessageDialog(null, "No se puede mover robot: no hay robot en esa ubicación.");
-            return;
-        }
-        // apply movement cost
-        profit -= Math.abs(meters); // 1 tenge per meter
-        chosen.moveByMeters(meters, pixelScale);
-        // update robotsMap: remove from old list, add to new
-        List<Robot> oldList = robotsMap.get(location);
-        if(oldList != null) { oldList.remove(chosen); if(oldList.isEmpty()) robotsMap.remove(location); }
-        chosen = updateRobotLocationAfterMove(chosen, meters);
-        int newLoc = chosen.location();
-        robotsMap.computeIfAbsent(newLoc, k -> new ArrayList<>()).add(chosen);
-        // check if there's a store at newLoc with tenges
-        Store s = storesMap.get(newLoc);
-        if(s != null && !s.isEmpty()) {
-            int taken = s.collectAll();
-            profit += taken;
-        }
-        if(visible) progressBar.setValue(profit);
-        lastOk = true;
     }
     
     // helper to update robot logical location after movement
@@ -301,59 +421,81 @@ public class SilkRoad {
     
     /**
      * Reabastece todas las tiendas (las deja con sus tenges iniciales).
+     * Solo avanza la época de reabastecimiento: cada tienda se rellena al consultarse.
+     * Si la simulación está visible se redibujan únicamente las tiendas vaciadas desde el último reabastecimiento.
      */
     public void resupplyStores() {
-        for(Store s : storesMap.values()) s.resupply();
-        lastOk = true;
-        if(visible) progressBar.setMax(sumInitialTenges());
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            supplyEpoch.advance();
+            if(arrivals != null) arrivals.resupply();
+            for(Store s : emptiedSinceSupply) {
+                if(storeIndex.get(s.location()) != s) continue; // ya no está en la carretera
+                trackStore(s.location(), s.initialTenges(), 0);
+                if(ranking != null) ranking.refilled(s.location(), s.initialTenges());
+                if(visible) s.tenges(); // aplica el reabastecimiento y redimensiona
+            }
+            emptiedSinceSupply.clear();
+            nonEmptyStores = stockedStores;
+            lastOk = true;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.RESUPPLY_STORES, start, lastOk);
+        }
     }
     
     /**
-     * Regresa todos los robots a sus ubicaciones iniciales (visual y lógicamente) y reconstruye robotsMap.
+     * Regresa todos los robots a sus ubicaciones iniciales (visual y lógicamente).
+     * Solo avanza la época de regreso (cada robot vuelve al consultarse) y corrige en robotsMap
+     * los robots que se movieron desde el último regreso. Si la simulación está visible se reubican
+     * en pantalla solo esos robots: los demás ya están en su ubicación inicial.
      */
     public void returnRobots() {
-        for(Robot r : robotsList) {
-            // move to initial location visually
-            int packed = coordMapper.applyAsInt(r.initialLocation());
-            int x = (packed>>16)&0xffff;
-            int y = packed & 0xffff;
-            r.setPosition(x,y);
-            r.makeVisible();
-            // update logical
-            // remove from robotsMap old lists and reinsert by initial
-        }
-        // rebuild robotsMap
-        robotsMap.clear();
-        for(Robot r : robotsList) {
-            r.makeVisible();
-            robotsMap.computeIfAbsent(r.location(), k -> new ArrayList<>()).add(r);
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            Collection<Robot> moved = sendRobotsHome();
+            if(visible) {
+                for(Robot r : moved) {
+                    int packed = coordMapper.applyAsInt(r.initialLocation());
+                    int x = (packed>>16)&0xffff;
+                    int y = packed & 0xffff;
+                    r.setPosition(x,y);
+                    r.makeVisible();
+                }
+            }
+            lastOk = true;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.RETURN_ROBOTS, start, lastOk);
         }
-        lastOk = true;
     }
     
     /**
      * Reinicia la simulación: reabastece tiendas, pone ganancias a 0 y reposiciona robots a sus iniciales.
+     * Igual que resupplyStores y returnRobots, solo avanza épocas; el trabajo visual se limita a lo que está en pantalla.
      */
     public void reboot() {
-        // restore shops and robots to initial states, profit = 0
-        resupplyStores();
-        profit = 0;
-        for(Robot r : robotsList) {
-            // move visually and logically to initial positions
-            int packed = coordMapper.applyAsInt(r.initialLocation());
-            int x = (packed>>16)&0xffff;
-            int y = packed & 0xffff;
-            r.setPosition(x,y);
-            // logical
-            // here Robot was not given a setter for location, but moveByMeters modifies location relative;
-            // to set exact location we reconstruct robotsMap below
-        }
-        robotsMap.clear();
-        for(Robot r : robotsList) {
-            robotsMap.computeIfAbsent(r.initialLocation(), k -> new ArrayList<>()).add(r);
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            // restore shops and robots to initial states, profit = 0
+            resupplyStores();
+            profit = 0;
+            Collection<Robot> moved = sendRobotsHome();
+            ledgerEpoch.advance();
+            if(visible) {
+                for(Robot r : moved) {
+                    int packed = coordMapper.applyAsInt(r.initialLocation());
+                    int x = (packed>>16)&0xffff;
+                    int y = packed & 0xffff;
+                    r.setPosition(x,y);
+                }
+                progressBar.setValue(profit);
+            }
+            lastOk = true;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.REBOOT, start, lastOk);
         }
-        if(visible) progressBar.setValue(profit);
-        lastOk = true;
     }
     
     /**
@@ -361,9 +503,15 @@ public class SilkRoad {
      * @return ganancia acumulada (puede ser negativa si hubo costes).
      */
     public int porfit() {
-        // spelled as requested; return current profit
-        if(!lastOk && visible) JOptionPane.showMessageDialog(null, "No se puede consultar ganancia en este momento.");
-        return profit;
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            // spelled as requested; return current profit
+            if(!lastOk && visible) JOptionPane.showMessageDialog(null, "No se puede consultar ganancia en este momento.");
+            return profit;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.PORFIT, start, true);
+        }
     }
     
     /**
@@ -372,14 +520,18 @@ public class SilkRoad {
      * @return matriz con tiendas y tenges.
      */
     public int[][] stores() {
-        if(!lastOk && visible) JOptionPane.showMessageDialog(null, "No se puede consultar tiendas en este momento.");
-        // sort by location
-        List<int[]> arr = new ArrayList<>();
-        for(Map.Entry<Integer, Store> e : storesMap.entrySet()) arr.add(new int[]{e.getKey(), e.getValue().tenges()});
-        arr.sort(Comparator.comparingInt(a->a[0]));
-        int[][] out = new int[arr.size()][2];
-        for(int i=0;i<arr.size();i++) out[i] = arr.get(i);
-        return out;
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            if(!lastOk && visible) JOptionPane.showMessageDialog(null, "No se puede consultar tiendas en este momento.");
+            // storeIndex is already sorted by location
+            int[][] out = new int[storeIndex.size()][];
+            int i = 0;
+            for(Store s : storeIndex.values()) out[i++] = new int[]{s.location(), s.tenges()};
+            return out;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.STORES, start, true);
+        }
     }
     
     /**
@@ -388,24 +540,392 @@ public class SilkRoad {
      * @return matriz con robots.
      */
     public int[][] robots() {
-        if(!lastOk && visible) JOptionPane.showMessageDialog(null, "No se puede consultar robots en este momento.");
-        List<int[]> arr = new ArrayList<>();
-        for(Robot r : robotsList) arr.add(new int[]{r.location(), 0});
-        arr.sort(Comparator.comparingInt(a->a[0]));
-        int[][] out = new int[arr.size()][2];
-        for(int i=0;i<arr.size();i++) out[i] = arr.get(i);
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            if(!lastOk && visible) JOptionPane.showMessageDialog(null, "No se puede consultar robots en este momento.");
+            // robotsMap is already sorted by location
+            int[][] out = new int[robotsByOrder.size()][];
+            int i = 0;
+            for(Map.Entry<Integer, List<Robot>> e : robotsMap.entrySet()) {
+                for(int k=0;k<e.getValue().size();k++) out[i++] = new int[]{e.getKey(), 0};
+            }
+            return out;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.ROBOTS, start, true);
+        }
+    }
+    
+    /**
+     * Devuelve el color de cada tienda, en el mismo orden que stores().
+     * @return colores de las tiendas.
+     */
+    String[] storeColors() {
+        String[] out = new String[storeIndex.size()];
+        int i = 0;
+        for(Store s : storeIndex.values()) out[i++] = s.color();
         return out;
     }
+
+    /**
+     * Devuelve el color de cada robot, en el mismo orden que robots().
+     * @return colores de los robots.
+     */
+    String[] robotColors() {
+        String[] out = new String[robotsByOrder.size()];
+        int i = 0;
+        for(List<Robot> here : robotsMap.values()) {
+            for(Robot r : here) out[i++] = r.color();
+        }
+        return out;
+    }
+
+    /**
+     * Devuelve la ganancia acumulada por cada robot, ordenada por ubicación actual.
+     * Cada entrada es {ubicación, ganancia}.
+     * @return matriz con ganancias por robot.
+     */
+    public int[][] profitPerRobot() {
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            int[][] out = new int[robotsByOrder.size()][];
+            int i = 0;
+            for(Robot r : robotsByOrder.values()) out[i++] = new int[]{r.location(), r.profit()};
+            Arrays.sort(out, Comparator.comparingInt(a->a[0]));
+            return out;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.PROFIT_PER_ROBOT, start, true);
+        }
+    }
+    
+    // ----------------- CONSULTAS POR TRAMO -----------------
+    
+    /**
+     * Devuelve los tenges que quedan en las tiendas con ubicación entre `from` y `to` (incluidas).
+     * Se responde en O(log n) con un árbol de sumas sobre las ubicaciones ocupadas (RangeSumTree).
+     *
+     * @param from inicio del tramo.
+     * @param to fin del tramo.
+     * @return tenges disponibles en el tramo.
+     */
+    public long tengesBetween(int from, int to) {
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            return rangeSum(0, from, to);
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.TENGES_BETWEEN, start, true);
+        }
+    }
     
-    // Utility: sum of initial tenges (for progressbar max)
     /**
-     * Suma los tenges iniciales de todas las tiendas (útil para la barra de progreso).
-     * @return suma de tenges iniciales (al menos 1).
+     * Devuelve cuántos robots están ahora entre `from` y `to` (incluidas), en O(log n).
+     *
+     * @param from inicio del tramo.
+     * @param to fin del tramo.
+     * @return robots en el tramo.
      */
-    private int sumInitialTenges() {
-        int s=0;
-        for(Store st : storesMap.values()) s += st.initialTenges();
-        return s == 0 ? 1 : s;
+    public int robotsBetween(int from, int to) {
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            return (int)rangeSum(1, from, to);
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.ROBOTS_BETWEEN, start, true);
+        }
+    }
+    
+    /**
+     * Devuelve los tenges recogidos en las tiendas entre `from` y `to` (incluidas) desde que se
+     * colocaron, en O(log n).
+     *
+     * @param from inicio del tramo.
+     * @param to fin del tramo.
+     * @return tenges recogidos en el tramo.
+     */
+    public long collectedBetween(int from, int to) {
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            return rangeSum(2, from, to);
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.COLLECTED_BETWEEN, start, true);
+        }
+    }
+    
+    /**
+     * Suma una columna (0 tenges, 1 robots, 2 recogido) sobre las ubicaciones en [from, to].
+     * La primera consulta arma el árbol; desde entonces cada cambio lo actualiza en O(log n).
+     */
+    private long rangeSum(int which, int from, int to) {
+        if(aggregates == null) buildAggregates();
+        return aggregates.sum(which, from, to);
+    }
+    
+    /**
+     * Arma el árbol de sumas con las tiendas y robots actuales (O(n log n)).
+     */
+    private void buildAggregates() {
+        aggregates = new RangeSumTree(3);
+        for(Store s : storeIndex.values()) {
+            aggregates.add(s.location(), 0, s.tenges());
+            aggregates.add(s.location(), 2, s.collected());
+        }
+        for(Map.Entry<Integer, List<Robot>> e : robotsMap.entrySet()) {
+            aggregates.add(e.getKey(), 1, e.getValue().size());
+        }
+    }
+    
+    /**
+     * Lleva un cambio de tenges (y de recogido) de la tienda de una ubicación al árbol de sumas.
+     * Una ubicación nueva se inserta en su lugar: nunca hace falta reconstruir.
+     */
+    private void trackStore(int location, long tenges, long collected) {
+        if(aggregates == null) return;
+        aggregates.add(location, 0, tenges);
+        aggregates.add(location, 2, collected);
+    }
+    
+    /**
+     * Lleva la llegada (+1) o salida (-1) de un robot de una ubicación al árbol de sumas.
+     */
+    private void trackRobot(int location, int delta) {
+        if(aggregates != null) aggregates.add(location, 1, delta);
+    }
+    
+    // ----------------- MEJORES TIENDAS -----------------
+    
+    /**
+     * Devuelve las k tiendas con más tenges, sin recorrer todas las tiendas (ver StoreRanking).
+     *
+     * @param k cantidad de tiendas.
+     * @return hasta k filas {ubicación, tenges}, de la más rica a la menos rica.
+     */
+    public int[][] richestStores(int k) {
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            return ranking().richest(k);
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.RICHEST_STORES, start, true);
+        }
+    }
+    
+    /**
+     * Devuelve las k tiendas que más ganancia (tenges - distancia) dejarían a un robot en
+     * `location`: con la ubicación de un robot da sus k mejores destinos.
+     *
+     * @param location ubicación del robot o punto de partida.
+     * @param k cantidad de tiendas.
+     * @return hasta k filas {ubicación, ganancia}, de mayor a menor ganancia.
+     */
+    public int[][] bestTargets(int location, int k) {
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            return ranking().bestTargets(location, k);
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.BEST_TARGETS, start, true);
+        }
+    }
+    
+    /**
+     * Índice de mejores tiendas: se arma en la primera consulta y después se actualiza con cada cambio.
+     */
+    private StoreRanking ranking() {
+        if(ranking == null) ranking = StoreRanking.of(storeIndex.values());
+        return ranking;
+    }
+    
+    // ----------------- SOPORTE PARA SEGMENTOS -----------------
+    
+    /**
+     * Retira el robot que está en `location` (el de menor arrivalOrder) sin cobrar nada.
+     * Se usa para entregar el robot a otra carretera (por ejemplo, otro segmento).
+     *
+     * @param location ubicación lógica actual del robot.
+     * @return el robot retirado, o null si no hay ninguno en esa ubicación.
+     */
+    Robot detachRobot(int location) {
+        Robot chosen = firstRobotAt(location);
+        if(chosen != null) forget(chosen);
+        return chosen;
+    }
+    
+    /**
+     * Retira todos los robots cuya ubicación inicial está fuera de [from, to).
+     *
+     * @param from inicio del rango (incluido).
+     * @param to fin del rango (excluido).
+     * @return robots retirados.
+     */
+    List<Robot> detachRobotsOutside(int from, int to) {
+        List<Robot> out = new ArrayList<>();
+        for(Robot r : robotsByOrder.values()) {
+            if(r.initialLocation() < from || r.initialLocation() >= to) out.add(r);
+        }
+        for(Robot r : out) forget(r);
+        return out;
+    }
+    
+    /**
+     * Recibe un robot que llega desde otra carretera a la ubicación `location`.
+     * Si `collect` es verdadero recoge los tenges de la tienda que encuentre allí.
+     *
+     * @param r robot que llega.
+     * @param location ubicación lógica de llegada.
+     * @param collect si debe recoger los tenges de la tienda.
+     * @return tenges recogidos.
+     */
+    int attachRobot(Robot r, int location, boolean collect) {
+        r.bind(homeEpoch, ledgerEpoch);
+        r.setLocation(location);
+        robotsByOrder.put(r.arrivalOrder(), r);   // vuelve a su lugar por orden de llegada
+        robotsMap.computeIfAbsent(location, k -> new ArrayList<>()).add(r);
+        awayFromHome.add(r);
+        trackRobot(location, 1);
+        arrivalCounter = Math.max(arrivalCounter, r.arrivalOrder() + 1);
+        return collect ? collect(storesMap.get(location), r) : 0;
+    }
+    
+    // ----------------- RECORRIDOS PARA ResultWriter -----------------
+    
+    /**
+     * Recorre las tiendas en orden de ubicación, sin crear arreglos.
+     * @param row recibe {ubicación, tenges} de cada tienda.
+     */
+    void forEachStore(ResultWriter.Row row) {
+        for(Store s : storeIndex.values()) row.accept(s.location(), s.tenges());
+    }
+    
+    /**
+     * Recorre los robots en orden de ubicación, sin crear arreglos.
+     * @param row recibe {ubicación, valor} de cada robot.
+     * @param value segundo campo de cada fila.
+     */
+    void forEachRobot(ResultWriter.Row row, int value) {
+        for(Map.Entry<Integer, List<Robot>> e : robotsMap.entrySet()) {
+            int location = e.getKey();
+            for(int k=0;k<e.getValue().size();k++) row.accept(location, value);
+        }
+    }
+    
+    /**
+     * Devuelve los robots en el orden en que los recorre moveRobots, cada uno empaquetado como
+     * (orden de llegada << 32 | ubicación), para combinar los robots de varias carreteras.
+     * @return robots empaquetados.
+     */
+    long[] robotsByArrival() {
+        long[] out = new long[robotsByOrder.size()];
+        int i = 0;
+        for(Robot r : robotsByOrder.values()) out[i++] = (long)r.arrivalOrder() << 32 | (r.location() & 0xffffffffL);
+        return out;
+    }
+    
+    /**
+     * Suma (o resta) una cantidad a la ganancia global.
+     * @param amount cantidad a sumar.
+     */
+    void addProfit(int amount) { profit += amount; }
+    
+    // ----------------- MÉTRICAS -----------------
+    
+    /**
+     * Engancha (o desengancha, con null) las métricas JMX. Lo llama SilkRoadMetrics
+     * al registrarse y al quitarse del servidor.
+     * @param m métricas a usar, o null para dejar de medir.
+     */
+    void attachMetrics(SilkRoadMetrics m) { metrics = m; }
+    
+    /** @return número de tiendas. */
+    int storeCount() { return storesMap.size(); }
+    
+    /** @return número de robots. */
+    int robotCount() { return robotsByOrder.size(); }
+    
+    /** @return ganancia actual, sin los avisos de porfit(). */
+    int currentProfit() { return profit; }
+    
+    /** @return tiendas que aún tienen tenges. */
+    int nonEmptyStoreCount() { return nonEmptyStores; }
+    
+    /**
+     * Quita un robot de robotsByOrder y de robotsMap (O(log R)).
+     */
+    private void forget(Robot r) {
+        robotsByOrder.remove(r.arrivalOrder());
+        awayFromHome.remove(r);
+        unlink(r);
+        trackRobot(r.location(), -1);
+        if(roundArrivals != null) {
+            // un robot que sale durante la ronda no puede ganar ninguna tienda al cerrarla
+            for(Map.Entry<Integer, Map<Integer, Robot>> e : roundArrivals.entrySet()) {
+                if(e.getValue().remove(r.arrivalOrder()) != null) arrivals.withdraw(e.getKey(), r.arrivalOrder());
+            }
+        }
+    }
+    
+    /**
+     * Quita un robot de la lista de su ubicación actual en robotsMap.
+     */
+    private void unlink(Robot r) {
+        List<Robot> list = robotsMap.get(r.location());
+        if(list != null) { list.remove(r); if(list.isEmpty()) robotsMap.remove(r.location()); }
+    }
+    
+    /**
+     * Avanza la época de regreso y mueve en robotsMap solo los robots que salieron de su
+     * ubicación inicial desde el último regreso (O(movidos), no O(robots)).
+     * @return los robots que volvieron (para reubicarlos en pantalla).
+     */
+    private Collection<Robot> sendRobotsHome() {
+        Set<Robot> moved = awayFromHome;
+        if(!moved.isEmpty()) awayFromHome = new HashSet<>();
+        for(Robot r : moved) {
+            unlink(r);
+            trackRobot(r.location(), -1);
+        }
+        homeEpoch.advance();
+        for(Robot r : moved) {
+            robotsMap.computeIfAbsent(r.location(), k -> new ArrayList<>()).add(r);
+            trackRobot(r.location(), 1);
+        }
+        return moved;
+    }
+    
+    /**
+     * Busca, usando robotsMap, el robot de menor arrivalOrder que está en una ubicación.
+     * @param location ubicación lógica.
+     * @return el robot, o null si no hay ninguno allí.
+     */
+    private Robot firstRobotAt(int location) {
+        List<Robot> here = robotsMap.get(location);
+        if(here == null) return null;
+        Robot chosen = null;
+        for(Robot r : here) {
+            if(chosen == null || r.arrivalOrder() < chosen.arrivalOrder()) chosen = r;
+        }
+        return chosen;
+    }
+    
+    /**
+     * Vacía una tienda a favor de un robot, si aún tiene tenges.
+     * @param s tienda (puede ser null).
+     * @param r robot que recoge.
+     * @return tenges recogidos.
+     */
+    private int collect(Store s, Robot r) {
+        if(s == null || s.isEmpty()) return 0;
+        if(arrivals != null) arrivals.claim(s.location(), r.arrivalOrder()); // mismas cuentas en las colas
+        int taken = s.collectAll();
+        profit += taken;
+        nonEmptyStores--;
+        emptiedSinceSupply.add(s);
+        trackStore(s.location(), -taken, taken);
+        if(ranking != null) ranking.emptied(s.location());
+        r.addProfit(taken);
+        return taken;
     }
     
     // ----------------- NUEVOS MÉTODOS DE SILKROAD -----------------
@@ -413,17 +933,84 @@ public class SilkRoad {
     /**
      * Crear la ruta a partir de un arreglo de días.
      * days[i] = {ubicación, tenges}
+     * Equivale a llamar placeStore por cada día, pero en bloque (ver placeStores).
      *
      * @param days arreglo de días donde cada elemento es {ubicación, tenges}.
      * @return la misma instancia de SilkRoad (permite encadenar llamadas).
      */
     public SilkRoad createFromDays(int[][] days) {
-        for (int[] day : days) {
-            int location = day[0];
-            int tenges = day[1];
-            this.placeStore(location, tenges); // reutiliza método existente
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            placeStores(days);
+            return this;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.CREATE_FROM_DAYS, start, lastOk);
+        }
+    }
+    
+    /**
+     * Coloca muchas tiendas de una vez, con el mismo resultado que llamar placeStore en orden.
+     * Ordena en paralelo las ubicaciones empaquetadas (ubicación << 32 | índice) y en un solo
+     * recorrido se queda con el primer día de cada ubicación libre; las tiendas se crean en el
+     * orden de los días y, si la simulación está visible, el lienzo se redibuja una sola vez.
+     * ok() queda en verdadero solo si se colocaron todas.
+     *
+     * @param days arreglo de días donde cada elemento es {ubicación, tenges}.
+     * @return días rechazados (ubicación repetida u ocupada), cada uno {ubicación, tenges}, en el orden de entrada.
+     */
+    public int[][] placeStores(int[][] days) {
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            int n = days.length;
+            long[] keys = new long[n];
+            for(int i=0;i<n;i++) keys[i] = ((long)days[i][0] << 32) | i;
+            Arrays.parallelSort(keys);
+            boolean[] accepted = new boolean[n];
+            int rejected = 0;
+            for(int k=0;k<n;k++) {
+                int location = (int)(keys[k] >> 32);
+                boolean first = k == 0 || (int)(keys[k-1] >> 32) != location;
+                if(first && !storesMap.containsKey(location) && !robotsMap.containsKey(location)) accepted[(int)keys[k]] = true;
+                else rejected++;
+            }
+            int[][] report = new int[rejected][];
+            int r = 0;
+            if(visible) Canvas.getCanvas().beginBatch();
+            try {
+                for(int i=0;i<n;i++) {
+                    int location = days[i][0];
+                    int tenges = days[i][1];
+                    if(!accepted[i]) {
+                        report[r++] = new int[]{location, tenges};
+                        continue;
+                    }
+                    Store s = new Store(location, tenges, nextColorForStore(), supplyEpoch);
+                    storesMap.put(location, s);
+                    storeIndex.put(location, s);
+                    if(!s.isEmpty()) { stockedStores++; nonEmptyStores++; }
+                    progressBar.addMax(tenges);
+                    trackStore(location, tenges, 0);
+                    if(ranking != null) ranking.add(location, tenges);
+                    if(arrivals != null) arrivals.addStore(location, tenges);
+                    if(visible) {
+                        int packed = coordMapper.applyAsInt(location);
+                        int x = (packed>>16)&0xffff;
+                        int y = packed & 0xffff;
+                        s.setPosition(x,y);
+                        s.makeVisible();
+                    }
+                }
+            } finally {
+                if(visible) Canvas.getCanvas().endBatch();
+            }
+            lastOk = rejected == 0;
+            if(!lastOk && visible) JOptionPane.showMessageDialog(null, "No se pudieron colocar " + rejected + " tiendas: ubicación ocupada.");
+            return report;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.PLACE_STORES, start, lastOk);
         }
-        return this;
     }
     
     /**
@@ -432,42 +1019,101 @@ public class SilkRoad {
      * Actualiza ganancias y visualmente parpadea el robot con mayor ganancia.
      */
     public void moveRobots() {
-        int maxTotalProfit = Integer.MIN_VALUE;
-        Robot topRobot = null;
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        RobotsMoveEvent event = new RobotsMoveEvent();
+        event.begin();
+        int profitBefore = profit;
+        try {
+            int maxTotalProfit = Integer.MIN_VALUE;
+            Robot topRobot = null;
     
-        for (Robot r : robotsList) {
-            int bestLocation = r.location();
-            int bestProfit = 0;
+            for (Robot r : robotsByOrder.values()) {
+                int bestLocation = r.location();
+                int bestProfit = 0;
     
-            // buscar tienda con máximo beneficio
-            for (Store s : storesMap.values()) {
-                int profit = s.tenges() - Math.abs(s.location() - r.location());
-                if (profit > bestProfit) {
-                    bestProfit = profit;
-                    bestLocation = s.location();
+                // buscar tienda con máximo beneficio
+                for (Store s : storesMap.values()) {
+                    int profit = s.tenges() - Math.abs(s.location() - r.location());
+                    if (profit > bestProfit) {
+                        bestProfit = profit;
+                        bestLocation = s.location();
+                    }
                 }
-            }
     
-            // mover robot y recoger tenges
-            moveRobot(r.location(), bestLocation - r.location());
+                // mover robot y recoger tenges
+                moveRobot(r.location(), bestLocation - r.location());
     
-            // revisar ganancias totales
-            int total = r.arrivalOrder() >= 0 ? bestProfit : 0; // opcional: acumulado por robot
-            if (total > maxTotalProfit) {
-                maxTotalProfit = total;
-                topRobot = r;
+                // revisar ganancias totales
+                int total = r.arrivalOrder() >= 0 ? bestProfit : 0; // opcional: acumulado por robot
+                if (total > maxTotalProfit) {
+                    maxTotalProfit = total;
+                    topRobot = r;
+                }
             }
-        }
     
-        // hacer parpadear al robot con mayor ganancia
-        if (topRobot != null && visible) {
-            for (int i = 0; i < 3; i++) { // parpadeo 3 veces
-                topRobot.makeInvisible();
-                Canvas.getCanvas().wait(200);
-                topRobot.makeVisible();
-                Canvas.getCanvas().wait(200);
+            // hacer parpadear al robot con mayor ganancia (3 veces, sin bloquear)
+            if (topRobot != null && visible) {
+                topRobot.blink(3, 200);
+            }
+            if(event.shouldCommit()) {
+                event.robots = robotsByOrder.size();
+                event.collected = profit - profitBefore;
+                event.commit();
             }
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.MOVE_ROBOTS, start, lastOk);
+        }
+    }
+    
+    /**
+     * Abre una ronda de movimientos simultáneos. Hasta endRound, los robots que llegan a una tienda
+     * no la vacían en el momento: su llegada entra en la cola de esa tienda (ArrivalQueues), con
+     * tiempo de llegada igual a los metros que el robot lleva recorridos en la ronda. Así, si varios
+     * robots terminan en la misma tienda (por ejemplo con beginRound(); moveRobots(); endRound();),
+     * quién recoge no depende del orden de las llamadas. Falla si ya hay una ronda abierta.
+     */
+    public void beginRound() {
+        if(roundArrivals != null) {
+            lastOk = false;
+            if(visible) JOptionPane.showMessageDialog(null, "No se puede abrir la ronda: ya hay una abierta.");
+            return;
+        }
+        if(arrivals == null) {
+            int[][] stores = new int[storesMap.size()][];
+            int i = 0;
+            for(Store s : storesMap.values()) stores[i++] = new int[]{s.location(), s.initialTenges()};
+            arrivals = new ArrivalQueues(stores);
+            // las tiendas ya vaciadas en esta época quedan vaciadas también en las colas
+            for(Store s : storesMap.values()) if(s.isEmpty()) arrivals.claim(s.location(), -1);
         }
+        roundArrivals = new HashMap<>();
+        roundClock = new HashMap<>();
+        lastOk = true;
+    }
+    
+    /**
+     * Cierra la ronda abierta y resuelve cada tienda a la que llegaron robots: la recoge el que
+     * llegó primero (menos metros recorridos en la ronda; a igual tiempo, menor arrivalOrder), y
+     * solo si nadie la vació ya en esta época de reabastecimiento. Falla si no hay ronda abierta.
+     */
+    public void endRound() {
+        if(roundArrivals == null) {
+            lastOk = false;
+            if(visible) JOptionPane.showMessageDialog(null, "No se puede cerrar la ronda: no hay ninguna abierta.");
+            return;
+        }
+        arrivals.closeRound();
+        for(Map.Entry<Integer, Map<Integer, Robot>> e : roundArrivals.entrySet()) {
+            int location = e.getKey();
+            if(arrivals.settle(location) == 0) continue;   // vacía desde antes, o no quedaba nada
+            Robot r = e.getValue().get(arrivals.winner(location));
+            if(r != null && robotsByOrder.get(r.arrivalOrder()) == r) collect(storesMap.get(location), r);
+        }
+        roundArrivals = null;
+        roundClock = null;
+        if(visible) progressBar.setValue(profit);
+        lastOk = true;
     }
     
     /**
@@ -478,16 +1124,22 @@ public class SilkRoad {
      * @return matriz con {ubicación, vecesVacía} por tienda.
      */
     public int[][] emptiedStores() {
-        List<int[]> list = new ArrayList<>();
-        for (Store s : storesMap.values()) {
-            // asumimos que se puede calcular con initialTenges != tenges
-            int times = s.initialTenges() - s.tenges(); // aproximación
-            list.add(new int[]{s.location(), times});
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            List<int[]> list = new ArrayList<>();
+            for (Store s : storesMap.values()) {
+                // asumimos que se puede calcular con initialTenges != tenges
+                int times = s.initialTenges() - s.tenges(); // aproximación
+                list.add(new int[]{s.location(), times});
+            }
+            list.sort(Comparator.comparingInt(a -> a[0]));
+            int[][] result = new int[list.size()][2];
+            for (int i = 0; i < list.size(); i++) result[i] = list.get(i);
+            return result;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.EMPTIED_STORES, start, true);
         }
-        list.sort(Comparator.comparingInt(a -> a[0]));
-        int[][] result = new int[list.size()][2];
-        for (int i = 0; i < list.size(); i++) result[i] = list.get(i);
-        return result;
     }
     
     /**
@@ -498,16 +1150,22 @@ public class SilkRoad {
      * @return matriz con ganancias por robot (actualmente usa la ganancia global como aproximación).
      */
     public int[][] profitPerMove() {
-        List<int[]> list = new ArrayList<>();
-        for (Robot r : robotsList) {
-            // Aquí no tenemos historial completo, usamos ganancia total actual como único movimiento
-            int[] arr = new int[]{r.location(), profit}; // si hubiera historial, se agregaría aquí
-            list.add(arr);
-        }
-        list.sort(Comparator.comparingInt(a -> a[0]));
-        int[][] result = new int[list.size()][];
-        for (int i = 0; i < list.size(); i++) result[i] = list.get(i);
-        return result;
+        SilkRoadMetrics m = metrics;
+        long start = m == null ? 0 : System.nanoTime();
+        try {
+            List<int[]> list = new ArrayList<>();
+            for (Robot r : robotsByOrder.values()) {
+                // Aquí no tenemos historial completo, usamos ganancia total actual como único movimiento
+                int[] arr = new int[]{r.location(), profit}; // si hubiera historial, se agregaría aquí
+                list.add(arr);
+            }
+            list.sort(Comparator.comparingInt(a -> a[0]));
+            int[][] result = new int[list.size()][];
+            for (int i = 0; i < list.size(); i++) result[i] = list.get(i);
+            return result;
+        } finally {
+            if(m != null) m.record(SilkRoadMetrics.Operation.PROFIT_PER_MOVE, start, true);
+        }
     }
 
 }
@@ -0,0 +1,321 @@
+import java.awt.geom.Ellipse2D;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Clase SilkRoadBenchmark: mide el rendimiento de los caminos críticos de SilkRoad y Canvas.
+ * Para cada operación y cada tamaño (de 10^2 hasta 10^max entidades) ejecuta varias rondas de
+ * calentamiento y de medición, y reporta operaciones por segundo, bytes asignados por operación
+ * y tasa de asignación (MB/s), equivalente a lo que da JMH con -prof gc.
+ * Corre sin pantalla (java.awt.headless), así que Canvas dibuja solo en memoria.
+ *
+ * Uso: java SilkRoadBenchmark [maxExponente] [filtro]
+ *   maxExponente  mayor potencia de 10 a medir (por defecto 4, máximo 6).
+ *   filtro        solo corre los casos cuyo nombre contiene este texto.
+ * Los casos cuadráticos (placeRobot, Canvas.draw) se saltan cuando n pasa de QUADRATIC_LIMIT.
+ * contendedStores usa todos los núcleos; su B/op y MB/s cuentan solo el hilo que lo lanza.
+ */
+public class SilkRoadBenchmark {
+    private static final int WARMUP = 3;               // rondas de calentamiento
+    private static final int MEASURE = 5;              // rondas medidas
+    private static final int QUADRATIC_LIMIT = 20000;  // mayor n para casos O(n^2)
+    private static final int ROBOTS = 100;             // robots en los casos de movimiento
+    private static final int HOT_STORES = 4;           // tiendas disputadas en contendedStores
+
+    private static volatile long sink;                 // evita que se eliminen resultados
+    private static Object[] canvasShapes = new Object[0]; // figuras de la ronda anterior
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * Caso de prueba: prepara una ronda de tamaño n (fuera de la medición).
+     */
+    private interface Case {
+        Trial prepare(int n);
+    }
+
+    /**
+     * Ronda preparada: ejecuta la parte medida y devuelve cuántas operaciones hizo.
+     */
+    private interface Trial {
+        long run();
+    }
+
+    /**
+     * Constructor del banco de pruebas.
+     */
+    public SilkRoadBenchmark() {
+        threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Punto de entrada.
+     * @param args [maxExponente] [filtro].
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int maxExp = args.length > 0 ? Math.min(6, Integer.parseInt(args[0])) : 4;
+        String filter = args.length > 1 ? args[1] : "";
+        new SilkRoadBenchmark().runAll(maxExp, filter);
+    }
+
+    /**
+     * Corre todos los casos para n = 10^2 .. 10^maxExp.
+     *
+     * @param maxExp mayor potencia de 10.
+     * @param filter texto que debe contener el nombre del caso.
+     */
+    public void runAll(int maxExp, String filter) {
+        LinkedHashMap<String, Case> cases = new LinkedHashMap<>();
+        cases.put("placeStore", SilkRoadBenchmark::placeStore);
+        cases.put("placeRobot", SilkRoadBenchmark::placeRobot);
+        cases.put("moveRobot", SilkRoadBenchmark::moveRobot);
+        cases.put("moveRobots", SilkRoadBenchmark::moveRobots);
+        cases.put("RobotTable.move", SilkRoadBenchmark::robotTableMove);
+        cases.put("travelEvents", SilkRoadBenchmark::travelEvents);
+        cases.put("contendedStores", SilkRoadBenchmark::contendedStores);
+        cases.put("stores", n -> query(n, SilkRoad::stores));
+        cases.put("robots", n -> query(n, SilkRoad::robots));
+        cases.put("emptiedStores", n -> query(n, SilkRoad::emptiedStores));
+        cases.put("writeStores", SilkRoadBenchmark::writeStores);
+        cases.put("createFromDays", SilkRoadBenchmark::createFromDays);
+        cases.put("reboot", SilkRoadBenchmark::reboot);
+        cases.put("Canvas.draw", SilkRoadBenchmark::canvasDraw);
+        Set<String> quadratic = new HashSet<>(Arrays.asList("placeRobot", "Canvas.draw"));
+
+        System.out.printf("%-16s %9s %14s %12s %10s%n", "caso", "n", "ops/s", "B/op", "MB/s");
+        for(Map.Entry<String, Case> e : cases.entrySet()) {
+            if(!e.getKey().contains(filter)) continue;
+            for(int exp = 2; exp <= maxExp; exp++) {
+                int n = (int)Math.pow(10, exp);
+                if(quadratic.contains(e.getKey()) && n > QUADRATIC_LIMIT) continue;
+                measure(e.getKey(), n, e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Mide un caso: calentamiento, rondas medidas y reporte de la mediana.
+     */
+    private void measure(String name, int n, Case c) {
+        for(int i=0;i<WARMUP;i++) c.prepare(n).run();
+        double[] opsPerSec = new double[MEASURE];
+        double[] bytesPerOp = new double[MEASURE];
+        double[] mbPerSec = new double[MEASURE];
+        long tid = Thread.currentThread().getId();
+        for(int i=0;i<MEASURE;i++) {
+            Trial t = c.prepare(n);
+            long bytes0 = threads.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            long ops = t.run();
+            long nanos = Math.max(1, System.nanoTime() - t0);
+            long bytes = threads.getThreadAllocatedBytes(tid) - bytes0;
+            opsPerSec[i] = ops * 1e9 / nanos;
+            bytesPerOp[i] = (double)bytes / Math.max(1, ops);
+            mbPerSec[i] = bytes * 1e9 / nanos / (1024 * 1024);
+        }
+        System.out.printf("%-16s %9d %14.1f %12.1f %10.1f%n", name, n,
+                          median(opsPerSec), median(bytesPerOp), median(mbPerSec));
+    }
+
+    private static double median(double[] v) {
+        double[] c = v.clone();
+        Arrays.sort(c);
+        return c[c.length / 2];
+    }
+
+    // ----------------- CASOS -----------------
+
+    /**
+     * Carretera con n tiendas en ubicaciones distintas y `robots` robots.
+     */
+    private static SilkRoad road(int n, int robots) {
+        SilkRoad r = new SilkRoad(2 * n);
+        Random rnd = new Random(42);
+        for(int i=0;i<n;i++) r.placeStore(2 * i, 1 + rnd.nextInt(1000));
+        for(int i=0;i<robots;i++) r.placeRobot(2 * rnd.nextInt(n) + 1);
+        return r;
+    }
+
+    private static Trial placeStore(int n) {
+        SilkRoad r = new SilkRoad(n);
+        return () -> {
+            for(int i=0;i<n;i++) r.placeStore(i, i + 1);
+            return n;
+        };
+    }
+
+    private static Trial placeRobot(int n) {
+        SilkRoad r = new SilkRoad(n);
+        return () -> {
+            for(int i=0;i<n;i++) r.placeRobot(i);
+            return n;
+        };
+    }
+
+    /**
+     * n movimientos cortos precalculados sobre las ubicaciones ocupadas: moveRobot mueve al
+     * primer robot de la ubicación, así que se siguen ubicaciones y no robots. Cada paso queda
+     * dentro de la carretera y debe salir bien.
+     */
+    private static Trial moveRobot(int n) {
+        SilkRoad r = road(n, ROBOTS);
+        int[][] robots = r.robots();
+        int[] occupied = new int[robots.length];
+        for(int i=0;i<robots.length;i++) occupied[i] = robots[i][0];
+        Random rnd = new Random(7);
+        int[] from = new int[n];
+        int[] meters = new int[n];
+        for(int i=0;i<n;i++) {
+            int k = i % occupied.length;
+            int target = Math.max(0, Math.min(r.length() - 1, occupied[k] + rnd.nextInt(21) - 10));
+            from[i] = occupied[k];
+            meters[i] = target - occupied[k];
+            occupied[k] = target;
+        }
+        return () -> {
+            for(int i=0;i<n;i++) {
+                r.moveRobot(from[i], meters[i]);
+                if(!r.ok()) throw new IllegalStateException("moveRobot falló en el paso " + i);
+            }
+            return n;
+        };
+    }
+
+    private static Trial travelEvents(int n) {
+        SilkRoad r = road(n, Math.max(ROBOTS, n / 10));   // las salidas y llegadas escalan con los robots
+        TravelSimulation sim = new TravelSimulation(r, 3);
+        int[][] robots = r.robots();
+        int[] locations = new int[robots.length];
+        for(int i=0;i<robots.length;i++) locations[i] = robots[i][0];
+        return () -> {
+            // n salidas escalonadas con todos los robots en tránsito a la vez; cada una genera su llegada
+            long events = 0;
+            for(int i=0;i<n;i++) {
+                int k = i % robots.length;
+                int m = (i / robots.length) % 2 == 0 ? 7 : -7;
+                sim.scheduleMove(sim.now() + k * 0.001, locations[k], m);
+                locations[k] += m;
+                if(k == robots.length - 1) events += sim.runAll();
+            }
+            return events + sim.runAll();
+        };
+    }
+
+    private static Trial contendedStores(int n) {
+        int[][] stores = new int[HOT_STORES][];
+        for(int i=0;i<HOT_STORES;i++) stores[i] = new int[]{i, 100};
+        ArrivalQueues q = new ArrivalQueues(stores);
+        return () -> {
+            // n robots de todos los hilos llegan a unas pocas tiendas; pasada la barrera de la
+            // ronda (fin del forEach) se resuelven todas las tiendas a la vez
+            q.resupply();
+            IntStream.range(0, n).parallel().forEach(i -> q.arrive(i % HOT_STORES, n - i, i));
+            sink += q.settleAll();
+            return n;
+        };
+    }
+
+    private static Trial moveRobots(int n) {
+        SilkRoad r = road(n, ROBOTS);
+        return () -> {
+            r.moveRobots();
+            return 1;
+        };
+    }
+
+    /**
+     * Lo mismo que moveRobots, pero con los robots en una RobotTable y las tiendas en arreglos.
+     */
+    private static Trial robotTableMove(int n) {
+        RobotTable t = new RobotTable(ROBOTS);
+        int[] locations = new int[n];
+        int[] tenges = new int[n];
+        Random rnd = new Random(42);
+        for(int i=0;i<n;i++) { locations[i] = 2 * i; tenges[i] = 1 + rnd.nextInt(1000); }
+        for(int i=0;i<ROBOTS;i++) t.add(2 * rnd.nextInt(n) + 1, i, i % 6);
+        return () -> {
+            sink += t.moveRobots(locations, tenges);
+            return 1;
+        };
+    }
+
+    private static Trial query(int n, java.util.function.Function<SilkRoad, int[][]> q) {
+        SilkRoad r = road(n, Math.min(n, ROBOTS));
+        return () -> {
+            int reps = Math.max(1, 1000000 / n);
+            for(int i=0;i<reps;i++) sink += q.apply(r).length;
+            return reps;
+        };
+    }
+
+    private static Trial writeStores(int n) {
+        SilkRoad r = road(n, Math.min(n, ROBOTS));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8 * n);
+        ResultWriter w = new ResultWriter(buffer, ResultWriter.Format.BINARY);
+        return () -> {
+            int reps = Math.max(1, 1000000 / n);
+            for(int i=0;i<reps;i++) {
+                buffer.clear();
+                try {
+                    sink += w.stores(r);
+                } catch(java.io.IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return reps;
+        };
+    }
+
+    private static Trial createFromDays(int n) {
+        int[][] days = new int[n][];
+        Random rnd = new Random(3);
+        for(int i=0;i<n;i++) days[i] = new int[]{rnd.nextInt(4 * n), 1 + rnd.nextInt(1000)};
+        SilkRoad r = new SilkRoad(4 * n);
+        return () -> {
+            r.createFromDays(days);
+            return n;
+        };
+    }
+
+    /**
+     * Cada repetición manda un paso a cada robot (recogiendo la tienda vecina) y reinicia, de modo
+     * que reboot siempre tiene robots que regresar y tiendas que reabastecer. La medición incluye
+     * esos ROBOTS movimientos, cuyo costo por sí solo mide el caso moveRobot.
+     */
+    private static Trial reboot(int n) {
+        SilkRoad r = road(n, ROBOTS);
+        int[][] robots = r.robots();
+        int[] home = new int[robots.length];
+        for(int i=0;i<robots.length;i++) home[i] = robots[i][0];
+        return () -> {
+            int reps = Math.max(1, 100000 / n);
+            for(int i=0;i<reps;i++) {
+                for(int location : home) r.moveRobot(location, -1);
+                r.reboot();
+            }
+            sink += r.porfit();
+            return reps;
+        };
+    }
+
+    private static Trial canvasDraw(int n) {
+        Canvas canvas = Canvas.getCanvas();
+        for(Object ref : canvasShapes) canvas.erase(ref);
+        Object[] refs = new Object[n];
+        canvasShapes = refs;
+        for(int i=0;i<n;i++) {
+            refs[i] = new Object();
+            canvas.draw(refs[i], "blue", new Ellipse2D.Double(i % 300, (i / 300) % 300, 5, 5));
+        }
+        return () -> {
+            // cada draw vuelve a pintar las n figuras (redraw completo)
+            int reps = Math.max(1, Math.min(1000, 1000000 / n));
+            for(int i=0;i<reps;i++) canvas.draw(refs[i % n], "red", new Ellipse2D.Double(i % 300, 10, 5, 5));
+            return reps;
+        };
+    }
+}
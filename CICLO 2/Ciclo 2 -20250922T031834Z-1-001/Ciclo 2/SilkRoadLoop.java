@@ -0,0 +1,275 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Clase SilkRoadLoop: modelo de concurrencia de un solo escritor para SilkRoad.
+ * Todas las modificaciones se envían como comandos a un único hilo escritor que los aplica
+ * en orden sobre una SilkRoad sin interfaz gráfica, por lo que no necesita candados.
+ * Al terminar cada lote de comandos que modificó la carretera, el escritor avanza la versión
+ * y publica una fotografía inmutable (SilkRoadSnapshot) en un campo volátil: leer el estado es
+ * una sola lectura volátil, nunca encola nada ni espera al escritor. La copia de tiendas y robots
+ * cuesta O(S + R) por lote, no por comando: con la cola llena un lote agrupa hasta MAX_BATCH
+ * comandos, así que bajo carga la copia se reparte entre ellos.
+ *
+ * Los clientes pueden ser cualquier cantidad de hilos (incluidos hilos virtuales): cada envío
+ * devuelve un CompletableFuture que se completa con ok() una vez aplicado el lote que contiene
+ * el comando (una lectura posterior de snapshot() ya lo incluye).
+ *
+ * @param length longitud lógica de la carretera SilkRoad.
+ */
+public class SilkRoadLoop {
+    private static final int MAX_BATCH = 1024; // comandos aplicados antes de publicar
+
+    private final SilkRoad road;                       // estado, solo lo toca el escritor
+    private final LinkedBlockingQueue<Command> queue;  // comandos pendientes
+    private final Thread writer;                       // único hilo escritor
+    private volatile SilkRoadSnapshot snapshot;        // última fotografía publicada
+    private volatile boolean running;
+    private long version;                              // última versión publicada (solo el escritor)
+
+    /**
+     * Constructor del ciclo. Arranca el hilo escritor de inmediato.
+     */
+    public SilkRoadLoop(int length) {
+        road = new SilkRoad(length);
+        queue = new LinkedBlockingQueue<>();
+        version = 0;
+        snapshot = SilkRoadSnapshot.of(version, road);
+        running = true;
+        writer = new Thread(this::loop, "silkroad-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Envía un comando arbitrario al escritor.
+     *
+     * @param action modificación a aplicar sobre la SilkRoad.
+     * @return futuro que se completa con ok() tras aplicar el comando.
+     */
+    public CompletableFuture<Boolean> submit(Consumer<SilkRoad> action) {
+        Command c = new Command(action);
+        enqueue(c);
+        return c.done;
+    }
+
+    /**
+     * Coloca una tienda (ver SilkRoad.placeStore).
+     * @param location ubicación lógica.
+     * @param tenges tenges iniciales.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> placeStore(int location, int tenges) {
+        return submit(r -> r.placeStore(location, tenges));
+    }
+
+    /**
+     * Elimina una tienda (ver SilkRoad.removeStore).
+     * @param location ubicación lógica.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> removeStore(int location) {
+        return submit(r -> r.removeStore(location));
+    }
+
+    /**
+     * Coloca un robot (ver SilkRoad.placeRobot).
+     * @param location ubicación lógica.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> placeRobot(int location) {
+        return submit(r -> r.placeRobot(location));
+    }
+
+    /**
+     * Elimina un robot (ver SilkRoad.removeRobot).
+     * @param location ubicación lógica.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> removeRobot(int location) {
+        return submit(r -> r.removeRobot(location));
+    }
+
+    /**
+     * Mueve un robot (ver SilkRoad.moveRobot).
+     * @param location ubicación actual del robot.
+     * @param meters desplazamiento en metros.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> moveRobot(int location, int meters) {
+        return submit(r -> r.moveRobot(location, meters));
+    }
+
+    /**
+     * Mueve todos los robots buscando maximizar ganancias (ver SilkRoad.moveRobots).
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> moveRobots() {
+        return submit(SilkRoad::moveRobots);
+    }
+
+    /**
+     * Reabastece todas las tiendas.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> resupplyStores() {
+        return submit(SilkRoad::resupplyStores);
+    }
+
+    /**
+     * Regresa los robots a sus ubicaciones iniciales.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> returnRobots() {
+        return submit(SilkRoad::returnRobots);
+    }
+
+    /**
+     * Reinicia la simulación.
+     * @return futuro con el resultado de ok().
+     */
+    public CompletableFuture<Boolean> reboot() {
+        return submit(SilkRoad::reboot);
+    }
+
+    /**
+     * Devuelve la última fotografía publicada. Incluye todo comando cuyo futuro ya se completó.
+     * @return fotografía inmutable.
+     */
+    public SilkRoadSnapshot snapshot() { return snapshot; }
+
+    /**
+     * Tiendas de la versión actual.
+     * @return copia de la matriz {ubicación, tenges} ordenada por ubicación.
+     */
+    public int[][] stores() { return snapshot.stores(); }
+
+    /**
+     * Robots de la versión actual.
+     * @return copia de la matriz {ubicación, 0} ordenada por ubicación.
+     */
+    public int[][] robots() { return snapshot.robots(); }
+
+    /**
+     * Ganancia de la versión actual.
+     * @return ganancia acumulada.
+     */
+    public int porfit() { return snapshot.porfit(); }
+
+    /**
+     * Detiene el escritor después de aplicar los comandos ya encolados.
+     * Los envíos posteriores fallan con IllegalStateException.
+     */
+    public void shutdown() {
+        if(!running) return;
+        running = false;
+        queue.add(Command.STOP);
+        try {
+            writer.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejectPending();
+    }
+
+    /**
+     * Encola un comando, o lo rechaza si el ciclo está detenido. Si shutdown ocurre justo
+     * entre la verificación y el encolado, el comando se saca de nuevo y se rechaza: así
+     * ningún futuro queda sin completar aunque el escritor ya haya vaciado la cola.
+     */
+    private void enqueue(Command c) {
+        if(!running) {
+            reject(c);
+            return;
+        }
+        queue.add(c);
+        if(!running && queue.remove(c)) reject(c);
+    }
+
+    /**
+     * Ciclo del escritor: toma un lote de comandos, los aplica en orden, publica la fotografía
+     * si alguno se aplicó y solo entonces completa los futuros del lote.
+     * Un comando que falla (con cualquier Throwable) completa su futuro con el error y el
+     * escritor sigue con el siguiente.
+     */
+    private void loop() {
+        List<Command> batch = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        try {
+            while(!stop) {
+                try {
+                    batch.add(queue.take());
+                } catch(InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+                boolean[] results = new boolean[batch.size()];
+                Throwable[] errors = new Throwable[batch.size()];
+                boolean dirty = false;
+                for(int i=0;i<batch.size();i++) {
+                    Command c = batch.get(i);
+                    if(c == Command.STOP) { stop = true; continue; }
+                    if(stop) { errors[i] = stopped(); continue; }   // llegó después de la orden de detenerse
+                    try {
+                        dirty = true;
+                        c.action.accept(road);
+                        results[i] = road.ok();
+                    } catch(Throwable t) {
+                        errors[i] = t;
+                    }
+                }
+                if(dirty) publish();
+                for(int i=0;i<batch.size();i++) {
+                    Command c = batch.get(i);
+                    if(c == Command.STOP) continue;
+                    if(errors[i] != null) c.done.completeExceptionally(errors[i]);
+                    else c.done.complete(results[i]);
+                }
+                batch.clear();
+            }
+        } finally {
+            running = false;
+            for(Command c : batch) reject(c);   // solo si el escritor terminó a mitad de un lote
+            rejectPending();
+        }
+    }
+
+    /**
+     * Avanza la versión y publica la fotografía del estado actual. Solo la llama el escritor.
+     */
+    private void publish() {
+        snapshot = SilkRoadSnapshot.of(++version, road);
+    }
+
+    /**
+     * Rechaza cualquier comando que haya llegado después de la orden de detenerse.
+     */
+    private void rejectPending() {
+        Command c;
+        while((c = queue.poll()) != null) reject(c);
+    }
+
+    private static void reject(Command c) {
+        if(c != Command.STOP) c.done.completeExceptionally(stopped());
+    }
+
+    private static IllegalStateException stopped() {
+        return new IllegalStateException("SilkRoadLoop detenido");
+    }
+
+    /**
+     * Comando encolado: la acción y el futuro a completar.
+     */
+    private static final class Command {
+        static final Command STOP = new Command(null);
+
+        final Consumer<SilkRoad> action;
+        final CompletableFuture<Boolean> done;
+
+        Command(Consumer<SilkRoad> action) {
+            this.action = action;
+            this.done = new CompletableFuture<>();
+        }
+    }
+}
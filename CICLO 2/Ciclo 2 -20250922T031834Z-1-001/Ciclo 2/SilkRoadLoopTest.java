@@ -0,0 +1,102 @@
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Clase SilkRoadLoopTest: pruebas de SilkRoadLoop contra SilkRoad.
+ * Juega los escenarios de WorkloadGenerator a través del escritor y compara el resultado
+ * con el de la misma secuencia aplicada directamente sobre una SilkRoad.
+ */
+public class SilkRoadLoopTest {
+    private static final long SEED = 42L;
+
+    private Workload workload;
+    private SilkRoadLoop loop;
+
+    @Before
+    public void setUp() {
+        workload = WorkloadGenerator.generate(WorkloadGenerator.Distribution.CLUSTERED, 200, 40, 300, 3, SEED);
+        loop = new SilkRoadLoop(workload.length());
+    }
+
+    @After
+    public void tearDown() {
+        loop.shutdown();
+    }
+
+    @Test
+    public void replaysWorkloadLikeSilkRoad() {
+        SilkRoad expected = workload.run();
+        play(loop, workload).join();
+        assertEquals(expected.porfit(), loop.porfit());
+        assertArrayEquals(expected.stores(), loop.stores());
+        assertArrayEquals(expected.robots(), loop.robots());
+    }
+
+    @Test
+    public void everyDistributionMatchesSilkRoad() {
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 60, 20, 100, 2, SEED);
+            SilkRoadLoop other = new SilkRoadLoop(w.length());
+            try {
+                play(other, w).join();
+                SilkRoad expected = w.run();
+                assertEquals(d.name(), expected.porfit(), other.porfit());
+                assertArrayEquals(d.name(), expected.stores(), other.stores());
+                assertArrayEquals(d.name(), expected.robots(), other.robots());
+            } finally {
+                other.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void completedCommandIsVisibleInSnapshot() {
+        long before = loop.snapshot().version();
+        assertTrue(loop.placeStore(10, 7).join());
+        SilkRoadSnapshot s = loop.snapshot();
+        assertTrue(s.version() > before);
+        assertEquals(1, s.storeCount());
+        assertSame(s, loop.snapshot());
+    }
+
+    @Test
+    public void storesAreCopies() {
+        loop.placeStore(10, 7).join();
+        int[][] stores = loop.stores();
+        stores[0][1] = 0;
+        assertEquals(7, loop.stores()[0][1]);
+    }
+
+    @Test
+    public void failedCommandReportsNotOk() {
+        assertTrue(loop.placeStore(10, 7).join());
+        assertFalse(loop.placeStore(10, 7).join());
+        assertEquals(1, loop.snapshot().storeCount());
+    }
+
+    @Test
+    public void commandsAfterShutdownAreRejected() {
+        loop.shutdown();
+        assertTrue(loop.placeRobot(1).isCompletedExceptionally());
+    }
+
+    /**
+     * Envía el escenario completo al escritor.
+     * @return futuro del último comando (los anteriores se aplican antes, en orden).
+     */
+    static CompletableFuture<Boolean> play(SilkRoadLoop loop, Workload w) {
+        CompletableFuture<Boolean> last = loop.submit(r -> r.createFromDays(w.days()));
+        for(int location : w.robots()) last = loop.placeRobot(location);
+        for(int[] m : w.moves()) last = loop.moveRobot(m[0], m[1]);
+        for(int i=0;i<w.rounds();i++) {
+            loop.moveRobots();
+            last = loop.resupplyStores();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,205 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+/**
+ * Clase SilkRoadMetrics: métricas de una SilkRoad publicadas como MXBean.
+ * Cuenta llamadas, fallos (las que dejan ok() en falso) y un histograma de latencias por cada
+ * método público, y expone medidores en vivo (tiendas, robots, ganancia, tiendas con tenges y
+ * redibujos del Canvas).
+ *
+ * El registro usa contadores repartidos (LongAdder), sin candados en el camino crítico.
+ * La SilkRoad solo mide mientras el MXBean está registrado: al registrarlo se engancha a la
+ * simulación y al quitarlo del servidor se desengancha, dejando el costo en una comparación con null.
+ *
+ * @param road simulación a medir.
+ */
+public class SilkRoadMetrics implements SilkRoadMetricsMXBean, MBeanRegistration {
+    private static final int BUCKETS = 40;  // casillas de 2^i ns (hasta ~9 minutos)
+
+    /**
+     * Métodos públicos medidos.
+     */
+    public enum Operation {
+        PLACE_STORE("placeStore"), REMOVE_STORE("removeStore"), PLACE_ROBOT("placeRobot"),
+        REMOVE_ROBOT("removeRobot"), MOVE_ROBOT("moveRobot"), MOVE_ROBOTS("moveRobots"),
+        RESUPPLY_STORES("resupplyStores"), RETURN_ROBOTS("returnRobots"), REBOOT("reboot"),
+        CREATE_FROM_DAYS("createFromDays"), PLACE_STORES("placeStores"), PORFIT("porfit"), STORES("stores"), ROBOTS("robots"),
+        EMPTIED_STORES("emptiedStores"), PROFIT_PER_MOVE("profitPerMove"), PROFIT_PER_ROBOT("profitPerRobot"),
+        TENGES_BETWEEN("tengesBetween"), ROBOTS_BETWEEN("robotsBetween"), COLLECTED_BETWEEN("collectedBetween"),
+        RICHEST_STORES("richestStores"), BEST_TARGETS("bestTargets");
+
+        private final String method;
+
+        Operation(String method) { this.method = method; }
+
+        /** @return nombre del método en SilkRoad. */
+        public String method() { return method; }
+    }
+
+    private final SilkRoad road;
+    private final LongAdder[] counts;
+    private final LongAdder[] failures;
+    private final LongAdder[] nanos;
+    private final LongAdder[][] histograms;
+
+    /**
+     * Constructor de las métricas. No mide nada hasta registrarse en un MBeanServer.
+     */
+    public SilkRoadMetrics(SilkRoad road) {
+        this.road = road;
+        int n = Operation.values().length;
+        counts = new LongAdder[n];
+        failures = new LongAdder[n];
+        nanos = new LongAdder[n];
+        histograms = new LongAdder[n][BUCKETS];
+        for(int i=0;i<n;i++) {
+            counts[i] = new LongAdder();
+            failures[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+            for(int b=0;b<BUCKETS;b++) histograms[i][b] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra las métricas de una SilkRoad en el servidor de la plataforma.
+     *
+     * @param road simulación a medir.
+     * @param name nombre del objeto, por ejemplo "SilkRoad:type=Metrics,name=principal".
+     * @return las métricas registradas.
+     * @throws JMException si el nombre es inválido o ya está registrado.
+     */
+    public static SilkRoadMetrics register(SilkRoad road, String name) throws JMException {
+        SilkRoadMetrics m = new SilkRoadMetrics(road);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(m, new ObjectName(name));
+        return m;
+    }
+
+    /**
+     * Quita del servidor de la plataforma las métricas registradas con ese nombre,
+     * lo que apaga la medición en su SilkRoad.
+     *
+     * @param name nombre con el que se registraron.
+     * @throws JMException si el nombre es inválido o no está registrado.
+     */
+    public static void unregister(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(name));
+    }
+
+    /**
+     * Anota una llamada terminada. Lo llama SilkRoad al salir de cada método medido.
+     *
+     * @param op método medido.
+     * @param start instante de inicio (System.nanoTime()).
+     * @param ok si la llamada terminó bien.
+     */
+    void record(Operation op, long start, boolean ok) {
+        long elapsed = System.nanoTime() - start;
+        int i = op.ordinal();
+        counts[i].increment();
+        if(!ok) failures[i].increment();
+        nanos[i].add(elapsed);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, elapsed)));
+        histograms[i][bucket].increment();
+    }
+
+    // ----------------- MXBean -----------------
+
+    @Override
+    public Map<String, Long> getCounts() { return sums(counts); }
+
+    @Override
+    public Map<String, Long> getFailures() { return sums(failures); }
+
+    @Override
+    public Map<String, Double> getMeanLatencyMicros() {
+        Map<String, Double> out = new LinkedHashMap<>();
+        for(Operation op : Operation.values()) {
+            long c = counts[op.ordinal()].sum();
+            out.put(op.method(), c == 0 ? 0.0 : nanos[op.ordinal()].sum() / 1000.0 / c);
+        }
+        return out;
+    }
+
+    @Override
+    public Map<String, Double> getP99LatencyMicros() {
+        Map<String, Double> out = new LinkedHashMap<>();
+        for(Operation op : Operation.values()) {
+            long[] h = histogram(op);
+            long total = 0;
+            for(long v : h) total += v;
+            long target = (long)Math.ceil(total * 0.99);
+            long seen = 0;
+            double p99 = 0;
+            for(int b=0;b<h.length && total > 0;b++) {
+                seen += h[b];
+                if(seen >= target) { p99 = (1L << b) / 1000.0; break; }
+            }
+            out.put(op.method(), p99);
+        }
+        return out;
+    }
+
+    @Override
+    public Map<String, long[]> getLatencyHistograms() {
+        Map<String, long[]> out = new LinkedHashMap<>();
+        for(Operation op : Operation.values()) out.put(op.method(), histogram(op));
+        return out;
+    }
+
+    @Override
+    public int getStoreCount() { return road.storeCount(); }
+
+    @Override
+    public int getRobotCount() { return road.robotCount(); }
+
+    @Override
+    public int getProfit() { return road.currentProfit(); }
+
+    @Override
+    public int getNonEmptyStoreCount() { return road.nonEmptyStoreCount(); }
+
+    @Override
+    public long getCanvasRedrawCount() { return Canvas.redrawCount(); }
+
+    @Override
+    public void reset() {
+        for(int i=0;i<counts.length;i++) {
+            counts[i].reset();
+            failures[i].reset();
+            nanos[i].reset();
+            for(LongAdder b : histograms[i]) b.reset();
+        }
+    }
+
+    // ----------------- registro -----------------
+
+    @Override
+    public ObjectName preRegister(MBeanServer server, ObjectName name) { return name; }
+
+    @Override
+    public void postRegister(Boolean registrationDone) {
+        if(Boolean.TRUE.equals(registrationDone)) road.attachMetrics(this);
+    }
+
+    @Override
+    public void preDeregister() { }
+
+    @Override
+    public void postDeregister() {
+        road.attachMetrics(null);
+    }
+
+    private long[] histogram(Operation op) {
+        long[] h = new long[BUCKETS];
+        for(int b=0;b<BUCKETS;b++) h[b] = histograms[op.ordinal()][b].sum();
+        return h;
+    }
+
+    private static Map<String, Long> sums(LongAdder[] adders) {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for(Operation op : Operation.values()) out.put(op.method(), adders[op.ordinal()].sum());
+        return out;
+    }
+}
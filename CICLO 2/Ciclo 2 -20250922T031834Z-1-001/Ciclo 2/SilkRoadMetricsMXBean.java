@@ -0,0 +1,44 @@
+import java.util.Map;
+
+/**
+ * Interfaz SilkRoadMetricsMXBean: lo que SilkRoadMetrics publica por JMX (jconsole, VisualVM...).
+ * Los mapas van de nombre de método público de SilkRoad (placeStore, moveRobot, stores...) al valor.
+ */
+public interface SilkRoadMetricsMXBean {
+    /** @return llamadas por método. */
+    Map<String, Long> getCounts();
+
+    /** @return llamadas que terminaron con ok() en falso, por método. */
+    Map<String, Long> getFailures();
+
+    /** @return latencia media en microsegundos, por método. */
+    Map<String, Double> getMeanLatencyMicros();
+
+    /** @return percentil 99 aproximado de la latencia en microsegundos, por método. */
+    Map<String, Double> getP99LatencyMicros();
+
+    /**
+     * Histograma de latencias por método: la casilla i cuenta las llamadas que tardaron
+     * entre 2^(i-1) y 2^i nanosegundos.
+     * @return histogramas por método.
+     */
+    Map<String, long[]> getLatencyHistograms();
+
+    /** @return número de tiendas. */
+    int getStoreCount();
+
+    /** @return número de robots. */
+    int getRobotCount();
+
+    /** @return ganancia actual. */
+    int getProfit();
+
+    /** @return tiendas que aún tienen tenges. */
+    int getNonEmptyStoreCount();
+
+    /** @return veces que el Canvas se ha redibujado. */
+    long getCanvasRedrawCount();
+
+    /** Pone en cero contadores e histogramas. */
+    void reset();
+}
@@ -0,0 +1,136 @@
+/**
+ * Clase SilkRoadSnapshot: fotografía inmutable y versionada del estado de una SilkRoad.
+ * Guarda las tiendas, los robots y la ganancia tal como estaban al publicarse la versión,
+ * de modo que los lectores pueden consultarla sin bloquear a quien modifica la simulación.
+ * stores() y robots() devuelven copias, de modo que ningún lector puede alterar la fotografía
+ * que ven los demás; para recorrerla sin copiar están storeCount(), robotCount() y los recorridos
+ * forEachStore/forEachRobot.
+ *
+ * @param version número de versión (crece con cada publicación).
+ * @param length longitud lógica de la carretera.
+ * @param stores tiendas {ubicación, tenges} ordenadas por ubicación.
+ * @param robots robots {ubicación, 0} ordenados por ubicación.
+ * @param profit ganancia acumulada en esa versión.
+ * @param storeColors color de cada tienda, en el orden de stores (null si no se conoce).
+ * @param robotColors color de cada robot, en el orden de robots (null si no se conoce).
+ */
+public final class SilkRoadSnapshot {
+    private final long version;      // versión publicada
+    private final int length;        // longitud lógica
+    private final int[][] stores;    // {ubicación, tenges}
+    private final int[][] robots;    // {ubicación, 0}
+    private final int profit;        // ganancia en esta versión
+    private final String[] storeColors;
+    private final String[] robotColors;
+
+    /**
+     * Constructor de la fotografía sin colores. Los arreglos pasan a ser propiedad de la
+     * fotografía y no deben modificarse después.
+     */
+    public SilkRoadSnapshot(long version, int length, int[][] stores, int[][] robots, int profit) {
+        this(version, length, stores, robots, profit, null, null);
+    }
+
+    /**
+     * Constructor de la fotografía con el color de cada tienda y cada robot.
+     */
+    public SilkRoadSnapshot(long version, int length, int[][] stores, int[][] robots, int profit,
+                            String[] storeColors, String[] robotColors) {
+        this.version = version;
+        this.length = length;
+        this.stores = stores;
+        this.robots = robots;
+        this.profit = profit;
+        this.storeColors = storeColors;
+        this.robotColors = robotColors;
+    }
+
+    /**
+     * Toma una fotografía del estado actual de una SilkRoad.
+     * Debe llamarse desde el hilo que modifica la SilkRoad.
+     *
+     * @param version número de versión a asignar.
+     * @param road simulación a fotografiar.
+     * @return fotografía inmutable.
+     */
+    public static SilkRoadSnapshot of(long version, SilkRoad road) {
+        return new SilkRoadSnapshot(version, road.length(), road.stores(), road.robots(), road.porfit(),
+                                    road.storeColors(), road.robotColors());
+    }
+
+    /**
+     * Devuelve la versión de la fotografía.
+     * @return número de versión.
+     */
+    public long version() { return version; }
+
+    /**
+     * Devuelve la longitud lógica de la carretera.
+     * @return longitud.
+     */
+    public int length() { return length; }
+
+    /**
+     * Devuelve la ganancia en esta versión.
+     * @return ganancia acumulada.
+     */
+    public int porfit() { return profit; }
+
+    /**
+     * Devuelve el número de tiendas en esta versión.
+     * @return cantidad de tiendas.
+     */
+    public int storeCount() { return stores.length; }
+
+    /**
+     * Devuelve el número de robots en esta versión.
+     * @return cantidad de robots.
+     */
+    public int robotCount() { return robots.length; }
+
+    /**
+     * Devuelve las tiendas {ubicación, tenges} ordenadas por ubicación.
+     * @return copia de la matriz con tiendas y tenges.
+     */
+    public int[][] stores() { return copy(stores); }
+
+    /**
+     * Devuelve los robots {ubicación, 0} ordenados por ubicación.
+     * @return copia de la matriz con robots.
+     */
+    public int[][] robots() { return copy(robots); }
+
+    /**
+     * Recorre las tiendas {ubicación, tenges} sin copiarlas (para el dibujo).
+     * @param row receptor de cada fila.
+     */
+    void forEachStore(ResultWriter.Row row) {
+        for(int[] s : stores) row.accept(s[0], s[1]);
+    }
+
+    /**
+     * Recorre las ubicaciones de los robots sin copiarlas (para el dibujo).
+     * @param row receptor de cada fila {ubicación, 0}.
+     */
+    void forEachRobot(ResultWriter.Row row) {
+        for(int[] r : robots) row.accept(r[0], r[1]);
+    }
+
+    /**
+     * @param i posición de la tienda en stores().
+     * @return color de la tienda, o null si la fotografía no guarda colores.
+     */
+    String storeColor(int i) { return storeColors == null ? null : storeColors[i]; }
+
+    /**
+     * @param i posición del robot en robots().
+     * @return color del robot, o null si la fotografía no guarda colores.
+     */
+    String robotColor(int i) { return robotColors == null ? null : robotColors[i]; }
+
+    private static int[][] copy(int[][] rows) {
+        int[][] out = new int[rows.length][];
+        for(int i=0;i<rows.length;i++) out[i] = rows[i].clone();
+        return out;
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Clase SimulationRunner: ejecuta muchas simulaciones SilkRoad independientes en paralelo.
+ * El Canvas y la AnimationTimeline son únicos en toda la JVM, así que cada escenario corre dentro
+ * de SilkRoad.headless(...): las SilkRoad que construye rechazan makeVisible y nunca dibujan,
+ * parpadean ni animan nada, y pueden correr junto a las demás sin compartir estado.
+ * Por eso un escenario debe construir sus SilkRoad en el hilo que llama a run(); las que cree
+ * en otros hilos o pools no quedan protegidas.
+ * Los escenarios se reparten en un ForkJoinPool (robo de trabajo) y de cada uno se recogen
+ * la ganancia final, las tiendas vaciadas y la ganancia por robot.
+ *
+ * @param parallelism número de hilos trabajadores del pool.
+ */
+public class SimulationRunner {
+    private final ForkJoinPool pool;   // pool compartido con robo de trabajo
+
+    /**
+     * Escenario independiente: construye una SilkRoad en el hilo que lo llama, la juega
+     * y la devuelve en su estado final.
+     */
+    public interface Scenario {
+        /**
+         * Construye y ejecuta la simulación.
+         * @return la SilkRoad en su estado final (nunca visible).
+         */
+        SilkRoad run();
+
+        /**
+         * Número de operaciones que realiza el escenario, para medir el rendimiento.
+         * @return operaciones realizadas (0 si no se conoce).
+         */
+        default long operations() { return 0; }
+    }
+
+    /**
+     * Constructor con un hilo por núcleo disponible.
+     */
+    public SimulationRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor del ejecutor.
+     */
+    public SimulationRunner(int parallelism) {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /**
+     * Ejecuta todos los escenarios y espera a que terminen.
+     *
+     * @param scenarios escenarios a ejecutar.
+     * @return reporte con los resultados (en el mismo orden) y las métricas agregadas.
+     */
+    public Report run(List<? extends Scenario> scenarios) {
+        Result[] results = new Result[scenarios.size()];
+        long start = System.nanoTime();
+        pool.invoke(new Batch(scenarios, results, 0, results.length));
+        long wall = System.nanoTime() - start;
+        return new Report(Arrays.asList(results), wall, pool.getParallelism());
+    }
+
+    /**
+     * Detiene el pool de trabajadores.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Tarea que divide el rango de escenarios hasta llegar a uno solo.
+     */
+    private static class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends Scenario> scenarios;
+        private final Result[] results;
+        private final int from, to;
+
+        Batch(List<? extends Scenario> scenarios, Result[] results, int from, int to) {
+            this.scenarios = scenarios;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= 1) {
+                if(from < to) results[from] = runOne(from, scenarios.get(from));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Batch(scenarios, results, from, mid), new Batch(scenarios, results, mid, to));
+        }
+
+        private static Result runOne(int index, Scenario scenario) {
+            long start = System.nanoTime();
+            SilkRoad road = SilkRoad.headless(scenario::run);
+            long nanos = System.nanoTime() - start;
+            return new Result(index, road.porfit(), road.emptiedStores(), road.profitPerRobot(),
+                              scenario.operations(), nanos);
+        }
+    }
+
+    /**
+     * Resultado de un escenario.
+     */
+    public static final class Result {
+        private final int index;
+        private final int profit;
+        private final int[][] emptiedStores;
+        private final int[][] robotProfits;
+        private final long operations;
+        private final long nanos;
+
+        Result(int index, int profit, int[][] emptiedStores, int[][] robotProfits, long operations, long nanos) {
+            this.index = index;
+            this.profit = profit;
+            this.emptiedStores = emptiedStores;
+            this.robotProfits = robotProfits;
+            this.operations = operations;
+            this.nanos = nanos;
+        }
+
+        /** @return posición del escenario en la lista de entrada. */
+        public int index() { return index; }
+        /** @return ganancia final de la simulación. */
+        public int porfit() { return profit; }
+        /** @return {ubicación, vecesVacía} por tienda (ver SilkRoad.emptiedStores). */
+        public int[][] emptiedStores() { return emptiedStores; }
+        /** @return {ubicación, ganancia} por robot (ver SilkRoad.profitPerRobot). */
+        public int[][] robotProfits() { return robotProfits; }
+        /** @return operaciones realizadas por el escenario. */
+        public long operations() { return operations; }
+        /** @return tiempo que tardó el escenario en nanosegundos. */
+        public long nanos() { return nanos; }
+    }
+
+    /**
+     * Reporte de una ejecución: resultados por escenario y métricas agregadas.
+     */
+    public static final class Report {
+        private final List<Result> results;
+        private final long wallNanos;
+        private final int parallelism;
+
+        Report(List<Result> results, long wallNanos, int parallelism) {
+            this.results = Collections.unmodifiableList(results);
+            this.wallNanos = wallNanos;
+            this.parallelism = parallelism;
+        }
+
+        /** @return resultados en el orden de los escenarios. */
+        public List<Result> results() { return results; }
+        /** @return tiempo total de pared en nanosegundos. */
+        public long wallNanos() { return wallNanos; }
+        /** @return número de hilos usados. */
+        public int parallelism() { return parallelism; }
+
+        /**
+         * Suma de los tiempos de cada escenario (lo que tardaría en un solo hilo).
+         * @return tiempo ocupado en nanosegundos.
+         */
+        public long busyNanos() {
+            long s = 0;
+            for(Result r : results) s += r.nanos();
+            return s;
+        }
+
+        /**
+         * Suma de las operaciones de todos los escenarios.
+         * @return operaciones totales.
+         */
+        public long operations() {
+            long s = 0;
+            for(Result r : results) s += r.operations();
+            return s;
+        }
+
+        /** @return escenarios terminados por segundo. */
+        public double scenariosPerSecond() { return results.size() * 1e9 / Math.max(1, wallNanos); }
+        /** @return operaciones por segundo (0 si los escenarios no las informan). */
+        public double operationsPerSecond() { return operations() * 1e9 / Math.max(1, wallNanos); }
+        /** @return aceleración respecto a ejecutar todo en un solo hilo. */
+        public double speedup() { return (double)busyNanos() / Math.max(1, wallNanos); }
+        /** @return eficiencia paralela (aceleración / hilos), 1.0 es escalado lineal. */
+        public double efficiency() { return speedup() / parallelism; }
+
+        @Override
+        public String toString() {
+            return String.format("%d escenarios en %.1f ms con %d hilos: %.1f esc/s, %.0f ops/s, aceleración %.2fx (eficiencia %.0f%%)",
+                results.size(), wallNanos / 1e6, parallelism, scenariosPerSecond(),
+                operationsPerSecond(), speedup(), efficiency() * 100);
+        }
+    }
+}
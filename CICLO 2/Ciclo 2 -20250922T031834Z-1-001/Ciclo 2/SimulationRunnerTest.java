@@ -0,0 +1,75 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Clase SimulationRunnerTest: pruebas de SimulationRunner.
+ * Compara los resultados de escenarios de WorkloadGenerator jugados en paralelo con los de
+ * jugarlos uno por uno, y verifica que las simulaciones del ejecutor nunca se hagan visibles.
+ */
+public class SimulationRunnerTest {
+    private SimulationRunner runner;
+
+    @Before
+    public void setUp() {
+        runner = new SimulationRunner(4);
+    }
+
+    @After
+    public void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    public void parallelResultsMatchSequentialSilkRoad() {
+        List<Workload> workloads = new ArrayList<>();
+        long seed = 1;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            for(int i=0;i<4;i++) workloads.add(WorkloadGenerator.generate(d, 80, 20, 150, 2, seed++));
+        }
+        SimulationRunner.Report report = runner.run(workloads);
+        assertEquals(workloads.size(), report.results().size());
+        for(int i=0;i<workloads.size();i++) {
+            SilkRoad expected = workloads.get(i).run();
+            SimulationRunner.Result r = report.results().get(i);
+            assertEquals(i, r.index());
+            assertEquals(workloads.get(i).name(), expected.porfit(), r.porfit());
+            assertTrue(Arrays.deepEquals(expected.emptiedStores(), r.emptiedStores()));
+            assertTrue(Arrays.deepEquals(expected.profitPerRobot(), r.robotProfits()));
+        }
+    }
+
+    @Test
+    public void runnerRoadsRefuseToBeVisible() {
+        SilkRoad[] built = new SilkRoad[1];
+        boolean[] shown = new boolean[1];
+        runner.run(Arrays.asList(() -> {
+            SilkRoad road = new SilkRoad(100);
+            road.makeVisible();
+            shown[0] = road.ok();
+            road.placeStore(10, 50);
+            road.placeRobot(0);
+            road.moveRobots();
+            built[0] = road;
+            return road;
+        }));
+        assertFalse(shown[0]);
+        assertEquals(40, built[0].porfit());
+    }
+
+    @Test
+    public void headlessOnlyMarksRoadsBuiltInside() {
+        SilkRoad inside = SilkRoad.headless(() -> new SilkRoad(10));
+        inside.makeVisible();
+        assertFalse(inside.ok());
+        SilkRoad outside = new SilkRoad(10);
+        outside.placeStore(1, 1);
+        assertTrue(outside.ok());
+    }
+}
@@ -2,6 +2,9 @@
  * Clase Store: representa una tienda en la SilkRoad.
  * Cada tienda tiene una ubicación, una cantidad inicial de tenges y una cantidad actual.
  * Se representa visualmente con un rectángulo que cambia de tamaño según esté vacía o no.
+ * El rectángulo solo existe mientras la tienda está visible: se arma en makeVisible a partir del
+ * estado de la tienda (posición, color y tenges) y se suelta en makeInvisible, así que una
+ * simulación que nunca se muestra no guarda figuras.
  *
  * @param location ubicación lógica de la tienda.
  * @param tenges cantidad inicial de tenges que posee la tienda.
@@ -11,22 +14,35 @@ public class Store {
     private int location;           // coordenada lógica (entero)
     private int initialTenges;      // tenges al colocarla
     private int tenges;             // tenges actuales (puede vaciarse)
-    private Rectangle shape;        // representación visual
+    private long collected;         // tenges recogidos desde que se colocó
+    private Rectangle shape;        // representación visual (null mientras está oculta)
     private String color;           // color visual de la tienda
+    private int x = 70, y = 15;     // posición en el lienzo (en píxeles)
     private boolean visible;        // estado de visibilidad
+    private boolean labelled;       // ya cambió de tenges (se recogió o se reabasteció) al menos una vez
+    private Epoch supply;           // época de reabastecimiento (null si no se comparte)
+    private int seenSupply;         // última época de reabastecimiento aplicada
 
     /**
      * Constructor de la tienda.
      */
     public Store(int location, int tenges, String color) {
+        this(location, tenges, color, null);
+    }
+
+    /**
+     * Constructor de una tienda que se reabastece sola cuando avanza la época `supply`.
+     *
+     * @param supply época de reabastecimiento de la carretera (puede ser null).
+     */
+    public Store(int location, int tenges, String color, Epoch supply) {
+        this.supply = supply;
+        this.seenSupply = supply == null ? 0 : supply.current();
         this.location = location;
         this.initialTenges = tenges;
         this.tenges = tenges;
         this.color = color;
-        this.shape = new Rectangle();
         this.visible = false;
-        shape.changeSize(24, 36);
-        shape.changeColor(color);
     }
 
     /**
@@ -39,7 +55,10 @@ public class Store {
      * Devuelve la cantidad de tenges actuales en la tienda.
      * @return tenges actuales.
      */
-    public int tenges() { return tenges; }
+    public int tenges() {
+        refresh();
+        return tenges;
+    }
 
     /**
      * Devuelve la cantidad inicial de tenges de la tienda.
@@ -47,11 +66,19 @@ public class Store {
      */
     public int initialTenges() { return initialTenges; }
 
+    /**
+     * Devuelve el total de tenges que los robots han recogido en esta tienda.
+     * @return tenges recogidos desde que se colocó.
+     */
+    public long collected() { return collected; }
+
     /**
      * Restablece la cantidad de tenges a su valor inicial.
      */
     public void resupply() {
+        if(supply != null) seenSupply = supply.current();
         this.tenges = this.initialTenges;
+        labelled = true;
         updateLabel();
     }
 
@@ -60,8 +87,11 @@ public class Store {
      * @return cantidad de tenges recogidos.
      */
     public int collectAll() {
+        refresh();
         int taken = this.tenges;
         this.tenges = 0;
+        collected += taken;
+        labelled = true;
         updateLabel();
         return taken;
     }
@@ -71,9 +101,16 @@ public class Store {
      * @return true si no tiene tenges, false en caso contrario.
      */
     public boolean isEmpty() {
+        refresh();
         return this.tenges == 0;
     }
 
+    /**
+     * Devuelve el color visual de la tienda.
+     * @return color de la tienda.
+     */
+    public String color() { return color; }
+
     /**
      * Cambia el color visual de la tienda.
      *
@@ -81,15 +118,20 @@ public class Store {
      */
     public void setColor(String color) {
         this.color = color;
-        shape.changeColor(color);
+        if(shape != null) shape.changeColor(color);
     }
 
     /**
      * Hace visible la tienda en el lienzo.
      */
     public void makeVisible() {
+        refresh();
         if(!visible) {
             visible = true;
+            shape = new Rectangle();
+            shape.changeColor(color);
+            shape.moveTo(x, y);
+            updateLabel();
             shape.makeVisible();
         }
     }
@@ -100,29 +142,47 @@ public class Store {
     public void makeInvisible() {
         if(visible) {
             shape.makeInvisible();
+            shape = null;
             visible = false;
         }
     }
 
     /**
-     * Establece la posición visual de la tienda en el lienzo.
+     * Establece la posición visual de la tienda en el lienzo (posición absoluta, un solo redibujo).
+     * No cambia la visibilidad: si la tienda está oculta solo se guarda la posición.
      *
      * @param x coordenada X en píxeles.
      * @param y coordenada Y en píxeles.
      */
     public void setPosition(int x, int y) {
-        shape.makeVisible();
-        int dx = x - 70;
-        int dy = y - 15;
-        shape.moveHorizontal(dx);
-        shape.moveVertical(dy);
+        this.x = x;
+        this.y = y;
+        if(shape != null) shape.moveTo(x, y);
+    }
+
+    /**
+     * Aplica un reabastecimiento pendiente si la época avanzó desde la última consulta.
+     * Solo se redimensiona el rectángulo si está en pantalla; si no, makeVisible lo arma ya con el tamaño correcto.
+     */
+    private void refresh() {
+        if(supply == null || seenSupply == supply.current()) return;
+        seenSupply = supply.current();
+        boolean first = !labelled;
+        labelled = true;
+        if(tenges == initialTenges && !first) return;
+        tenges = initialTenges;
+        updateLabel();
     }
 
     /**
-     * Actualiza la representación visual de la tienda según esté vacía o no.
+     * Actualiza la representación visual de la tienda según esté vacía o no (si está en pantalla).
+     * Hasta que sus tenges cambian por primera vez la tienda conserva el tamaño inicial de 24x36.
      */
     private void updateLabel() {
-        if(tenges == 0) {
+        if(shape == null) return;
+        if(!labelled) {
+            shape.changeSize(24, 36);
+        } else if(tenges == 0) {
             shape.changeSize(18, 28);
         } else {
             shape.changeSize(30, 44);
@@ -0,0 +1,417 @@
+import java.util.*;
+
+/**
+ * Clase StoreRanking: índices para preguntar por las mejores tiendas sin recorrerlas todas.
+ * Se arma sobre las tiendas de una SilkRoad (ubicaciones ordenadas) y responde:
+ *   - richest(k): las k tiendas con más tenges, con un montículo de máximos con borrado perezoso.
+ *     Vaciar o quitar una tienda no la saca del montículo: solo invalida su entrada (cada tienda
+ *     lleva un sello que cambia al vaciarse, reabastecerse o agregarse) y la entrada vieja se
+ *     descarta cuando llega a la cima. Reabastecer agrega una entrada nueva.
+ *   - bestTargets(p, k): las k tiendas con mayor ganancia tenges - |ubicación - p|. Para las tiendas
+ *     a la derecha de p la ganancia es (tenges - ubicación) + p y a la izquierda (tenges + ubicación) - p,
+ *     así que cada nodo guarda la mejor tienda de su subárbol para cada lado y una búsqueda por
+ *     orden de mejor primero (partiendo el rango en la tienda elegida) da las siguientes en O(k log n).
+ * Solo cuentan las tiendas con tenges positivos. Las dos consultas devuelven {ubicación, valor}
+ * ordenadas de mejor a peor (a igual valor, la de menor ubicación primero).
+ *
+ * Las tiendas viven en un árbol balanceado (treap) por ubicación, con los nodos en arreglos
+ * primitivos como en RangeSumTree, así que la SilkRoad lo mantiene al día en O(log n) por cambio:
+ * emptied/refilled cuando cambian los tenges y add/remove cuando se coloca o se quita una tienda.
+ *
+ * @param locations ubicaciones de las tiendas, en orden creciente.
+ * @param tenges tenges actuales de cada tienda.
+ */
+public class StoreRanking {
+    private static final long NONE = Long.MIN_VALUE / 4;   // tienda vacía en los árboles
+
+    // nodos del treap (el nodo 0 es el vacío); los liberados se reutilizan
+    private int[] location = new int[16];
+    private int[] tenges = new int[16];
+    private int[] stamp = new int[16];       // sello vigente de cada nodo
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] priority = new int[16];
+    private int[] bestRight = new int[16];   // mejor nodo del subárbol por tenges - ubicación
+    private int[] bestLeft = new int[16];    // mejor nodo del subárbol por tenges + ubicación
+    private int[] free = new int[16];
+    private int freeCount;
+    private int nodes = 1;
+    private int size;
+    private int root;
+    private int clock;                       // fuente de sellos: nunca se repiten
+    private int seed = 0x2545F491;
+    private int splitLeft, splitRight;       // resultado de split
+    // montículo de máximos: clave (tenges << 32 | desempate por ubicación) y sello de la entrada
+    private long[] heapKey;
+    private int[] heapStamp;
+    private int heapSize;
+
+    /**
+     * Constructor del índice en O(n): arma el treap de una vez a partir de las ubicaciones ordenadas.
+     */
+    public StoreRanking(int[] locations, int[] tenges) {
+        int n = locations.length;
+        heapKey = new long[Math.max(16, n)];
+        heapStamp = new int[heapKey.length];
+        int[] spine = new int[n + 1];        // camino derecho del árbol armado hasta ahora
+        int depth = 0;
+        for(int i=0;i<n;i++) {
+            int t = newNode(locations[i], tenges[i]);
+            int last = 0;
+            while(depth > 0 && priority[spine[depth - 1]] < priority[t]) last = spine[--depth];
+            left[t] = last;
+            if(depth > 0) right[spine[depth - 1]] = t;
+            spine[depth++] = t;
+            if(tenges[i] > 0) {
+                heapKey[heapSize] = key(t);
+                heapStamp[heapSize++] = stamp[t];
+            }
+        }
+        root = depth > 0 ? spine[0] : 0;
+        pullAll(root);
+        for(int i = heapSize / 2 - 1; i >= 0; i--) siftDown(i);
+    }
+
+    /**
+     * Arma el índice con las tiendas de una carretera, en el orden de ubicación del mapa.
+     * @param stores tiendas ordenadas por ubicación.
+     * @return índice nuevo.
+     */
+    static StoreRanking of(Collection<Store> stores) {
+        int[] locs = new int[stores.size()];
+        int[] amounts = new int[locs.length];
+        int i = 0;
+        for(Store s : stores) {
+            locs[i] = s.location();
+            amounts[i++] = s.tenges();
+        }
+        return new StoreRanking(locs, amounts);
+    }
+
+    /**
+     * Devuelve la cantidad de tiendas del índice.
+     * @return tiendas.
+     */
+    public int size() { return size; }
+
+    /**
+     * Agrega una tienda (si ya había una en esa ubicación, solo cambia sus tenges).
+     * @param location ubicación de la tienda.
+     * @param amount tenges que tiene.
+     */
+    public void add(int location, int amount) {
+        if(find(location) != 0) {
+            refilled(location, amount);
+            return;
+        }
+        int t = newNode(location, amount);
+        split(root, location);
+        root = merge(merge(splitLeft, t), splitRight);
+        if(amount > 0) push(key(t), stamp[t]);
+        if(heapSize > 2 * size + 16) compact();
+    }
+
+    /**
+     * Quita una tienda; su entrada en el montículo se descarta después.
+     * @param location ubicación de la tienda.
+     */
+    public void remove(int location) {
+        if(find(location) != 0) root = erase(root, location);
+    }
+
+    /**
+     * Avisa que una tienda quedó vacía (su entrada en el montículo se descarta después).
+     * @param location ubicación de la tienda.
+     */
+    public void emptied(int location) {
+        set(location, 0);
+    }
+
+    /**
+     * Avisa que una tienda se reabasteció.
+     * @param location ubicación de la tienda.
+     * @param amount tenges que tiene ahora.
+     */
+    public void refilled(int location, int amount) {
+        set(location, amount);
+    }
+
+    /**
+     * Devuelve las k tiendas con más tenges.
+     * @param k cantidad pedida.
+     * @return hasta k filas {ubicación, tenges}.
+     */
+    public int[][] richest(int k) {
+        int[] found = new int[Math.max(0, Math.min(k, size))];
+        int count = 0;
+        while(count < found.length && heapSize > 0) {
+            long top = heapKey[0];
+            int topStamp = heapStamp[0];
+            pop();
+            int t = find(locationOf(top));
+            if(t == 0 || topStamp != stamp[t] || tenges[t] <= 0) continue;  // entrada vieja: se descarta
+            found[count++] = t;
+        }
+        int[][] out = new int[count][];
+        for(int j=0;j<count;j++) {
+            int t = found[j];
+            out[j] = new int[]{location[t], tenges[t]};
+            push(key(t), stamp[t]);   // las vigentes vuelven al montículo
+        }
+        return out;
+    }
+
+    /**
+     * Devuelve las k tiendas que más ganancia dejarían a un robot en `position`.
+     * @param position ubicación del robot.
+     * @param k cantidad pedida.
+     * @return hasta k filas {ubicación, tenges - distancia}.
+     */
+    public int[][] bestTargets(int position, int k) {
+        // candidato: {valor, lado (1 derecha, 0 izquierda), desde, hasta, ubicación}, rangos cerrados
+        PriorityQueue<long[]> frontier = new PriorityQueue<>((a, b) ->
+            a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(a[4], b[4]));
+        offer(frontier, position, true, position, Integer.MAX_VALUE);
+        offer(frontier, position, false, Integer.MIN_VALUE, (long)position - 1);
+        int[][] out = new int[Math.max(0, Math.min(k, size))][];
+        int count = 0;
+        while(count < out.length && !frontier.isEmpty()) {
+            long[] c = frontier.poll();
+            boolean side = c[1] == 1;
+            out[count++] = new int[]{(int)c[4], (int)Math.max(Integer.MIN_VALUE, c[0])};
+            offer(frontier, position, side, c[2], c[4] - 1);
+            offer(frontier, position, side, c[4] + 1, c[3]);
+        }
+        return count == out.length ? out : Arrays.copyOf(out, count);
+    }
+
+    // ----------------- internos -----------------
+
+    private void set(int k, int amount) {
+        int t = find(k);
+        if(t == 0) return;
+        tenges[t] = amount;
+        stamp[t] = ++clock;
+        if(amount > 0) push(key(t), stamp[t]);
+        if(heapSize > 2 * size + 16) compact();
+        repair(root, k);
+    }
+
+    /**
+     * Recalcula las mejores tiendas en el camino desde t hasta la clave k.
+     */
+    private void repair(int t, int k) {
+        if(location[t] != k) repair(k < location[t] ? left[t] : right[t], k);
+        pull(t);
+    }
+
+    /**
+     * Agrega al frente de búsqueda la mejor tienda con ubicación en [from, to] de un lado, si hay alguna.
+     */
+    private void offer(PriorityQueue<long[]> frontier, int position, boolean rightSide, long from, long to) {
+        if(from > to) return;
+        int best = best(root, from, to, rightSide, false, false);
+        if(best == 0 || tenges[best] <= 0) return;
+        long value = rightSide ? score(best, true) + position : score(best, false) - position;
+        frontier.add(new long[]{value, rightSide ? 1 : 0, from, to, location[best]});
+    }
+
+    /**
+     * Mejor nodo de un lado con ubicación en [from, to] dentro del subárbol t. Los indicadores dicen
+     * si ya se sabe que todo el subárbol cumple la cota de abajo o la de arriba.
+     */
+    private int best(int t, long from, long to, boolean rightSide, boolean aboveFrom, boolean belowTo) {
+        if(t == 0) return 0;
+        if(aboveFrom && belowTo) return rightSide ? bestRight[t] : bestLeft[t];
+        if(location[t] < from) return best(right[t], from, to, rightSide, aboveFrom, belowTo);
+        if(location[t] > to) return best(left[t], from, to, rightSide, aboveFrom, belowTo);
+        int found = pick(best(left[t], from, to, rightSide, aboveFrom, true), t, rightSide);
+        return pick(found, best(right[t], from, to, rightSide, true, belowTo), rightSide);
+    }
+
+    /**
+     * Elige la tienda con mayor puntaje (a igual puntaje, la de menor ubicación).
+     */
+    private int pick(int a, int b, boolean rightSide) {
+        if(a == 0) return b;
+        if(b == 0) return a;
+        long sa = score(a, rightSide), sb = score(b, rightSide);
+        if(sa != sb) return sa > sb ? a : b;
+        return location[a] < location[b] ? a : b;
+    }
+
+    private long score(int t, boolean rightSide) {
+        if(tenges[t] <= 0) return NONE;
+        return rightSide ? (long)tenges[t] - location[t] : (long)tenges[t] + location[t];
+    }
+
+    private void pull(int t) {
+        bestRight[t] = pick(pick(bestRight[left[t]], t, true), bestRight[right[t]], true);
+        bestLeft[t] = pick(pick(bestLeft[left[t]], t, false), bestLeft[right[t]], false);
+    }
+
+    private void pullAll(int t) {
+        if(t == 0) return;
+        pullAll(left[t]);
+        pullAll(right[t]);
+        pull(t);
+    }
+
+    private int find(int k) {
+        int t = root;
+        while(t != 0 && location[t] != k) t = k < location[t] ? left[t] : right[t];
+        return t;
+    }
+
+    /**
+     * Parte un subárbol en ubicaciones menores que k (splitLeft) y mayores o iguales (splitRight).
+     */
+    private void split(int t, int k) {
+        if(t == 0) {
+            splitLeft = splitRight = 0;
+            return;
+        }
+        if(location[t] < k) {
+            split(right[t], k);
+            right[t] = splitLeft;
+            pull(t);
+            splitLeft = t;
+        } else {
+            split(left[t], k);
+            left[t] = splitRight;
+            pull(t);
+            splitRight = t;
+        }
+    }
+
+    /**
+     * Une dos subárboles donde todas las ubicaciones de a son menores que las de b.
+     */
+    private int merge(int a, int b) {
+        if(a == 0) return b;
+        if(b == 0) return a;
+        if(priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            pull(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        pull(b);
+        return b;
+    }
+
+    private int erase(int t, int k) {
+        if(location[t] == k) {
+            int m = merge(left[t], right[t]);
+            free[freeCount++] = t;
+            size--;
+            return m;
+        }
+        if(k < location[t]) left[t] = erase(left[t], k);
+        else right[t] = erase(right[t], k);
+        pull(t);
+        return t;
+    }
+
+    private int newNode(int k, int amount) {
+        int t;
+        if(freeCount > 0) {
+            t = free[--freeCount];
+        } else {
+            if(nodes == location.length) grow();
+            t = nodes++;
+        }
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        location[t] = k;
+        tenges[t] = amount;
+        stamp[t] = ++clock;
+        left[t] = right[t] = 0;
+        priority[t] = seed;
+        bestRight[t] = bestLeft[t] = t;
+        size++;
+        return t;
+    }
+
+    private void grow() {
+        int c = location.length * 2;
+        location = Arrays.copyOf(location, c);
+        tenges = Arrays.copyOf(tenges, c);
+        stamp = Arrays.copyOf(stamp, c);
+        left = Arrays.copyOf(left, c);
+        right = Arrays.copyOf(right, c);
+        priority = Arrays.copyOf(priority, c);
+        bestRight = Arrays.copyOf(bestRight, c);
+        bestLeft = Arrays.copyOf(bestLeft, c);
+        free = Arrays.copyOf(free, c);
+    }
+
+    /**
+     * Clave del montículo: más tenges primero y, a igual cantidad, menor ubicación.
+     */
+    private long key(int t) {
+        return (long)tenges[t] << 32 | (0xffffffffL - ((location[t] ^ Integer.MIN_VALUE) & 0xffffffffL));
+    }
+
+    private static int locationOf(long key) {
+        return (int)(0xffffffffL - (key & 0xffffffffL)) ^ Integer.MIN_VALUE;
+    }
+
+    private void push(long key, int entryStamp) {
+        if(heapSize == heapKey.length) {
+            heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+            heapStamp = Arrays.copyOf(heapStamp, heapSize * 2);
+        }
+        int i = heapSize++;
+        while(i > 0) {
+            int parent = (i - 1) >> 1;
+            if(heapKey[parent] >= key) break;
+            heapKey[i] = heapKey[parent];
+            heapStamp[i] = heapStamp[parent];
+            i = parent;
+        }
+        heapKey[i] = key;
+        heapStamp[i] = entryStamp;
+    }
+
+    private void pop() {
+        heapSize--;
+        if(heapSize == 0) return;
+        heapKey[0] = heapKey[heapSize];
+        heapStamp[0] = heapStamp[heapSize];
+        siftDown(0);
+    }
+
+    private void siftDown(int i) {
+        long key = heapKey[i];
+        int entryStamp = heapStamp[i];
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= heapSize) break;
+            if(child + 1 < heapSize && heapKey[child + 1] > heapKey[child]) child++;
+            if(heapKey[child] <= key) break;
+            heapKey[i] = heapKey[child];
+            heapStamp[i] = heapStamp[child];
+            i = child;
+        }
+        heapKey[i] = key;
+        heapStamp[i] = entryStamp;
+    }
+
+    /**
+     * Descarta de una vez las entradas viejas cuando ya son más que las vigentes.
+     */
+    private void compact() {
+        int w = 0;
+        for(int r=0;r<heapSize;r++) {
+            int t = find(locationOf(heapKey[r]));
+            if(t != 0 && heapStamp[r] == stamp[t] && tenges[t] > 0) {
+                heapKey[w] = heapKey[r];
+                heapStamp[w++] = heapStamp[r];
+            }
+        }
+        heapSize = w;
+        for(int i = heapSize / 2 - 1; i >= 0; i--) siftDown(i);
+    }
+}
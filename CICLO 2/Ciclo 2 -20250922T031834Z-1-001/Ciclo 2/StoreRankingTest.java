@@ -0,0 +1,91 @@
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+/**
+ * Clase StoreRankingTest: pruebas de richestStores y bestTargets contra un recorrido completo de
+ * SilkRoad.stores(). El índice se arma con la primera consulta y después se sigue consultando
+ * mientras se colocan, quitan, vacían y reabastecen tiendas, así que también prueba que el
+ * montículo perezoso descarte las entradas viejas.
+ */
+public class StoreRankingTest {
+
+    @Test
+    public void workloadsMatchBruteForce() {
+        long seed = 11;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 300, 30, 100, 3, seed++);
+            SilkRoad r = SilkRoad.headless(() -> new SilkRoad(w.length()));
+            r.placeStores(w.days());
+            assertRanking(d.name() + " inicio", r, 0, 10);
+            for(int location : w.robots()) r.placeRobot(location);
+            for(int[] m : w.moves()) r.moveRobot(m[0], m[1]);
+            for(int i=0;i<w.rounds();i++) {
+                r.moveRobots();
+                assertRanking(d.name() + " ronda " + i, r, w.length() / 2, 10);
+                r.resupplyStores();
+            }
+            assertRanking(d.name(), r, w.length() / 3, 400);
+        }
+    }
+
+    @Test
+    public void randomOperationsMatchBruteForce() {
+        for(long seed = 1; seed <= 20; seed++) {
+            Random rnd = new Random(seed);
+            SilkRoad r = SilkRoad.headless(() -> new SilkRoad(80));
+            r.richestStores(1);     // arma el índice vacío: todo lo demás se hace en el lugar
+            for(int i=0;i<400;i++) {
+                int l = rnd.nextInt(80);
+                switch(rnd.nextInt(8)) {
+                    case 0: case 1: r.placeStore(l, rnd.nextInt(5) * 10); break;   // pocos valores: muchos empates
+                    case 2: {
+                        int[][] stores = r.stores();
+                        if(stores.length > 0) r.removeStore(stores[rnd.nextInt(stores.length)][0]);
+                        break;
+                    }
+                    case 3: r.placeStores(new int[][]{{l, 30}, {rnd.nextInt(80), 10}, {l, 20}}); break;
+                    case 4: r.placeRobot(l); break;
+                    case 5: r.moveRobots(); break;
+                    case 6: r.resupplyStores(); break;
+                    default: r.returnRobots();
+                }
+                assertRanking("semilla " + seed + " paso " + i, r, rnd.nextInt(100) - 10, 1 + rnd.nextInt(8));
+            }
+        }
+    }
+
+    @Test
+    public void storesPlacedAfterTheFirstQueryAreRanked() {
+        SilkRoad r = SilkRoad.headless(() -> new SilkRoad(100));
+        r.placeStore(10, 5);
+        assertArrayEquals(new int[][]{{10, 5}}, r.richestStores(3));
+        r.placeStore(50, 40);
+        r.placeStore(30, 40);
+        r.removeStore(10);
+        assertArrayEquals(new int[][]{{30, 40}, {50, 40}}, r.richestStores(3));
+        assertArrayEquals(new int[][]{{50, 40}, {30, 20}}, r.bestTargets(50, 3));
+    }
+
+    private static void assertRanking(String what, SilkRoad road, int position, int k) {
+        int[][] stores = road.stores();
+        List<int[]> rich = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        for(int[] s : stores) {
+            if(s[1] <= 0) continue;
+            rich.add(new int[]{s[0], s[1]});
+            targets.add(new int[]{s[0], s[1] - Math.abs(s[0] - position)});
+        }
+        Comparator<int[]> order = (a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : Integer.compare(a[0], b[0]);
+        rich.sort(order);
+        targets.sort(order);
+        assertArrayEquals(what + ": más ricas", top(rich, k), road.richestStores(k));
+        assertArrayEquals(what + ": mejores destinos", top(targets, k), road.bestTargets(position, k));
+    }
+
+    private static int[][] top(List<int[]> rows, int k) {
+        return rows.subList(0, Math.min(k, rows.size())).toArray(new int[0][]);
+    }
+}
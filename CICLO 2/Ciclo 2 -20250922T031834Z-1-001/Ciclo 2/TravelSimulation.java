@@ -0,0 +1,232 @@
+import java.util.*;
+
+/**
+ * Clase TravelSimulation: motor de eventos discretos sobre una SilkRoad en el que los robots
+ * viajan a una velocidad dada en lugar de teletransportarse.
+ * Una salida retira al robot de la carretera y cobra |metros| tenges; la llegada lo devuelve
+ * a la carretera en su destino y recoge la tienda que encuentre allí. Varios robots pueden
+ * estar en tránsito a la vez; si llegan al mismo tiempo, se procesan por arrivalOrder.
+ *
+ * Los eventos viven en un montículo binario de arreglos primitivos (sin objetos por evento).
+ * Mientras un robot viaja no está en la carretera: reboot o returnRobots solo afectan a los
+ * robots que ya llegaron.
+ *
+ * @param road simulación sobre la que se mueven los robots (normalmente sin mostrar).
+ * @param speed metros recorridos por unidad de tiempo simulado.
+ */
+public class TravelSimulation {
+    private static final int ARRIVAL = 0;    // las llegadas van antes que las salidas del mismo instante
+    private static final int DEPARTURE = 1;
+
+    private final SilkRoad road;
+    private final double speed;
+    private double now;         // tiempo simulado del último evento procesado
+    private long sequence;      // desempate de salidas programadas en el mismo instante
+    private long processed;     // eventos procesados
+    private long rejected;      // salidas sin robot en su ubicación
+
+    // montículo: evento i = (time[i], rank[i]); el resto son datos del evento
+    private int size;
+    private double[] time = new double[64];
+    private long[] rank = new long[64];      // (tipo << 62) | arrivalOrder o secuencia
+    private int[] place = new int[64];       // salida: ubicación del robot; llegada: destino
+    private int[] meters = new int[64];      // metros del viaje
+    private double[] departed = new double[64]; // llegada: instante de salida
+    private Robot[] traveller = new Robot[64];  // llegada: robot en tránsito
+
+    /**
+     * Constructor del motor.
+     */
+    public TravelSimulation(SilkRoad road, double speed) {
+        if(speed <= 0) throw new IllegalArgumentException("speed debe ser positiva");
+        this.road = road;
+        this.speed = speed;
+    }
+
+    /**
+     * Devuelve el tiempo simulado actual.
+     * @return instante del último evento procesado.
+     */
+    public double now() { return now; }
+
+    /**
+     * Devuelve la simulación subyacente.
+     * @return SilkRoad sobre la que se mueven los robots.
+     */
+    public SilkRoad road() { return road; }
+
+    /** @return eventos pendientes (salidas programadas y llegadas). */
+    public int pending() { return size; }
+
+    /** @return robots en tránsito. */
+    public int inTransit() {
+        int n = 0;
+        for(int i=0;i<size;i++) if(rank[i] >>> 62 == ARRIVAL) n++;
+        return n;
+    }
+
+    /** @return eventos procesados desde la creación. */
+    public long processed() { return processed; }
+
+    /** @return salidas que no encontraron robot en su ubicación. */
+    public long rejected() { return rejected; }
+
+    /**
+     * Programa la salida del robot que esté en `location` en el instante `at`
+     * (o ahora, si `at` ya pasó). El robot se elige al procesar la salida, igual que en moveRobot.
+     *
+     * @param at instante de salida.
+     * @param location ubicación del robot al salir.
+     * @param meters desplazamiento en metros (positivo o negativo).
+     */
+    public void scheduleMove(double at, int location, int meters) {
+        push(Math.max(at, now), ((long)DEPARTURE << 62) | sequence++, location, meters, 0, null);
+    }
+
+    /**
+     * Programa la salida inmediata del robot que esté en `location`.
+     *
+     * @param location ubicación del robot.
+     * @param meters desplazamiento en metros (positivo o negativo).
+     */
+    public void move(int location, int meters) {
+        scheduleMove(now, location, meters);
+    }
+
+    /**
+     * Procesa todos los eventos hasta el instante `until` (incluido) y deja el reloj allí.
+     *
+     * @param until instante final.
+     * @return eventos procesados en esta llamada.
+     */
+    public long advanceTo(double until) {
+        long before = processed;
+        while(size > 0 && time[0] <= until) step();
+        now = Math.max(now, until);
+        return processed - before;
+    }
+
+    /**
+     * Procesa eventos hasta que no quede ninguno.
+     * @return eventos procesados en esta llamada.
+     */
+    public long runAll() {
+        long before = processed;
+        while(size > 0) step();
+        return processed - before;
+    }
+
+    /**
+     * Posiciones de todos los robots en el instante `at`, ordenadas por posición.
+     * Los robots en tránsito se interpolan sobre su viaje; los demás están en su ubicación.
+     * Pensado para que la capa visual muestree entre el último evento procesado y el siguiente.
+     *
+     * @param at instante a muestrear.
+     * @return arreglo de posiciones (en metros, con decimales).
+     */
+    public double[] positionsAt(double at) {
+        int[][] parked = road.robots();
+        double[] out = new double[parked.length + inTransit()];
+        int k = 0;
+        for(int[] r : parked) out[k++] = r[0];
+        for(int i=0;i<size;i++) {
+            if(rank[i] >>> 62 != ARRIVAL) continue;
+            double total = time[i] - departed[i];
+            double f = total <= 0 ? 1 : Math.max(0, Math.min(1, (at - departed[i]) / total));
+            out[k++] = place[i] - meters[i] + f * meters[i];
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    // ----------------- eventos -----------------
+
+    /**
+     * Saca y procesa el evento más próximo.
+     */
+    private void step() {
+        double t = time[0];
+        long r = rank[0];
+        int at = place[0];
+        int m = meters[0];
+        Robot robot = traveller[0];
+        pop();
+        now = t;
+        processed++;
+        if(r >>> 62 == DEPARTURE) {
+            Robot chosen = road.detachRobot(at);
+            if(chosen == null) { rejected++; return; }
+            int cost = Math.abs(m);
+            road.addProfit(-cost);
+            chosen.addProfit(-cost);
+            push(t + cost / speed, ((long)ARRIVAL << 62) | chosen.arrivalOrder(), at + m, m, t, chosen);
+        } else {
+            road.attachRobot(robot, at, true);
+        }
+    }
+
+    private void push(double t, long r, int p, int m, double d, Robot robot) {
+        if(size == time.length) grow();
+        int i = size++;
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(!before(t, r, parent)) break;
+            copy(parent, i);
+            i = parent;
+        }
+        set(i, t, r, p, m, d, robot);
+    }
+
+    private void pop() {
+        int last = --size;
+        double t = time[last];
+        long r = rank[last];
+        int p = place[last];
+        int m = meters[last];
+        double d = departed[last];
+        Robot robot = traveller[last];
+        traveller[last] = null;
+        if(last == 0) return;
+        int i = 0;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= last) break;
+            if(child + 1 < last && before(time[child + 1], rank[child + 1], child)) child++;
+            if(!before(time[child], rank[child], t, r)) break;
+            copy(child, i);
+            i = child;
+        }
+        set(i, t, r, p, m, d, robot);
+    }
+
+    private boolean before(double t, long r, int j) {
+        return before(t, r, time[j], rank[j]);
+    }
+
+    private static boolean before(double t1, long r1, double t2, long r2) {
+        return t1 < t2 || (t1 == t2 && r1 < r2);
+    }
+
+    private void copy(int from, int to) {
+        set(to, time[from], rank[from], place[from], meters[from], departed[from], traveller[from]);
+    }
+
+    private void set(int i, double t, long r, int p, int m, double d, Robot robot) {
+        time[i] = t;
+        rank[i] = r;
+        place[i] = p;
+        meters[i] = m;
+        departed[i] = d;
+        traveller[i] = robot;
+    }
+
+    private void grow() {
+        int n = time.length * 2;
+        time = Arrays.copyOf(time, n);
+        rank = Arrays.copyOf(rank, n);
+        place = Arrays.copyOf(place, n);
+        meters = Arrays.copyOf(meters, n);
+        departed = Arrays.copyOf(departed, n);
+        traveller = Arrays.copyOf(traveller, n);
+    }
+}
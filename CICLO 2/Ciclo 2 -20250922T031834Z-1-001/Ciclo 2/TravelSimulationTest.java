@@ -0,0 +1,66 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Clase TravelSimulationTest: pruebas de TravelSimulation contra SilkRoad.
+ * Con un solo robot en tránsito a la vez cada viaje debe dejar la carretera igual que moveRobot;
+ * con varios en tránsito, la tienda se la lleva el que llega primero.
+ */
+public class TravelSimulationTest {
+
+    @Test
+    public void oneTripAtATimeMatchesMoveRobot() {
+        long seed = 5;
+        for(WorkloadGenerator.Distribution d : WorkloadGenerator.Distribution.values()) {
+            Workload w = WorkloadGenerator.generate(d, 200, 40, 200, 3, seed++);
+            SilkRoad expected = SilkRoad.headless(w::run);
+            SilkRoad road = SilkRoad.headless(() -> new SilkRoad(w.length()));
+            road.createFromDays(w.days());
+            for(int location : w.robots()) road.placeRobot(location);
+            TravelSimulation sim = new TravelSimulation(road, 2.5);
+            for(int[] m : w.moves()) {
+                sim.move(m[0], m[1]);
+                sim.runAll();
+                assertEquals(0, sim.inTransit());
+            }
+            for(int i=0;i<w.rounds();i++) {
+                road.moveRobots();
+                road.resupplyStores();
+            }
+            assertEquals(d.name() + ": ganancia", expected.porfit(), road.porfit());
+            assertArrayEquals(d.name() + ": tiendas", expected.stores(), road.stores());
+            assertArrayEquals(d.name() + ": robots", expected.robots(), road.robots());
+            assertArrayEquals(d.name() + ": por robot", expected.profitPerRobot(), road.profitPerRobot());
+        }
+    }
+
+    @Test
+    public void firstArrivalTakesTheStore() {
+        SilkRoad road = SilkRoad.headless(() -> new SilkRoad(30));
+        road.placeStore(20, 50);
+        road.placeRobot(0);
+        road.placeRobot(10);
+        TravelSimulation sim = new TravelSimulation(road, 1);
+        sim.move(0, 20);     // llega en t = 20
+        sim.move(10, 10);    // llega en t = 10 y se lleva la tienda
+        sim.advanceTo(5);
+        assertEquals(2, sim.inTransit());
+        assertEquals(0, road.robots().length);
+        assertArrayEquals(new double[]{5, 15}, sim.positionsAt(5), 1e-9);
+        assertEquals(2, sim.runAll());      // las salidas ya se procesaron: quedan las dos llegadas
+        assertEquals(20.0, sim.now(), 0);
+        assertEquals(50 - 10 - 20, road.porfit());
+        assertArrayEquals(new int[][]{{20, 0}}, road.stores());
+    }
+
+    @Test
+    public void departureWithoutRobotIsRejected() {
+        SilkRoad road = SilkRoad.headless(() -> new SilkRoad(30));
+        TravelSimulation sim = new TravelSimulation(road, 1);
+        sim.scheduleMove(3, 7, 4);
+        assertEquals(1, sim.runAll());
+        assertEquals(1, sim.rejected());
+        assertEquals(0, road.porfit());
+    }
+}
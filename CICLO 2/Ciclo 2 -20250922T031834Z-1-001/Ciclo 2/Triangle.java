@@ -11,6 +11,7 @@ public class Triangle{
     
     public static int VERTICES=3;
     
+    // guarded by this; AnimationTimeline runs our animation frames holding the same monitor
     private int height;
     private int width;
     private int xPosition;
@@ -34,14 +35,16 @@ public class Triangle{
      * Make this triangle visible. If it was already visible, do nothing.
      */
     public void makeVisible(){
-        isVisible = true;
+        synchronized(this){
+            isVisible = true;
+        }
         draw();
     }
     
     /**
      * Make this triangle invisible. If it was already invisible, do nothing.
      */
-    public void makeInvisible(){
+    public synchronized void makeInvisible(){
         erase();
         isVisible = false;
     }
@@ -79,8 +82,11 @@ public class Triangle{
      * @param distance the desired distance in pixels
      */
     public void moveHorizontal(int distance){
-        erase();
-        xPosition += distance;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            erase();
+            xPosition += distance;
+        }
         draw();
     }
 
@@ -89,49 +95,48 @@ public class Triangle{
      * @param distance the desired distance in pixels
      */
     public void moveVertical(int distance){
-        erase();
-        yPosition += distance;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            erase();
+            yPosition += distance;
+        }
         draw();
     }
 
     /**
-     * Slowly move the triangle horizontally.
-     * @param distance the desired distance in pixels
+     * Move the triangle to an absolute position, redrawing once.
+     * @param x the new horizontal position in pixels
+     * @param y the new vertical position in pixels
      */
-    public void slowMoveHorizontal(int distance){
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-
-        for(int i = 0; i < distance; i++){
-            xPosition += delta;
-            draw();
+    public void moveTo(int x, int y){
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            xPosition = x;
+            yPosition = y;
         }
+        draw();
     }
 
     /**
-     * Slowly move the triangle vertically.
+     * Slowly move the triangle horizontally, one pixel every 10 milliseconds.
+     * The move is played by the AnimationTimeline; this call returns immediately.
      * @param distance the desired distance in pixels
      */
-    public void slowMoveVertical(int distance){
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
+    public synchronized void slowMoveHorizontal(int distance){
+        AnimationTimeline.finish(this);
+        AnimationTimeline.getTimeline().tween(this, xPosition, xPosition + distance,
+            10L * Math.abs(distance), x -> { xPosition = x; paint(); });
+    }
 
-        for(int i = 0; i < distance; i++){
-            yPosition += delta;
-            draw();
-        }
+    /**
+     * Slowly move the triangle vertically, one pixel every 10 milliseconds.
+     * The move is played by the AnimationTimeline; this call returns immediately.
+     * @param distance the desired distance in pixels
+     */
+    public synchronized void slowMoveVertical(int distance){
+        AnimationTimeline.finish(this);
+        AnimationTimeline.getTimeline().tween(this, yPosition, yPosition + distance,
+            10L * Math.abs(distance), y -> { yPosition = y; paint(); });
     }
 
     /**
@@ -140,11 +145,30 @@ public class Triangle{
      * @param newWidht the new width in pixels. newWidht must be >=0.
      */
     public void changeSize(int newHeight, int newWidth) {
-        erase();
-        height = newHeight;
-        width = newWidth;
+        synchronized(this){
+            AnimationTimeline.finish(this);
+            height = newHeight;
+            width = newWidth;
+        }
         draw();
     }
+
+    /**
+     * Slowly change the size, played by the AnimationTimeline; this call returns immediately.
+     * @param newHeight the new height in pixels. newHeight must be >=0.
+     * @param newWidth the new width in pixels. newWidth must be >=0.
+     * @param milliseconds how long the change takes
+     */
+    public synchronized void slowChangeSize(int newHeight, int newWidth, int milliseconds) {
+        AnimationTimeline.finish(this);
+        int height0 = height;
+        int width0 = width;
+        AnimationTimeline.getTimeline().animate(this, milliseconds, t -> {
+            height = height0 + (int)Math.round((newHeight - height0) * t);
+            width = width0 + (int)Math.round((newWidth - width0) * t);
+            paint();
+        });
+    }
     
     /**
      * Change the color. 
@@ -152,7 +176,9 @@ public class Triangle{
      * "magenta" and "black".
      */
     public void changeColor(String newColor){
-        color = newColor;
+        synchronized(this){
+            color = newColor;
+        }
         draw();
     }
 
@@ -160,12 +186,25 @@ public class Triangle{
      * Draw the triangle with current specifications on screen.
      */
     private void draw(){
+        boolean shown;
+        synchronized(this){
+            paint();
+            shown = isVisible;
+        }
+        if(shown) {
+            Canvas.getCanvas().wait(10);  // the pause happens outside the monitor
+        }
+    }
+
+    /*
+     * Draw the triangle without pausing (used by animation frames).
+     */
+    private void paint(){
         if(isVisible) {
             Canvas canvas = Canvas.getCanvas();
             int[] xpoints = { xPosition, xPosition + (width/2), xPosition - (width/2) };
             int[] ypoints = { yPosition, yPosition + height, yPosition + height };
             canvas.draw(this, color, new Polygon(xpoints, ypoints, 3));
-            canvas.wait(10);
         }
     }
 
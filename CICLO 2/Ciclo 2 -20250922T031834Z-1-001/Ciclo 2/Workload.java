@@ -0,0 +1,76 @@
+/**
+ * Clase Workload: escenario reproducible generado por WorkloadGenerator.
+ * Contiene los días en el formato de createFromDays ({ubicación, tenges}), las ubicaciones
+ * iniciales de los robots, una secuencia de movimientos {ubicación, metros} y cuántas rondas
+ * de moveRobots se juegan al final (cada una seguida de resupplyStores).
+ * Se ejecuta sin interfaz gráfica, por lo que puede pasarse directamente a SimulationRunner.
+ *
+ * @param name nombre del escenario (distribución y tamaño).
+ * @param length longitud lógica de la carretera.
+ * @param days tiendas {ubicación, tenges}.
+ * @param robots ubicaciones iniciales de los robots.
+ * @param moves movimientos {ubicación actual, metros}.
+ * @param rounds rondas de moveRobots.
+ */
+public class Workload implements SimulationRunner.Scenario {
+    private final String name;
+    private final int length;
+    private final int[][] days;
+    private final int[] robots;
+    private final int[][] moves;
+    private final int rounds;
+
+    /**
+     * Constructor del escenario.
+     */
+    public Workload(String name, int length, int[][] days, int[] robots, int[][] moves, int rounds) {
+        this.name = name;
+        this.length = length;
+        this.days = days;
+        this.robots = robots;
+        this.moves = moves;
+        this.rounds = rounds;
+    }
+
+    /** @return nombre del escenario. */
+    public String name() { return name; }
+    /** @return longitud lógica de la carretera. */
+    public int length() { return length; }
+    /** @return tiendas {ubicación, tenges} en el formato de createFromDays. */
+    public int[][] days() { return days; }
+    /** @return ubicaciones iniciales de los robots. */
+    public int[] robots() { return robots; }
+    /** @return movimientos {ubicación actual, metros}. */
+    public int[][] moves() { return moves; }
+    /** @return rondas de moveRobots. */
+    public int rounds() { return rounds; }
+
+    /**
+     * Construye la SilkRoad y juega el escenario completo sin hacerla visible.
+     * @return la SilkRoad en su estado final.
+     */
+    @Override
+    public SilkRoad run() {
+        SilkRoad road = new SilkRoad(length);
+        road.createFromDays(days);
+        for(int location : robots) road.placeRobot(location);
+        for(int[] m : moves) road.moveRobot(m[0], m[1]);
+        for(int i=0;i<rounds;i++) {
+            road.moveRobots();
+            road.resupplyStores();
+        }
+        return road;
+    }
+
+    /**
+     * Operaciones públicas de SilkRoad que realiza run().
+     * @return número de operaciones.
+     */
+    @Override
+    public long operations() {
+        return days.length + robots.length + moves.length + 2L * rounds;
+    }
+
+    @Override
+    public String toString() { return name; }
+}
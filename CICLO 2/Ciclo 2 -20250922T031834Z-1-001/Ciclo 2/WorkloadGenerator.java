@@ -0,0 +1,143 @@
+import java.util.*;
+
+/**
+ * Clase WorkloadGenerator: genera escenarios (Workload) reproducibles a partir de una semilla.
+ * La misma semilla y los mismos parámetros producen siempre el mismo escenario, de modo que
+ * distintas versiones del motor o distintas estrategias se comparan con la misma entrada.
+ *
+ * Distribuciones disponibles:
+ *  - UNIFORM: tiendas y robots repartidos uniformemente en la carretera.
+ *  - CLUSTERED: tiendas agrupadas alrededor de unos pocos centros.
+ *  - ADVERSARIAL: pensada para el moveRobots voraz; todas las tiendas son apenas rentables
+ *    (tenges = distancia + 1) para robots amontonados al inicio, así que ningún robot puede
+ *    descartar tiendas y todos persiguen los mismos objetivos.
+ *  - LONG_ROAD: carretera por encima del umbral de 20000 (mapeo en espiral) con entidades dispersas.
+ */
+public class WorkloadGenerator {
+    /** Umbral a partir del cual SilkRoad dibuja la carretera en espiral. */
+    public static final int SPIRAL_THRESHOLD = 20000;
+
+    /**
+     * Distribución de tiendas, robots y movimientos.
+     */
+    public enum Distribution { UNIFORM, CLUSTERED, ADVERSARIAL, LONG_ROAD }
+
+    private final Random rnd;
+
+    /**
+     * Constructor del generador.
+     * @param seed semilla del generador pseudoaleatorio.
+     */
+    public WorkloadGenerator(long seed) {
+        rnd = new Random(seed);
+    }
+
+    /**
+     * Genera un escenario con una semilla dada.
+     *
+     * @param d distribución.
+     * @param stores número de tiendas.
+     * @param robots número de robots.
+     * @param moves número de movimientos de moveRobot.
+     * @param rounds rondas de moveRobots al final.
+     * @param seed semilla.
+     * @return escenario reproducible.
+     */
+    public static Workload generate(Distribution d, int stores, int robots, int moves, int rounds, long seed) {
+        return new WorkloadGenerator(seed).next(d, stores, robots, moves, rounds);
+    }
+
+    /**
+     * Genera el siguiente escenario con el estado actual del generador.
+     *
+     * @param d distribución.
+     * @param stores número de tiendas.
+     * @param robots número de robots.
+     * @param moves número de movimientos de moveRobot.
+     * @param rounds rondas de moveRobots al final.
+     * @return escenario reproducible.
+     */
+    public Workload next(Distribution d, int stores, int robots, int moves, int rounds) {
+        int entities = Math.max(1, stores + robots);
+        int length;
+        switch(d) {
+            case LONG_ROAD: length = Math.max(SPIRAL_THRESHOLD + 1, 50 * entities); break;
+            case ADVERSARIAL: length = 4 * entities; break;
+            default: length = Math.max(100, 4 * entities);
+        }
+        Set<Integer> taken = new HashSet<>();
+        int[][] days = new int[stores][];
+        int[] robotLocs = new int[robots];
+
+        if(d == Distribution.ADVERSARIAL) {
+            // robots amontonados al inicio, tiendas detrás con tenges = distancia + 1
+            for(int i=0;i<robots;i++) { robotLocs[i] = i; taken.add(i); }
+            for(int i=0;i<stores;i++) {
+                int loc = robots + i * 3 + 1;
+                taken.add(loc);
+                days[i] = new int[]{loc, loc + 1};
+            }
+        } else {
+            int centers = Math.max(1, stores / 100);
+            int[] center = new int[centers];
+            for(int i=0;i<centers;i++) center[i] = rnd.nextInt(length);
+            double spread = Math.max(1.0, length / (20.0 * centers));
+            for(int i=0;i<stores;i++) {
+                int loc;
+                do {
+                    if(d == Distribution.CLUSTERED) {
+                        loc = clamp((int)Math.round(center[rnd.nextInt(centers)] + rnd.nextGaussian() * spread), length);
+                    } else {
+                        loc = rnd.nextInt(length);
+                    }
+                } while(!taken.add(loc));
+                days[i] = new int[]{loc, 1 + rnd.nextInt(1000)};
+            }
+            for(int i=0;i<robots;i++) {
+                int loc;
+                do { loc = rnd.nextInt(length); } while(!taken.add(loc));
+                robotLocs[i] = loc;
+            }
+        }
+
+        int[][] moveList = moves(d, length, days, robotLocs, moves);
+        String name = d.name().toLowerCase() + "-" + stores + "x" + robots;
+        return new Workload(name, length, days, robotLocs, moveList, rounds);
+    }
+
+    /**
+     * Genera movimientos {ubicación actual, metros} siguiendo la posición de cada robot.
+     * Nunca lleva un robot a una ubicación ocupada por otro, de modo que cada movimiento
+     * mueve exactamente al robot previsto.
+     */
+    private int[][] moves(Distribution d, int length, int[][] days, int[] robotLocs, int count) {
+        int[][] out = new int[robotLocs.length == 0 ? 0 : count][];
+        int[] pos = robotLocs.clone();
+        Set<Integer> occupied = new HashSet<>();
+        for(int p : pos) occupied.add(p);
+        int step = d == Distribution.LONG_ROAD ? Math.max(1, length / 10) : Math.max(1, length / 50);
+        for(int i=0;i<out.length;i++) {
+            int r = rnd.nextInt(pos.length);
+            int target = pos[r];
+            for(int attempt = 0; attempt < 8; attempt++) {
+                int candidate;
+                if(d == Distribution.ADVERSARIAL || d == Distribution.CLUSTERED) {
+                    // ir a una tienda: disputa por los mismos objetivos
+                    candidate = days.length == 0 ? pos[r] : days[rnd.nextInt(days.length)][0];
+                } else {
+                    candidate = clamp(pos[r] + rnd.nextInt(2 * step + 1) - step, length);
+                }
+                if(!occupied.contains(candidate)) { target = candidate; break; }
+            }
+            out[i] = new int[]{pos[r], target - pos[r]};
+            occupied.remove(pos[r]);
+            occupied.add(target);
+            pos[r] = target;
+        }
+        return out;
+    }
+
+    private static int clamp(int v, int length) {
+        return Math.max(0, Math.min(length - 1, v));
+    }
+}